@@ -63,4 +63,20 @@ public class ParsingErrorCheckTest {
       .noMore();
   }
 
+  @Test
+  @SuppressWarnings("squid:S2699") // ... verify contains the assertion
+  public void test_parse_budget_exceeded() throws UnsupportedEncodingException, IOException {
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.MACRO_EXPANSION_DEPTH_LIMIT,
+                    "3");
+
+    var tester = CxxFileTesterHelper.create("src/test/resources/checks/parsingBudget.cc", ".");
+    SourceFile file = CxxAstScanner
+      .scanSingleInputFileConfig(tester.asInputFile(), squidConfig, new ParsingErrorCheck());
+
+    CheckMessagesVerifier.verify(file.getCheckMessages())
+      .next().withMessageThat(containsString("macro expansion depth of more than 3"))
+      .noMore();
+  }
+
 }
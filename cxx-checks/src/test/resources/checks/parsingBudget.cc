@@ -0,0 +1,8 @@
+#define A1 x
+#define A2 A1 + A1
+#define A3 A2 + A2
+#define A4 A3 + A3
+
+int x = 1;
+int a = A2;
+int b = A4;
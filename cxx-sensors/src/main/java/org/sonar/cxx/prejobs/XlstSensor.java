@@ -20,14 +20,13 @@
 package org.sonar.cxx.prejobs;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
-import javax.xml.XMLConstants;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Source;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import javax.xml.transform.Templates;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
 import org.apache.commons.io.FilenameUtils;
 import org.sonar.api.batch.Phase;
 import org.sonar.api.batch.sensor.SensorContext;
@@ -36,7 +35,14 @@ import org.sonar.api.scanner.sensor.ProjectSensor;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.sensors.utils.CxxUtils;
+import org.sonar.cxx.sensors.utils.ParallelExecutor;
+import org.sonar.cxx.sensors.utils.XsltStylesheets;
 
+/**
+ * Transforms XML files (e.g. test reports) with XSL stylesheets before the reports are imported.
+ *
+ * Each stylesheet is compiled only once, the files are transformed concurrently.
+ */
 @Phase(name = Phase.Name.PRE)
 public class XlstSensor implements ProjectSensor {
 
@@ -51,16 +57,6 @@ public class XlstSensor implements ProjectSensor {
 
   private SensorContext context;
 
-  private static void transformFile(Source stylesheetFile, File input, File output) throws TransformerException {
-    var factory = TransformerFactory.newInstance();
-    factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-    factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
-    factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-    var transformer = factory.newTransformer(stylesheetFile);
-    transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-    transformer.transform(new StreamSource(input), new StreamResult(output));
-  }
-
   @Override
   public void describe(SensorDescriptor descriptor) {
     descriptor
@@ -71,6 +67,7 @@ public class XlstSensor implements ProjectSensor {
   @Override
   public void execute(SensorContext context) {
     this.context = context;
+    var stylesheets = new XsltStylesheets(context.fileSystem().baseDir().getAbsolutePath());
     for (var i = 1; i <= MAX_STYLESHEETS; i++) {
       var paramError = false;
 
@@ -107,25 +104,36 @@ public class XlstSensor implements ProjectSensor {
       }
 
       LOG.debug("XLST: Converting '{}' with '{}' to '{}'.", inputs, stylesheet, outputs);
-      transformFileList(context.fileSystem().baseDir().getAbsolutePath(), stylesheet, inputs, outputs);
+      transformFileList(stylesheets, stylesheet, inputs, outputs);
     }
   }
 
-  private void transformFileList(String baseDir, String stylesheet, List<File> inputs, String outputs) {
-    for (var j = 0; j < inputs.size(); j++) {
-      try {
-        var inputStream = this.getClass().getResourceAsStream("/xsl/" + stylesheet);
-        Source stylesheetFile;
-        if (inputStream != null) {
-          stylesheetFile = new StreamSource(inputStream);
-        } else {
-          stylesheetFile = new StreamSource(new File(CxxUtils.resolveAntPath(baseDir, stylesheet)));
+  private void transformFileList(XsltStylesheets stylesheets, String stylesheet, List<File> inputs, String outputs) {
+    Templates templates;
+    try {
+      templates = stylesheets.get(stylesheet);
+    } catch (TransformerException e) {
+      CxxUtils.validateRecovery("Cannot XLS transform files", e, context.config());
+      return;
+    }
+
+    var tasks = new ArrayList<Callable<Void>>();
+    for (var input : inputs) {
+      var output = createOutputFile(input.getPath(), outputs);
+      tasks.add(() -> {
+        XsltStylesheets.transform(templates, input, new StreamResult(output));
+        return null;
+      });
+    }
+
+    int threads = Math.min(ParallelExecutor.defaultThreads(), tasks.size());
+    try (var executor = new ParallelExecutor("cxx-xslt", threads)) {
+      for (var result : executor.invokeAll(tasks)) {
+        try {
+          ParallelExecutor.getResult(result);
+        } catch (ExecutionException e) {
+          CxxUtils.validateRecovery("Cannot XLS transform files", e, context.config());
         }
-        var inputFile = inputs.get(j);
-        var outputFile = createOutputFile(inputFile.getPath(), outputs);
-        transformFile(stylesheetFile, inputFile, outputFile);
-      } catch (TransformerException | NullPointerException e) {
-        CxxUtils.validateRecovery("Cannot XLS transform files", e, context.config());
       }
     }
   }
@@ -21,11 +21,15 @@ package org.sonar.cxx.sensors.clangtidy;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.sensors.utils.ChunkedTextParser;
 import org.sonar.cxx.sensors.utils.TextScanner;
 import org.sonar.cxx.utils.CxxReportIssue;
 
@@ -36,73 +40,108 @@ public class ClangTidyParser {
   private static final String REGEX = "((?>[a-zA-Z]:\\\\)??[^:]++):(\\d{1,5}):(\\d{1,5}): ([^:]++): (.+)";
   private static final Pattern PATTERN = Pattern.compile(REGEX);
 
+  private static final Map<String, String> DEFAULT_RULE_IDS = Map.of(
+    "note", "",
+    "warning", "clang-diagnostic-warning",
+    "error", "clang-diagnostic-error",
+    "fatal error", "clang-diagnostic-error"
+  );
+
   private final CxxClangTidySensor sensor;
-  private Issue issue = null;
+  private final int chunkSize;
 
   public ClangTidyParser(CxxClangTidySensor sensor) {
+    this(sensor, ChunkedTextParser.DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * @param sensor sensor saving the issues
+   * @param chunkSize minimum number of lines parsed at once, larger reports are parsed concurrently in chunks
+   */
+  public ClangTidyParser(CxxClangTidySensor sensor, int chunkSize) {
     this.sensor = sensor;
+    this.chunkSize = chunkSize;
   }
 
+  /**
+   * Parse the report and save the issues. The report is split into chunks before lines starting a new issue (notes
+   * belong to the preceding issue), the chunks are parsed concurrently and the issues are saved in the order of the
+   * report.
+   */
   public void parse(File report, String defaultEncoding) throws IOException {
     try (var scanner = new TextScanner(report, defaultEncoding)) {
       LOG.debug("Encoding='{}'", scanner.encoding());
 
-      CxxReportIssue currentIssue = null;
-      while (scanner.hasNextLine()) {
-        if (!parseLine(scanner.nextLine())) {
-          continue;
+      new ChunkedTextParser<List<CxxReportIssue>>(chunkSize, ClangTidyParser::isIssueStart,
+                                                  (lines, last) -> parseLines(lines))
+        .parseLines(scanner, issues -> issues.forEach(sensor::saveUniqueViolation));
+    }
+  }
+
+  private static boolean isIssueStart(String line) {
+    var issue = parseLine(line);
+    return issue != null && !"note".equals(issue.level);
+  }
+
+  private static List<CxxReportIssue> parseLines(List<String> lines) {
+    var issues = new ArrayList<CxxReportIssue>();
+    CxxReportIssue currentIssue = null;
+    for (var line : lines) {
+      var issue = parseLine(line);
+      if (issue == null) {
+        continue;
+      }
+      if ("note".equals(issue.level)) {
+        if (currentIssue != null) {
+          currentIssue.addFlowElement(issue.path, issue.line, issue.column, issue.info);
         }
-        if ("note".equals(issue.level)) {
-          if (currentIssue != null) {
-            currentIssue.addFlowElement(issue.path, issue.line, issue.column, issue.info);
-          }
-        } else {
-          if (currentIssue != null) {
-            sensor.saveUniqueViolation(currentIssue);
-          }
-          currentIssue = new CxxReportIssue(issue.ruleId, issue.path, issue.line, issue.column, issue.info);
-          for (var aliasRuleId : issue.aliasRuleIds) {
-            currentIssue.addAliasRuleId(aliasRuleId);
-          }
+      } else {
+        if (currentIssue != null) {
+          issues.add(currentIssue);
+        }
+        currentIssue = new CxxReportIssue(issue.ruleId, issue.path, issue.line, issue.column, issue.info);
+        for (var aliasRuleId : issue.aliasRuleIds) {
+          currentIssue.addAliasRuleId(aliasRuleId);
         }
       }
-      if (currentIssue != null) {
-        sensor.saveUniqueViolation(currentIssue);
-      }
     }
+    if (currentIssue != null) {
+      issues.add(currentIssue);
+    }
+    return issues;
   }
 
-  private boolean parseLine(String data) {
+  @CheckForNull
+  private static Issue parseLine(String data) {
     var matcher = PATTERN.matcher(data);
-    issue = null;
-    if (matcher.matches()) {
-      issue = new Issue();
-      // group: 1      2      3         4        5
-      //      <path>:<line>:<column>: <level>: <info> [ruleIds]
-      // sample:
-      //      c:\a\file.cc:5:20: warning: txt txt [clang-diagnostic-writable-strings]
-      var m = matcher.toMatchResult();
-      issue.path = m.group(1);   // relative paths
-      issue.line = m.group(2);   // 1...n
-      issue.column = m.group(3); // 1...n
-      issue.level = m.group(4);  // error, warning, note, ...
-      issue.info = m.group(5);   // info [ruleIds]
-
-      // Clang-Tidy column numbers are from 1...n and SQ is using 0...n
-      try {
-        issue.column = Integer.toString(Integer.parseInt(issue.column) - 1);
-      } catch (java.lang.NumberFormatException e) {
-        issue.column = "";
-      }
-
-      splitRuleIds(); // info [ruleId, aliasId, ...]
+    if (!matcher.matches()) {
+      return null;
+    }
+    var issue = new Issue();
+    // group: 1      2      3         4        5
+    //      <path>:<line>:<column>: <level>: <info> [ruleIds]
+    // sample:
+    //      c:\a\file.cc:5:20: warning: txt txt [clang-diagnostic-writable-strings]
+    var m = matcher.toMatchResult();
+    issue.path = m.group(1);   // relative paths
+    issue.line = m.group(2);   // 1...n
+    issue.column = m.group(3); // 1...n
+    issue.level = m.group(4);  // error, warning, note, ...
+    issue.info = m.group(5);   // info [ruleIds]
+
+    // Clang-Tidy column numbers are from 1...n and SQ is using 0...n
+    try {
+      issue.column = Integer.toString(Integer.parseInt(issue.column) - 1);
+    } catch (java.lang.NumberFormatException e) {
+      issue.column = "";
     }
 
-    return issue != null;
+    splitRuleIds(issue); // info [ruleId, aliasId, ...]
+    return issue;
   }
 
-  private void splitRuleIds() {
-    issue.ruleId = getDefaultRuleId();
+  private static void splitRuleIds(Issue issue) {
+    issue.ruleId = getDefaultRuleId(issue.level);
 
     if (!issue.info.endsWith("]")) { // [...]
       return;
@@ -131,15 +170,8 @@ public class ClangTidyParser {
     }
   }
 
-  String getDefaultRuleId() {
-    Map<String, String> map = Map.of(
-      "note", "",
-      "warning", "clang-diagnostic-warning",
-      "error", "clang-diagnostic-error",
-      "fatal error", "clang-diagnostic-error"
-    );
-
-    return map.getOrDefault(issue.level, "clang-diagnostic-unknown");
+  static String getDefaultRuleId(String level) {
+    return DEFAULT_RULE_IDS.getOrDefault(level, "clang-diagnostic-unknown");
   }
 
   @Override
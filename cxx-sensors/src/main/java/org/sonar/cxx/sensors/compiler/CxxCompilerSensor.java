@@ -20,14 +20,17 @@
 package org.sonar.cxx.sensors.compiler;
 
 import java.io.File;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.sensors.utils.ChunkedTextParser;
 import org.sonar.cxx.sensors.utils.CxxIssuesReportSensor;
 import org.sonar.cxx.sensors.utils.InvalidReportException;
 import org.sonar.cxx.sensors.utils.TextScanner;
@@ -39,7 +42,7 @@ import org.sonar.cxx.utils.CxxReportIssue;
 public abstract class CxxCompilerSensor extends CxxIssuesReportSensor {
 
   private static final Logger LOG = Loggers.get(CxxCompilerSensor.class);
-  private final Set<String> notExistingGroupName = new HashSet<>();
+  private final Set<String> notExistingGroupName = ConcurrentHashMap.newKeySet();
 
   @Override
   protected void processReport(File report) {
@@ -62,27 +65,37 @@ public abstract class CxxCompilerSensor extends CxxIssuesReportSensor {
       LOG.debug("Processing '{}' report '{}', Encoding='{}', Pattern='{}'",
                 getCompilerKey(), report, scanner.encoding(), pattern);
 
-      while (scanner.hasNextLine()) {
-        var matcher = pattern.matcher(scanner.nextLine());
-        if (matcher.find()) {
-          String filename = alignFilename(getSubSequence(matcher, "file"));
-          String line = alignLine(getSubSequence(matcher, "line"));
-          String column = alignColumn(getSubSequence(matcher, "column"));
-          String id = alignId(getSubSequence(matcher, "id"));
-          String msg = alignMessage(getSubSequence(matcher, "message"));
-          if (isInputValid(filename, line, column, id, msg)) {
-            var issue = new CxxReportIssue(id, filename, line, column, msg);
-            saveUniqueViolation(issue);
-          } else {
-            LOG.debug("Invalid compiler warning: '{}''{}', skipping", id, msg);
-          }
-        }
-      }
+      // each line is independent of the others: the chunks can be split at any line
+      new ChunkedTextParser<List<CxxReportIssue>>(line -> true, (lines, last) -> parseLines(pattern, lines))
+        .parseLines(scanner, issues -> issues.forEach(this::saveUniqueViolation));
     } catch (java.io.IOException | java.lang.IllegalArgumentException | java.lang.IllegalStateException e) {
       throw new InvalidReportException("The compiler report is invalid", e);
     }
   }
 
+  /**
+   * Parse a chunk of the report. The chunks are parsed concurrently, the align methods must not modify shared state.
+   */
+  private List<CxxReportIssue> parseLines(Pattern pattern, List<String> lines) {
+    var issues = new ArrayList<CxxReportIssue>();
+    for (var text : lines) {
+      var matcher = pattern.matcher(text);
+      if (matcher.find()) {
+        String filename = alignFilename(getSubSequence(matcher, "file"));
+        String line = alignLine(getSubSequence(matcher, "line"));
+        String column = alignColumn(getSubSequence(matcher, "column"));
+        String id = alignId(getSubSequence(matcher, "id"));
+        String msg = alignMessage(getSubSequence(matcher, "message"));
+        if (isInputValid(filename, line, column, id, msg)) {
+          issues.add(new CxxReportIssue(id, filename, line, column, msg));
+        } else {
+          LOG.debug("Invalid compiler warning: '{}''{}', skipping", id, msg);
+        }
+      }
+    }
+    return issues;
+  }
+
   /**
    * Unique string to identify the compiler
    *
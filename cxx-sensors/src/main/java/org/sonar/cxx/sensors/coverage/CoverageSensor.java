@@ -62,18 +62,23 @@ public abstract class CoverageSensor extends CxxReportSensor {
    * @param report to read
    */
   protected void executeReport(File report) {
+    getStatistics().startReport(report);
     try {
       LOG.info("Processing report '{}'", report);
       processReport(report);
     } catch (EmptyReportException e) {
       LOG.warn(e.getMessage());
     } catch (ReportException e) {
+      getStatistics().reportFailed();
       CxxUtils.validateRecovery(e.getMessage(), e, context.config());
+    } finally {
+      getStatistics().endReport();
     }
   }
 
   protected void processReport(File report) {
     var coverageData = parser.parse(report);
+    getStatistics().addParsed(coverageData.size());
     if (coverageData.isEmpty()) {
       throw new EmptyReportException("Coverage report " + report + " result is empty (parsed by " + parser + ")");
     }
@@ -94,6 +99,7 @@ public abstract class CoverageSensor extends CxxReportSensor {
 
           try {
             newCoverage.save();
+            getStatistics().addSaved(1);
             LOG.debug("Saved '{}' coverage measures for file '{}'", measures.size(), filePath);
           } catch (RuntimeException e) {
             var msg = "Cannot save coverage measures for file '" + filePath + "'";
@@ -27,6 +27,8 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.regex.Matcher;
@@ -39,6 +41,7 @@ import static org.sonar.cxx.sensors.coverage.ctc.TestwellCtcTxtResult.FILE_HEADE
 import static org.sonar.cxx.sensors.coverage.ctc.TestwellCtcTxtResult.FILE_RESULT;
 import static org.sonar.cxx.sensors.coverage.ctc.TestwellCtcTxtResult.LINE_RESULT;
 import static org.sonar.cxx.sensors.coverage.ctc.TestwellCtcTxtResult.SECTION_SEP;
+import org.sonar.cxx.sensors.utils.ChunkedTextParser;
 import org.sonar.cxx.sensors.utils.InvalidReportException;
 import org.sonar.cxx.sensors.utils.TextScanner;
 
@@ -54,35 +57,70 @@ public class TestwellCtcTxtParser implements CoverageParser {
   private static final int CONDS_TRUE = 2;
   private static final int LINE_NR_GROUP = 3;
 
+  /**
+   * Minimum number of sections parsed at once, larger reports are parsed concurrently in chunks.
+   */
+  private static final int CHUNK_SIZE = 1_000;
+
+  private final int chunkSize;
+
+  public TestwellCtcTxtParser() {
+    this(CHUNK_SIZE);
+  }
+
+  public TestwellCtcTxtParser(int chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
   /**
    * {@inheritDoc}
+   *
+   * The report is split into chunks before sections with a file header, the chunks are parsed concurrently.
    */
   @Override
   public Map<String, CoverageMeasures> parse(File report) {
     var coverageData = new HashMap<String, CoverageMeasures>();
     try ( var scanner = new TextScanner(report, StandardCharsets.UTF_8.name())) {
       scanner.useDelimiter(SECTION_SEP);
-      var headerMatcher = FILE_HEADER.matcher(scanner.next());
-      while (parseUnit(scanner, coverageData, headerMatcher)) {
-        headerMatcher.reset(scanner.next());
-      }
-    } catch (IOException | NoSuchElementException e) {
+      new ChunkedTextParser<Map<String, CoverageMeasures>>(chunkSize, TestwellCtcTxtParser::isFileHeader,
+                                                           this::parseSections)
+        .parseTokens(scanner, coverageData::putAll);
+    } catch (IOException | NoSuchElementException | IllegalStateException e) {
       throw new InvalidReportException("Testwell CTC++ coverage report '" + report + "' cannot be parsed.", e);
     }
 
     return coverageData;
   }
 
-  private boolean parseUnit(TextScanner scanner, final Map<String, CoverageMeasures> coverageData, Matcher headerMatcher) {
+  private static boolean isFileHeader(String section) {
+    return FILE_HEADER.matcher(section).find(FROM_START);
+  }
+
+  private Map<String, CoverageMeasures> parseSections(List<String> sections, boolean last) {
+    var coverageData = new HashMap<String, CoverageMeasures>();
+    var iterator = sections.iterator();
+    var headerMatcher = FILE_HEADER.matcher(iterator.next());
+    while (parseUnit(iterator, coverageData, headerMatcher)) {
+      if (!last && !iterator.hasNext()) {
+        // the next chunk starts with the next file header
+        break;
+      }
+      headerMatcher.reset(iterator.next());
+    }
+    return coverageData;
+  }
+
+  private boolean parseUnit(Iterator<String> sections, final Map<String, CoverageMeasures> coverageData,
+                            Matcher headerMatcher) {
     if (headerMatcher.find(FROM_START)) {
-      parseFileUnit(scanner, coverageData, headerMatcher);
+      parseFileUnit(sections, coverageData, headerMatcher);
     } else {
       return false;
     }
     return true;
   }
 
-  private void parseFileUnit(TextScanner scanner, final Map<String, CoverageMeasures> coverageData,
+  private void parseFileUnit(Iterator<String> sections, final Map<String, CoverageMeasures> coverageData,
                              Matcher headerMatcher) {
     String normalFilename;
     String filename = headerMatcher.group(1);
@@ -92,12 +130,12 @@ public class TestwellCtcTxtParser implements CoverageParser {
       normalFilename = FilenameUtils.normalize("./" + filename);
     }
     var file = new File(normalFilename);
-    addLines(scanner, file, coverageData);
+    addLines(sections, file, coverageData);
   }
 
-  private void addLines(TextScanner scanner, File file, final Map<String, CoverageMeasures> coverageData) {
+  private void addLines(Iterator<String> sections, File file, final Map<String, CoverageMeasures> coverageData) {
     var coverageMeasures = CoverageMeasures.create();
-    for (var nextLine = scanner.next(); !FILE_RESULT.matcher(nextLine).find(); nextLine = scanner.next()) {
+    for (var nextLine = sections.next(); !FILE_RESULT.matcher(nextLine).find(); nextLine = sections.next()) {
       parseLineSection(coverageMeasures, nextLine);
     }
     coverageData.put(file.getPath(), coverageMeasures);
@@ -19,14 +19,22 @@
  */
 package org.sonar.cxx.sensors.tests.xunit;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nullable;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamResult;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.InputFile.Type;
 import org.sonar.api.batch.sensor.SensorDescriptor;
@@ -39,7 +47,9 @@ import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.sensors.utils.CxxReportSensor;
 import org.sonar.cxx.sensors.utils.CxxUtils;
 import org.sonar.cxx.sensors.utils.EmptyReportException;
+import org.sonar.cxx.sensors.utils.ParallelExecutor;
 import org.sonar.cxx.sensors.utils.StaxParser;
+import org.sonar.cxx.sensors.utils.XsltStylesheets;
 
 /**
  * {@inheritDoc}
@@ -47,6 +57,7 @@ import org.sonar.cxx.sensors.utils.StaxParser;
 public class CxxXunitSensor extends CxxReportSensor {
 
   public static final String REPORT_PATH_KEY = "sonar.cxx.xunit.reportPaths";
+  public static final String STYLESHEET_KEY = "sonar.cxx.xunit.stylesheet";
   private static final Logger LOG = Loggers.get(CxxXunitSensor.class);
 
   public static List<PropertyDefinition> properties() {
@@ -64,6 +75,18 @@ public class CxxXunitSensor extends CxxReportSensor {
         .subCategory("xUnit")
         .onQualifiers(Qualifiers.PROJECT)
         .multiValues(true)
+        .build(),
+      PropertyDefinition.builder(STYLESHEET_KEY)
+        .name("xUnit Report Stylesheet")
+        .description(
+          "Optional XSL stylesheet to transform the xUnit reports before they are read, e.g. a stylesheet bundled with"
+            + " the plugin like 'boosttest-1.x-to-junit-1.0.xsl' or the path to a stylesheet file. The result of the"
+            + " transformation is read directly, no intermediate files are written. Use 'sonar.cxx.xslt.xxx' instead"
+            + " if the transformed reports are needed for other purposes too."
+        )
+        .category("CXX External Analyzers")
+        .subCategory("xUnit")
+        .onQualifiers(Qualifiers.PROJECT)
         .build()
     ));
   }
@@ -81,39 +104,103 @@ public class CxxXunitSensor extends CxxReportSensor {
    */
   @Override
   public void executeImpl() {
-    try {
-      List<File> reports = getReports(REPORT_PATH_KEY);
-      if (!reports.isEmpty()) {
-        XunitReportParser parserHandler = parseReport(reports);
-        save(parserHandler.getTestFiles());
-      } else {
-        LOG.debug("No xUnit reports found, nothing to process");
+    List<File> reports = getReports(REPORT_PATH_KEY);
+    if (!reports.isEmpty()) {
+      XunitReportParser parserHandler = parseReports(reports);
+      save(parserHandler.getTestFiles());
+    } else {
+      LOG.debug("No xUnit reports found, nothing to process");
+    }
+  }
+
+  /**
+   * Parse the reports concurrently and add up the results in the order of the reports. Only the statistics of the test
+   * files are collected, the test cases with their messages and stack traces are not needed for the measures.
+   *
+   * @param reports xUnit reports
+   * @return statistics of all reports
+   */
+  private XunitReportParser parseReports(List<File> reports) {
+    String baseDir = context.fileSystem().baseDir().getPath();
+    var result = new XunitReportParser(baseDir, false);
+    String stylesheet = context.config().get(STYLESHEET_KEY).orElse("");
+    Templates templates = null;
+    if (!stylesheet.isEmpty()) {
+      try {
+        templates = new XsltStylesheets(context.fileSystem().baseDir().getAbsolutePath()).get(stylesheet);
+      } catch (TransformerException e) {
+        CxxUtils.validateRecovery("Cannot XLS transform xUnit reports", e, context.config());
+        return result;
       }
-    } catch (XMLStreamException e) {
-      CxxUtils.validateRecovery("Invalid xUnit report", e, context.config());
     }
+
+    var tasks = new ArrayList<Callable<XunitReportParser>>();
+    var times = new long[reports.size()];
+    for (var i = 0; i < reports.size(); i++) {
+      final int index = i;
+      final Templates reportTemplates = templates;
+      tasks.add(() -> {
+        long start = System.nanoTime();
+        try {
+          return parseReport(reports.get(index), reportTemplates, stylesheet, baseDir);
+        } finally {
+          times[index] = System.nanoTime() - start;
+        }
+      });
+    }
+    int threads = Math.min(ParallelExecutor.defaultThreads(), reports.size());
+    try (var executor = new ParallelExecutor("cxx-xunit", threads)) {
+      var results = executor.invokeAll(tasks);
+      for (var i = 0; i < reports.size(); i++) {
+        try {
+          var parserHandler = ParallelExecutor.getResult(results.get(i));
+          getStatistics().addReport(reports.get(i), times[i], getTests(parserHandler), false);
+          result.add(parserHandler);
+        } catch (ExecutionException e) {
+          getStatistics().addReport(reports.get(i), times[i], 0, true);
+          if (e.getCause() instanceof TransformerException) {
+            CxxUtils.validateRecovery("Cannot XLS transform xUnit report '" + reports.get(i) + "'", e,
+                                      context.config());
+          } else {
+            CxxUtils.validateRecovery("Invalid xUnit report '" + reports.get(i) + "'", e, context.config());
+          }
+        }
+      }
+    }
+    return result;
   }
 
   /**
-   * @param reports
-   * @return
-   * @throws XMLStreamException
-   * @throws IOException
+   * Parse a single report, transformed in memory if a stylesheet is given.
    */
-  private XunitReportParser parseReport(List<File> reports) throws XMLStreamException {
-    var parserHandler = new XunitReportParser(context.fileSystem().baseDir().getPath());
+  private static XunitReportParser parseReport(File report, @Nullable Templates templates, String stylesheet,
+                                               String baseDir) throws XMLStreamException, TransformerException {
+    var parserHandler = new XunitReportParser(baseDir, false);
     var parser = new StaxParser(parserHandler, false);
-    for (var report : reports) {
-      LOG.info("Processing xUnit report '{}'", report);
-      try {
+    try {
+      if (templates == null) {
+        LOG.info("Processing xUnit report '{}'", report);
         parser.parse(report);
-      } catch (EmptyReportException e) {
-        LOG.warn("The xUnit report '{}' seems to be empty, ignoring.", report);
+      } else {
+        LOG.info("Processing xUnit report '{}' with stylesheet '{}'", report, stylesheet);
+        var output = new ByteArrayOutputStream();
+        XsltStylesheets.transform(templates, report, new StreamResult(output));
+        parser.parse(new ByteArrayInputStream(output.toByteArray()));
       }
+    } catch (EmptyReportException e) {
+      LOG.warn("The xUnit report '{}' seems to be empty, ignoring.", report);
     }
     return parserHandler;
   }
 
+  private static int getTests(XunitReportParser parserHandler) {
+    var tests = 0;
+    for (var tf : parserHandler.getTestFiles()) {
+      tests += tf.getTests();
+    }
+    return tests;
+  }
+
   private void save(Collection<TestFile> testfiles) {
 
     var testsCount = 0;
@@ -134,6 +221,7 @@ public class CxxXunitSensor extends CxxReportSensor {
             saveMetric(inputFile, CoreMetrics.TEST_FAILURES, tf.getFailures());
             saveMetric(inputFile, CoreMetrics.SKIPPED_TESTS, tf.getSkipped());
             saveMetric(inputFile, CoreMetrics.TEST_EXECUTION_TIME, tf.getExecutionTime());
+            getStatistics().addSaved(1);
           }
         }
       }
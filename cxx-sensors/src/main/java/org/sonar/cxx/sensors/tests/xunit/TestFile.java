@@ -91,6 +91,45 @@ public class TestFile {
     }
   }
 
+  /**
+   * Adds the result of a test case to the internal statistics without keeping the test case itself
+   *
+   * @param status execution status of the test case
+   * @param executionTime execution time of the test case in milliseconds
+   */
+  public void add(String status, int executionTime) {
+    time += executionTime;
+    tests++;
+
+    switch (status) {
+      case TestCase.STATUS_FAILURE:
+        failures++;
+        break;
+      case TestCase.STATUS_ERROR:
+        errors++;
+        break;
+      case TestCase.STATUS_SKIPPED:
+        skipped++;
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Adds the test cases and statistics of another instance for the same file
+   *
+   * @param other test file to add
+   */
+  public void add(TestFile other) {
+    testCases.addAll(other.testCases);
+    time += other.time;
+    tests += other.tests;
+    failures += other.failures;
+    errors += other.errors;
+    skipped += other.skipped;
+  }
+
   public List<TestCase> getTestCases() {
     return new ArrayList<>(testCases);
   }
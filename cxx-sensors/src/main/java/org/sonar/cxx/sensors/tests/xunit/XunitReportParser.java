@@ -39,10 +39,22 @@ import org.sonar.cxx.sensors.utils.StaxParser.XmlStreamHandler;
 public class XunitReportParser implements XmlStreamHandler {
 
   private final String baseDir;
+  private final boolean keepTestCases;
   private final Map<String, TestFile> testFiles = new HashMap<>();
+  private final Map<String, String> resolvedFilenames = new HashMap<>();
 
   public XunitReportParser(String baseDir) {
+    this(baseDir, true);
+  }
+
+  /**
+   * @param baseDir base directory to resolve relative file names
+   * @param keepTestCases keep the test cases including messages and stack traces, otherwise only the statistics of the
+   * test files are collected
+   */
+  public XunitReportParser(String baseDir, boolean keepTestCases) {
     this.baseDir = baseDir;
+    this.keepTestCases = keepTestCases;
     testFiles.put(null, new TestFile("")); // TestFile 'global' (without filename)
   }
 
@@ -50,6 +62,22 @@ public class XunitReportParser implements XmlStreamHandler {
     return testFiles.values();
   }
 
+  /**
+   * Adds the test files of another parser, e.g. the result of another report.
+   *
+   * @param other parser with the test files to add
+   */
+  public void add(XunitReportParser other) {
+    for (var entry : other.testFiles.entrySet()) {
+      var file = testFiles.get(entry.getKey());
+      if (file == null) {
+        file = new TestFile(entry.getValue().getFilename());
+        testFiles.put(entry.getKey(), file);
+      }
+      file.add(entry.getValue());
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -85,7 +113,7 @@ public class XunitReportParser implements XmlStreamHandler {
     XMLStreamException {
     String classname = testCaseCursor.getAttrValue("classname");
     String tcFilename = testCaseCursor.getAttrValue("filename");
-    String name = parseTestCaseName(testCaseCursor);
+    String name = keepTestCases ? parseTestCaseName(testCaseCursor) : null;
     Double time = parseTime(testCaseCursor);
     var status = "ok";
     var stack = "";
@@ -105,14 +133,13 @@ public class XunitReportParser implements XmlStreamHandler {
               status = "skipped";
               break;
             case "failure":
-              status = "failure";
-              msg = childCursor.getAttrValue("message");
-              stack = childCursor.collectDescendantText();
-              break;
             case "error":
-              status = "error";
-              msg = childCursor.getAttrValue("message");
-              stack = childCursor.collectDescendantText();
+              status = elementName;
+              // message and stack trace are only needed for the test cases
+              if (keepTestCases) {
+                msg = childCursor.getAttrValue("message");
+                stack = childCursor.collectDescendantText();
+              }
               break;
             default:
               break;
@@ -123,14 +150,19 @@ public class XunitReportParser implements XmlStreamHandler {
 
     String filename = tcFilename != null ? tcFilename : tsFilename;
     var file = getTestFile(filename);
-    file.add(new TestCase(name, time.intValue(), status, stack, msg, classname, filename, tsName));
+    if (keepTestCases) {
+      file.add(new TestCase(name, time.intValue(), status, stack, msg, classname, filename, tsName));
+    } else {
+      file.add(status, time.intValue());
+    }
   }
 
   private TestFile getTestFile(String filename) {
-    String absolute = CxxUtils.resolveAntPath(baseDir, filename);
-    if (absolute != null) {
-      absolute = absolute.toLowerCase();
-    }
+    // resolve each file name only once, reports contain many test cases per file
+    String absolute = resolvedFilenames.computeIfAbsent(filename, f -> {
+      String path = CxxUtils.resolveAntPath(baseDir, f);
+      return path != null ? path.toLowerCase() : null;
+    });
     var file = testFiles.get(absolute);
     if (file == null) {
       file = new TestFile(absolute);
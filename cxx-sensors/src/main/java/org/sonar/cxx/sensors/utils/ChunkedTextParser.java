@@ -0,0 +1,185 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Parses a text report in chunks on the common fork/join pool.
+ *
+ * The records (lines or sections) of the report are read sequentially and collected to chunks. A chunk is only
+ * finished before a record starting a new unit (e.g. an issue and not one of its notes), so a chunk can be parsed
+ * without knowing the other ones. The results of the chunks are passed to the consumer in the order of the report
+ * and in the calling thread, so saving and deduplication of the results stay as if the report was parsed at once.
+ *
+ * Only a bounded number of chunks is kept in memory. A report consisting of a single chunk is parsed directly in the
+ * calling thread.
+ *
+ * @param <T> result of a chunk
+ */
+public class ChunkedTextParser<T> {
+
+  public static final int DEFAULT_CHUNK_SIZE = 10_000;
+
+  private final int chunkSize;
+  private final Predicate<String> isUnitStart;
+  private final ChunkParser<T> parser;
+
+  /**
+   * @param isUnitStart true if a record starts a new unit, a chunk is only split before such a record
+   * @param parser parser of a chunk
+   */
+  public ChunkedTextParser(Predicate<String> isUnitStart, ChunkParser<T> parser) {
+    this(DEFAULT_CHUNK_SIZE, isUnitStart, parser);
+  }
+
+  /**
+   * @param chunkSize minimum number of records of a chunk
+   * @param isUnitStart true if a record starts a new unit, a chunk is only split before such a record
+   * @param parser parser of a chunk
+   */
+  public ChunkedTextParser(int chunkSize, Predicate<String> isUnitStart, ChunkParser<T> parser) {
+    this.chunkSize = Math.max(chunkSize, 1);
+    this.isUnitStart = isUnitStart;
+    this.parser = parser;
+  }
+
+  /**
+   * Parse the lines of a report.
+   *
+   * @param scanner report
+   * @param consumer consumer of the chunk results, called in the order of the report
+   */
+  public void parseLines(TextScanner scanner, Consumer<T> consumer) {
+    parse(new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return scanner.hasNextLine();
+      }
+
+      @Override
+      public String next() {
+        return scanner.nextLine();
+      }
+    }, consumer);
+  }
+
+  /**
+   * Parse the tokens of a report, separated by the delimiter of the scanner.
+   *
+   * @param scanner report
+   * @param consumer consumer of the chunk results, called in the order of the report
+   */
+  public void parseTokens(TextScanner scanner, Consumer<T> consumer) {
+    parse(new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return scanner.hasNext();
+      }
+
+      @Override
+      public String next() {
+        return scanner.next();
+      }
+    }, consumer);
+  }
+
+  /**
+   * Parse the records.
+   *
+   * @param records records of the report
+   * @param consumer consumer of the chunk results, called in the order of the report
+   */
+  public void parse(Iterator<String> records, Consumer<T> consumer) {
+    var pool = ForkJoinPool.commonPool();
+    int maxPending = 2 * Math.max(pool.getParallelism(), 1);
+    Deque<Future<T>> pending = new ArrayDeque<>();
+    try {
+      var chunk = new ArrayList<String>();
+      while (records.hasNext()) {
+        var record = records.next();
+        if (chunk.size() >= chunkSize && isUnitStart.test(record)) {
+          final List<String> chunkRecords = chunk;
+          pending.add(CompletableFuture.supplyAsync(() -> parser.parse(chunkRecords, false), pool));
+          if (pending.size() >= maxPending) {
+            consumer.accept(getResult(pending.poll()));
+          }
+          chunk = new ArrayList<>();
+        }
+        chunk.add(record);
+      }
+
+      if (pending.isEmpty()) {
+        consumer.accept(parser.parse(chunk, true));
+        return;
+      }
+      final List<String> last = chunk;
+      pending.add(CompletableFuture.supplyAsync(() -> parser.parse(last, true), pool));
+      while (!pending.isEmpty()) {
+        consumer.accept(getResult(pending.poll()));
+      }
+    } finally {
+      pending.forEach(future -> future.cancel(true));
+    }
+  }
+
+  private static <T> T getResult(Future<T> future) {
+    try {
+      return ParallelExecutor.getResult(future);
+    } catch (ExecutionException e) {
+      var cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Parser of a chunk. Chunks are parsed concurrently: the parser must not modify shared state.
+   *
+   * @param <T> result of a chunk
+   */
+  @FunctionalInterface
+  public interface ChunkParser<T> {
+
+    /**
+     * @param records records of the chunk, the first record of all chunks but the first one starts a unit
+     * @param last true if this is the last chunk of the report
+     * @return result of the chunk
+     */
+    T parse(List<String> records, boolean last);
+
+  }
+
+}
@@ -21,10 +21,13 @@ package org.sonar.cxx.sensors.utils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.TextRange;
 import org.sonar.api.batch.sensor.issue.NewIssue;
@@ -38,13 +41,20 @@ import org.sonar.cxx.utils.CxxReportLocation;
 /**
  * This class is used as base for all sensors which import external reports, which contain issues. It hosts common logic
  * such as saving issues in SonarQube
+ *
+ * Unique issues are collected and saved in the order of the report in batches, at the latest at the end of a report.
+ * The files and text ranges of the locations are resolved only once per batch.
  */
 public abstract class CxxIssuesReportSensor extends CxxReportSensor {
 
   private static final Logger LOG = Loggers.get(CxxIssuesReportSensor.class);
+  private static final int BATCH_SIZE = 10_000;
 
   private final Set<CxxReportIssue> uniqueIssues = new HashSet<>();
+  private final List<CxxReportIssue> pendingIssues = new ArrayList<>();
+  private final Map<String, FileLocations> fileLocations = new HashMap<>();
   private int savedNewIssues = 0;
+  private boolean batching = false;
 
   /**
    * {@inheritDoc}
@@ -69,6 +79,7 @@ public abstract class CxxIssuesReportSensor extends CxxReportSensor {
       addFlow(newIssue, issue);
       newIssue.save();
       savedNewIssues++;
+      getStatistics().addSaved(1);
     }
   }
 
@@ -79,21 +90,18 @@ public abstract class CxxIssuesReportSensor extends CxxReportSensor {
    * given project and context. Project or file-level violations can be saved by passing null for the according
    * parameters ('file' = null for project level, 'line' = null for file-level)
    *
+   * While a report is processed, the issue is saved with the next batch, at the latest at the end of the report.
+   *
    * @param issue
    */
   public void saveUniqueViolation(CxxReportIssue issue) {
-    if (uniqueIssues.add(issue)) {
-      try {
-        saveIssue(issue.getRuleId(), issue);
-        if (issue.hasAliasRuleIds()) {
-          // in case of alias rule ids save the issues also with these ids
-          for (var aliasRuleId : issue.getAliasRuleIds()) {
-            saveIssue(aliasRuleId, issue);
-          }
-        }
-      } catch (RuntimeException e) {
-        var msg = "Cannot save the issue '" + issue + "'";
-        CxxUtils.validateRecovery(msg, e, context.config());
+    getStatistics().addParsed(1);
+    if (!uniqueIssues.add(issue)) {
+      getStatistics().addDuplicate();
+    } else {
+      pendingIssues.add(issue);
+      if (!batching || pendingIssues.size() >= BATCH_SIZE) {
+        savePendingIssues();
       }
     }
   }
@@ -102,24 +110,57 @@ public abstract class CxxIssuesReportSensor extends CxxReportSensor {
    * @param report to read
    */
   protected void executeReport(File report) {
+    getStatistics().startReport(report);
+    batching = true;
     try {
       LOG.info("Processing report '{}'", report);
       savedNewIssues = 0;
       processReport(report);
+      savePendingIssues();
       LOG.info("Processing successful, saved new issues={}", savedNewIssues);
     } catch (ReportException e) {
+      // the issues read before the error are saved anyway
+      savePendingIssues();
+      getStatistics().reportFailed();
       var msg = e.getMessage() + ", report='" + report + "'";
       CxxUtils.validateRecovery(msg, e, context.config());
+    } finally {
+      batching = false;
+      pendingIssues.clear();
+      fileLocations.clear();
+      getStatistics().endReport();
+    }
+  }
+
+  /**
+   * Save the pending issues in the order of the report.
+   */
+  private void savePendingIssues() {
+    for (var issue : pendingIssues) {
+      try {
+        saveIssue(issue.getRuleId(), issue);
+        if (issue.hasAliasRuleIds()) {
+          // in case of alias rule ids save the issues also with these ids
+          for (var aliasRuleId : issue.getAliasRuleIds()) {
+            saveIssue(aliasRuleId, issue);
+          }
+        }
+      } catch (RuntimeException e) {
+        var msg = "Cannot save the issue '" + issue + "'";
+        CxxUtils.validateRecovery(msg, e, context.config());
+      }
     }
+    pendingIssues.clear();
+    fileLocations.clear();
   }
 
-  private TextRange getRange(CxxReportLocation location, InputFile inputFile) {
+  private TextRange getRange(CxxReportLocation location, FileLocations file) {
     var line = 1;
     var column = -1;
     try {
       if (location.getLine() != null) {
         // https://jira.sonarsource.com/browse/SONAR-6792
-        line = Integer.max(1, Integer.min(Integer.parseInt(location.getLine()), inputFile.lines()));
+        line = Integer.max(1, Integer.min(Integer.parseInt(location.getLine()), file.lines));
         if (location.getColumn() != null) {
           column = Integer.max(0, Integer.parseInt(location.getColumn()));
         }
@@ -128,6 +169,16 @@ public abstract class CxxIssuesReportSensor extends CxxReportSensor {
       CxxUtils.validateRecovery("Invalid issue range: " + e.getMessage(), e, context.config());
     }
 
+    var key = ((long) line << 32) | (column & 0xFFFFFFFFL);
+    var range = file.ranges.get(key);
+    if (range == null) {
+      range = createRange(file.inputFile, line, column);
+      file.ranges.put(key, range);
+    }
+    return range;
+  }
+
+  private static TextRange createRange(InputFile inputFile, int line, int column) {
     if (column < 0) {
       return inputFile.selectLine(line);
     } else {
@@ -141,13 +192,27 @@ public abstract class CxxIssuesReportSensor extends CxxReportSensor {
     }
   }
 
+  /**
+   * Resolved file of a path, cached while saving a batch of issues.
+   */
+  @CheckForNull
+  private FileLocations getFileLocations(String path) {
+    var file = fileLocations.get(path);
+    if (file == null) {
+      var inputFile = getInputFileIfInProject(path);
+      file = inputFile != null ? new FileLocations(inputFile) : FileLocations.NOT_FOUND;
+      fileLocations.put(path, file);
+    }
+    return file != FileLocations.NOT_FOUND ? file : null;
+  }
+
   @CheckForNull
   private NewIssueLocation createNewIssueLocation(NewIssue newIssue, CxxReportLocation location) {
-    var inputFile = getInputFileIfInProject(location.getFile());
-    if (inputFile != null) {
-      TextRange range = getRange(location, inputFile);
+    var file = getFileLocations(location.getFile());
+    if (file != null) {
+      TextRange range = getRange(location, file);
       return newIssue.newLocation()
-        .on(inputFile)
+        .on(file.inputFile)
         .at(range)
         .message(location.getInfo());
     }
@@ -204,4 +269,23 @@ public abstract class CxxIssuesReportSensor extends CxxReportSensor {
   protected abstract String getReportPathsKey();
 
   protected abstract String getRuleRepositoryKey();
+
+  /**
+   * Input file with its number of lines and the text ranges already created for it.
+   */
+  private static class FileLocations {
+
+    private static final FileLocations NOT_FOUND = new FileLocations(null);
+
+    private final InputFile inputFile;
+    private final int lines;
+    private final Map<Long, TextRange> ranges = new HashMap<>();
+
+    FileLocations(@Nullable InputFile inputFile) {
+      this.inputFile = inputFile;
+      this.lines = inputFile != null ? inputFile.lines() : 0;
+    }
+
+  }
+
 }
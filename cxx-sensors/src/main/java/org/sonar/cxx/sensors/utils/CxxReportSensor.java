@@ -21,6 +21,8 @@ package org.sonar.cxx.sensors.utils;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.util.HashSet;
 import java.util.List;
@@ -38,16 +40,21 @@ import org.sonar.api.utils.log.Loggers;
 public abstract class CxxReportSensor implements ProjectSensor {
 
   public static final String ERROR_RECOVERY_KEY = "sonar.cxx.errorRecoveryEnabled";
+  public static final String REPORT_IMPORT_THREADS_KEY = "sonar.cxx.reportImport.threads";
+  public static final String REPORT_IMPORT_STATISTICS_KEY = "sonar.cxx.reportImport.statisticsDir";
   private static final Logger LOG = Loggers.get(CxxReportSensor.class);
 
   private final Set<String> notFoundFiles = new HashSet<>();
 
   protected SensorContext context;
 
+  private ReportImportStatistics statistics;
+
   /**
    * {@inheritDoc}
    */
   protected CxxReportSensor() {
+    statistics = new ReportImportStatistics(getClass().getSimpleName());
   }
 
   public List<File> getReports(String reportPathsKey) {
@@ -84,6 +91,7 @@ public abstract class CxxReportSensor implements ProjectSensor {
           LOG.warn("Cannot find the file '{}' in project '{}' with baseDir '{}', skipping",
                    path, context.project().key(), context.fileSystem().baseDir());
           notFoundFiles.add(path);
+          statistics.addUnresolvedPath();
         }
       }
     }
@@ -93,9 +101,42 @@ public abstract class CxxReportSensor implements ProjectSensor {
 
   @Override
   public void execute(SensorContext context) {
+    if (isParallelReportImport(context)) {
+      LOG.debug("Sensor '{}' is executed by the parallel report import", this);
+      return;
+    }
+    executeReportImport(context);
+  }
+
+  /**
+   * Import the reports of the sensor. In contrast to execute() this is always done, also if the parallel report import
+   * is enabled. The parallel report import calls this method to execute multiple sensors concurrently.
+   *
+   * @param context sensor context to use
+   */
+  public void executeReportImport(SensorContext context) {
     this.context = context;
     notFoundFiles.clear();
+    statistics = new ReportImportStatistics(toString());
     executeImpl();
+    statistics.stop();
+    statistics.log(LOG);
+    writeStatistics();
+  }
+
+  /**
+   * Statistics of the current or last report import of the sensor.
+   */
+  public ReportImportStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * @param context sensor context
+   * @return true if the report sensors are executed concurrently by the parallel report import
+   */
+  public static boolean isParallelReportImport(SensorContext context) {
+    return context.config().getInt(REPORT_IMPORT_THREADS_KEY).orElse(1) > 1;
   }
 
   @Override
@@ -132,6 +173,23 @@ public abstract class CxxReportSensor implements ProjectSensor {
     return null;
   }
 
+  /**
+   * Write the statistics to '&lt;sonar.cxx.reportImport.statisticsDir&gt;/&lt;sensor&gt;.json' if configured.
+   */
+  private void writeStatistics() {
+    String dir = CxxUtils.resolveAntPath(context.fileSystem().baseDir().getAbsolutePath(),
+                                         context.config().get(REPORT_IMPORT_STATISTICS_KEY).orElse(null));
+    if (dir != null) {
+      var file = new File(dir, statistics.getSensor() + ".json");
+      try {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.writeString(file.toPath(), statistics.toJson(), StandardCharsets.UTF_8);
+      } catch (IOException e) {
+        LOG.warn("Cannot write report import statistics '{}': {}", file, e.getMessage());
+      }
+    }
+  }
+
   /**
    * override always executeImpl instead of execute
    */
@@ -0,0 +1,97 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded thread pool for independent tasks (e.g. transforming or parsing report files).
+ *
+ * The results are returned in the order of the tasks, so the caller can merge them deterministically and handle
+ * errors of a single task (error recovery) in its own thread.
+ */
+public class ParallelExecutor implements AutoCloseable {
+
+  private final ExecutorService executor;
+
+  /**
+   * @param name prefix of the thread names
+   * @param threads maximum number of threads
+   */
+  public ParallelExecutor(String name, int threads) {
+    var counter = new AtomicInteger();
+    executor = Executors.newFixedThreadPool(Math.max(threads, 1), r -> {
+      var thread = new Thread(r, name + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * @return default number of threads: number of available processors
+   */
+  public static int defaultThreads() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Execute the tasks and wait until all are done.
+   *
+   * @param tasks tasks to execute
+   * @return the completed futures, in the order of the tasks
+   */
+  public <T> List<Future<T>> invokeAll(List<? extends Callable<T>> tasks) {
+    try {
+      return new ArrayList<>(executor.invokeAll(tasks));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Parallel execution was interrupted", e);
+    }
+  }
+
+  /**
+   * Result of a completed task.
+   *
+   * @param future completed future returned by invokeAll
+   * @return result of the task
+   * @throws ExecutionException if the task failed, the cause is the exception of the task
+   */
+  public static <T> T getResult(Future<T> future) throws ExecutionException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Parallel execution was interrupted", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+}
@@ -0,0 +1,280 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.sonar.api.utils.log.Logger;
+
+/**
+ * Counters and timing of the report import of a sensor: size of the reports, number of parsed, duplicated and saved
+ * items (issues, files with coverage measures, tests), number of paths which could not be resolved to files of the
+ * project and time spent, in total and for each report.
+ *
+ * An instance is used by a single sensor execution and is not thread safe.
+ */
+public class ReportImportStatistics {
+
+  private final String sensor;
+  private final long start;
+  private final List<ReportStatistics> reports = new ArrayList<>();
+  private final ReportStatistics total = new ReportStatistics("");
+
+  private ReportStatistics current = null;
+  private long reportStart = 0;
+
+  /**
+   * Start the statistics of a sensor.
+   *
+   * @param sensor name of the sensor
+   */
+  public ReportImportStatistics(String sensor) {
+    this.sensor = sensor;
+    this.start = System.nanoTime();
+  }
+
+  /**
+   * Start a report: the following counters are accounted to this report and to the sensor.
+   *
+   * @param report report to read
+   */
+  public void startReport(File report) {
+    current = newReport(report);
+    reportStart = System.nanoTime();
+  }
+
+  /**
+   * End the report started with {@link #startReport(File)}.
+   */
+  public void endReport() {
+    if (current != null) {
+      current.nanos = System.nanoTime() - reportStart;
+      current = null;
+    }
+  }
+
+  /**
+   * Add a report which was read outside of {@link #startReport(File)} and {@link #endReport()}, e.g. concurrently.
+   *
+   * @param report read report
+   * @param nanos time spent in reading the report
+   * @param parsed number of parsed items
+   * @param failed reading of the report failed
+   */
+  public void addReport(File report, long nanos, int parsed, boolean failed) {
+    var statistics = newReport(report);
+    statistics.nanos = nanos;
+    statistics.parsed = parsed;
+    statistics.failed = failed;
+    total.parsed += parsed;
+  }
+
+  /**
+   * Mark the current report as failed.
+   */
+  public void reportFailed() {
+    if (current != null) {
+      current.failed = true;
+    }
+  }
+
+  public void addParsed(int count) {
+    total.parsed += count;
+    if (current != null) {
+      current.parsed += count;
+    }
+  }
+
+  public void addDuplicate() {
+    total.duplicates++;
+    if (current != null) {
+      current.duplicates++;
+    }
+  }
+
+  public void addSaved(int count) {
+    total.saved += count;
+    if (current != null) {
+      current.saved += count;
+    }
+  }
+
+  public void addUnresolvedPath() {
+    total.unresolvedPaths++;
+    if (current != null) {
+      current.unresolvedPaths++;
+    }
+  }
+
+  /**
+   * End the statistics of the sensor.
+   */
+  public void stop() {
+    endReport();
+    total.nanos = System.nanoTime() - start;
+  }
+
+  public String getSensor() {
+    return sensor;
+  }
+
+  /**
+   * Statistics of the reports, in the order they were read.
+   */
+  public List<ReportStatistics> getReports() {
+    return Collections.unmodifiableList(reports);
+  }
+
+  /**
+   * Sum of all reports and counters accounted to no report; the time is the total time of the sensor.
+   */
+  public ReportStatistics getTotal() {
+    return total;
+  }
+
+  /**
+   * Write the summary to the info log and the statistics of each report to the debug log.
+   */
+  public void log(Logger log) {
+    log.info("Report import statistics '{}': {} report(s), {} bytes, parsed={}, duplicates={}, saved={},"
+               + " unresolved paths={}, time={} ms", sensor, reports.size(), total.getBytes(), total.getParsed(),
+             total.getDuplicates(), total.getSaved(), total.getUnresolvedPaths(), total.getTime());
+    for (var report : reports) {
+      log.debug("Report import statistics '{}': {} bytes, parsed={}, duplicates={}, saved={}, unresolved paths={},"
+                  + " time={} ms{}", report.getPath(), report.getBytes(), report.getParsed(), report.getDuplicates(),
+                report.getSaved(), report.getUnresolvedPaths(), report.getTime(), report.isFailed() ? ", failed" : "");
+    }
+  }
+
+  /**
+   * Statistics as pretty-printed JSON document.
+   *
+   * @throws JsonProcessingException if the document cannot be written
+   */
+  public String toJson() throws JsonProcessingException {
+    var mapper = new ObjectMapper();
+    ObjectNode json = mapper.createObjectNode()
+      .put("sensor", sensor)
+      .put("time", total.getTime())
+      .put("bytes", total.getBytes())
+      .put("parsed", total.getParsed())
+      .put("duplicates", total.getDuplicates())
+      .put("saved", total.getSaved())
+      .put("unresolvedPaths", total.getUnresolvedPaths());
+    ArrayNode jsonReports = json.putArray("reports");
+    for (var report : reports) {
+      jsonReports.addObject()
+        .put("path", report.getPath())
+        .put("time", report.getTime())
+        .put("bytes", report.getBytes())
+        .put("parsed", report.getParsed())
+        .put("duplicates", report.getDuplicates())
+        .put("saved", report.getSaved())
+        .put("unresolvedPaths", report.getUnresolvedPaths())
+        .put("failed", report.isFailed());
+    }
+    return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(json);
+  }
+
+  private ReportStatistics newReport(File report) {
+    var statistics = new ReportStatistics(report.getPath());
+    statistics.bytes = report.length();
+    total.bytes += statistics.bytes;
+    reports.add(statistics);
+    return statistics;
+  }
+
+  /**
+   * Counters and timing of a single report.
+   */
+  public static class ReportStatistics {
+
+    private final String path;
+    private long bytes = 0;
+    private long nanos = 0;
+    private int parsed = 0;
+    private int duplicates = 0;
+    private int saved = 0;
+    private int unresolvedPaths = 0;
+    private boolean failed = false;
+
+    ReportStatistics(String path) {
+      this.path = path;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    /**
+     * Size of the report in bytes.
+     */
+    public long getBytes() {
+      return bytes;
+    }
+
+    /**
+     * Time spent in milliseconds.
+     */
+    public long getTime() {
+      return nanos / 1_000_000L;
+    }
+
+    /**
+     * Number of parsed items.
+     */
+    public int getParsed() {
+      return parsed;
+    }
+
+    /**
+     * Number of parsed items which were ignored because they were already saved.
+     */
+    public int getDuplicates() {
+      return duplicates;
+    }
+
+    /**
+     * Number of saved items.
+     */
+    public int getSaved() {
+      return saved;
+    }
+
+    /**
+     * Number of paths which could not be resolved to a file of the project.
+     */
+    public int getUnresolvedPaths() {
+      return unresolvedPaths;
+    }
+
+    public boolean isFailed() {
+      return failed;
+    }
+
+  }
+
+}
@@ -24,19 +24,66 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
 import org.apache.commons.io.ByteOrderMark;
-import org.apache.commons.io.input.BOMInputStream;
 
+/**
+ * Reads the lines or tokens of a text file.
+ *
+ * The file is read through a channel into a direct buffer and decoded into a reusable character buffer, lines are
+ * created directly from this buffer. Line separators are '\n', '\r\n' and '\r'. Tokens are separated either by
+ * whitespace or by lines matching a delimiter pattern (see {@link #useDelimiter(Pattern)}).
+ */
 public class TextScanner implements Closeable {
 
-  private final Scanner scanner;
+  private static final int BYTE_BUFFER_SIZE = 128 * 1024;
+  private static final int CHAR_BUFFER_SIZE = 64 * 1024;
+  private static final Pattern WHITESPACE = Pattern.compile("\\p{javaWhitespace}+");
+
+  // longest BOM first: the UTF-32LE BOM starts with the UTF-16LE BOM
+  private static final ByteOrderMark[] BOMS = {
+    ByteOrderMark.UTF_32LE,
+    ByteOrderMark.UTF_32BE,
+    ByteOrderMark.UTF_8,
+    ByteOrderMark.UTF_16LE,
+    ByteOrderMark.UTF_16BE
+  };
+
+  private final FileChannel channel;
   private final String encoding;
+  private final CharsetDecoder decoder;
+  private final ByteBuffer bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+  private char[] chars = new char[CHAR_BUFFER_SIZE];
+  private int pos = 0;
+  private int limit = 0;
+
+  private boolean endOfInput = false;
+  private boolean flushing = false;
+  private boolean decoded = false;
+  private boolean closed = false;
+
+  // line which was read by the last readLine() was terminated by a line separator
+  private boolean lineTerminated = false;
+
+  private Matcher delimiter = null;
+  private String[] words = new String[0];
+  private int nextWord = 0;
+  private boolean atStart = true;
+  private boolean emptyTokenPending = false;
+  private String token = null;
 
   /**
-   * Constructs a new {@code Scanner} that produces values scanned from the specified file.
+   * Constructs a new {@code TextScanner} that produces values scanned from the specified file.
    *
    * Bytes from the file are converted into characters using the found encoding.
    * Tries first to read a BOM. If no BOM exists defaultEncoding is used.
@@ -48,31 +95,23 @@ public class TextScanner implements Closeable {
    * @throws IllegalArgumentException if the specified encoding is not found
    */
   public TextScanner(File source, String defaultEncoding) throws IOException {
-    BOMInputStream bomInputStream = null;
+    channel = new FileInputStream(source).getChannel();
     try {
-      bomInputStream = new BOMInputStream(new FileInputStream(source),
-                                          ByteOrderMark.UTF_8,
-                                          ByteOrderMark.UTF_16LE,
-                                          ByteOrderMark.UTF_16BE,
-                                          ByteOrderMark.UTF_32LE,
-                                          ByteOrderMark.UTF_32BE);
-      ByteOrderMark bom = bomInputStream.getBOM();
+      ByteOrderMark bom = readBom();
       encoding = (bom != null) ? bom.getCharsetName() : defaultEncoding;
-      scanner = new Scanner(bomInputStream, encoding);
-    } catch (IOException e) {
-      if (bomInputStream != null) {
-        bomInputStream.close();
-      }
+      decoder = Charset.forName(encoding).newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
       throw e;
     }
   }
 
   /**
-   * Closes this scanner.
+   * Closes this scanner and the underlying file.
    *
    * <p>
-   * If this scanner has not yet been closed then if its underlying {@linkplain java.lang.Readable readable} also
-   * implements the {@link java.io.Closeable} interface then the readable's {@code close} method will be invoked.
    * If this scanner is already closed then invoking this method will have no effect.
    *
    * <p>
@@ -82,63 +121,90 @@ public class TextScanner implements Closeable {
    */
   @Override
   public void close() {
-    scanner.close();
+    if (!closed) {
+      closed = true;
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // nothing to do, the file was only read
+      }
+    }
   }
 
   /**
-   * Sets this scanner's delimiting pattern to the specified pattern.
+   * Sets the delimiter of the tokens: each line matching the pattern completely separates two tokens. The lines of a
+   * token are joined by '\n', a delimiter line at the beginning of the file is skipped.
    *
    * @param pattern A delimiting pattern
    * @return this scanner
    */
   public TextScanner useDelimiter(Pattern pattern) {
-    scanner.useDelimiter(pattern);
+    delimiter = pattern.matcher("");
     return this;
   }
 
   /**
    * Returns true if there is another line in the input of this scanner.
    *
-   * This method may block while waiting for input. The scanner does not advance past any input.
+   * The scanner does not advance past any input.
    *
    * @return true if and only if this scanner has another line of input
-   * @throws IllegalStateException if this scanner is closed
+   * @throws IllegalStateException if this scanner is closed or the file cannot be read
    */
   public boolean hasNextLine() {
-    return scanner.hasNextLine();
+    ensureOpen();
+    return available();
   }
 
   /**
-   * Finds and returns the next complete token from this scanner.
+   * Advances this scanner past the current line and returns the input that was skipped.
    *
-   * A complete token is preceded and followed by input that matches the delimiter pattern. This method may block
-   * while waiting for input to scan, even if a previous invocation of {@link #hasNext} returned {@code true}.
+   * This method returns the rest of the current line, excluding any line separator at the end. The position is
+   * set to the beginning of the next line.
    *
-   * @return the next token
-   * @throws NoSuchElementException if no more tokens are available
-   * @throws IllegalStateException if this scanner is closed
-   * @see java.util.Iterator
+   * @return the line that was skipped
+   * @throws NoSuchElementException if no line was found
+   * @throws IllegalStateException if this scanner is closed or the file cannot be read
    */
-  public String next() {
-    return scanner.next();
+  public String nextLine() {
+    ensureOpen();
+    if (!available()) {
+      throw new NoSuchElementException("No line found");
+    }
+    return readLine();
   }
 
   /**
-   * Advances this scanner past the current line and returns the input that was skipped.
+   * Returns true if this scanner has another token in its input.
    *
-   * This method returns the rest of the current line, excluding any line separator at the end. The position is
-   * set to the beginning of the next line.
+   * The scanner does not advance past any input.
    *
-   * <p>
-   * Since this method continues to search through the input looking for a line separator, it may buffer all
-   * of the input searching for the line to skip if no line separators are present.
+   * @return true if and only if this scanner has another token
+   * @throws IllegalStateException if this scanner is closed or the file cannot be read
+   */
+  public boolean hasNext() {
+    ensureOpen();
+    if (token == null) {
+      token = readToken();
+    }
+    return token != null;
+  }
+
+  /**
+   * Finds and returns the next complete token from this scanner.
    *
-   * @return the line that was skipped
-   * @throws NoSuchElementException if no line was found
-   * @throws IllegalStateException if this scanner is closed
+   * @return the next token
+   * @throws NoSuchElementException if no more tokens are available
+   * @throws IllegalStateException if this scanner is closed or the file cannot be read
+   * @see java.util.Iterator
    */
-  public String nextLine() {
-    return scanner.nextLine();
+  public String next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    var result = token;
+    token = null;
+    return result;
   }
 
   /**
@@ -148,4 +214,169 @@ public class TextScanner implements Closeable {
     return encoding;
   }
 
+  @CheckForNull
+  private ByteOrderMark readBom() throws IOException {
+    while (bytes.position() < 4 && channel.read(bytes) >= 0) {
+      // read at least the length of the longest BOM
+    }
+    bytes.flip();
+    ByteOrderMark result = null;
+    for (var bom : BOMS) {
+      if (startsWith(bom)) {
+        bytes.position(bom.length());
+        result = bom;
+        break;
+      }
+    }
+    bytes.compact();
+    return result;
+  }
+
+  private boolean startsWith(ByteOrderMark bom) {
+    if (bytes.remaining() < bom.length()) {
+      return false;
+    }
+    for (var i = 0; i < bom.length(); i++) {
+      if ((bytes.get(i) & 0xFF) != bom.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("TextScanner closed");
+    }
+  }
+
+  /**
+   * @return true if there are characters left
+   */
+  private boolean available() {
+    while (pos == limit) {
+      if (decoded) {
+        return false;
+      }
+      fill();
+    }
+    return true;
+  }
+
+  /**
+   * Decode more characters: the characters not yet consumed are moved to the beginning of the buffer, the buffer is
+   * enlarged if less than two characters are free. A supplementary code point needs two chars, the decoder writes
+   * nothing into a single free char.
+   */
+  private void fill() {
+    if (pos > 0) {
+      System.arraycopy(chars, pos, chars, 0, limit - pos);
+      limit -= pos;
+      pos = 0;
+    }
+    if (chars.length - limit < 2) {
+      chars = Arrays.copyOf(chars, chars.length * 2);
+    }
+
+    var out = CharBuffer.wrap(chars, limit, chars.length - limit);
+    try {
+      while (out.position() == limit && !decoded) {
+        if (flushing) {
+          decoded = decoder.flush(out).isUnderflow();
+          continue;
+        }
+        if (!endOfInput && channel.read(bytes) < 0) {
+          endOfInput = true;
+        }
+        bytes.flip();
+        var result = decoder.decode(bytes, out, endOfInput);
+        bytes.compact();
+        flushing = endOfInput && result.isUnderflow();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot read the file: " + e.getMessage(), e);
+    }
+    limit = out.position();
+  }
+
+  /**
+   * Read the next line, there must be at least one character left.
+   */
+  private String readLine() {
+    var i = pos;
+    while (true) {
+      if (i == limit) {
+        int offset = i - pos;
+        fill();
+        i = pos + offset;
+        if (i == limit) {
+          // last line without line separator
+          var line = new String(chars, pos, limit - pos);
+          pos = limit;
+          lineTerminated = false;
+          return line;
+        }
+      }
+      char c = chars[i];
+      if (c == '\n' || c == '\r') {
+        var line = new String(chars, pos, i - pos);
+        pos = i + 1;
+        if (c == '\r' && available() && chars[pos] == '\n') {
+          pos++;
+        }
+        lineTerminated = true;
+        return line;
+      }
+      i++;
+    }
+  }
+
+  @CheckForNull
+  private String readToken() {
+    if (delimiter == null) {
+      return readWord();
+    }
+    if (!available()) {
+      if (emptyTokenPending) {
+        emptyTokenPending = false;
+        return "";
+      }
+      return null;
+    }
+
+    var result = new StringBuilder(1024);
+    var first = true;
+    while (available()) {
+      var line = readLine();
+      if (delimiter.reset(line).matches()) {
+        if (atStart) {
+          atStart = false;
+          continue;
+        }
+        // a delimiter line at the end of the file is followed by an empty token
+        emptyTokenPending = lineTerminated && !available();
+        return result.toString();
+      }
+      atStart = false;
+      if (!first) {
+        result.append('\n');
+      }
+      result.append(line);
+      first = false;
+    }
+    return result.toString();
+  }
+
+  @CheckForNull
+  private String readWord() {
+    while (nextWord == words.length) {
+      if (!available()) {
+        return null;
+      }
+      words = WHITESPACE.split(readLine().strip());
+      nextWord = words[0].isEmpty() ? 1 : 0;
+    }
+    return words[nextWord++];
+  }
+
 }
@@ -0,0 +1,103 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import javax.xml.XMLConstants;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * Compiled XSL stylesheets.
+ *
+ * Compiling a stylesheet is much more expensive than applying it: each stylesheet is compiled only once. The compiled
+ * {@link Templates} are thread safe and can be used to transform multiple files concurrently.
+ */
+public class XsltStylesheets {
+
+  private final String baseDir;
+  private final Map<String, Templates> compiled = new HashMap<>();
+
+  /**
+   * @param baseDir directory to resolve relative stylesheet paths
+   */
+  public XsltStylesheets(String baseDir) {
+    this.baseDir = baseDir;
+  }
+
+  /**
+   * Compiled stylesheet.
+   *
+   * @param stylesheet name of a stylesheet bundled with the plugin (e.g. 'boosttest-1.x-to-junit-1.0.xsl') or path of
+   * a stylesheet file, relative paths are resolved against the base directory
+   * @return compiled stylesheet
+   * @throws TransformerException if the stylesheet does not exist or cannot be compiled
+   */
+  public synchronized Templates get(String stylesheet) throws TransformerException {
+    var templates = compiled.get(stylesheet);
+    if (templates == null) {
+      templates = newFactory().newTemplates(getSource(stylesheet));
+      compiled.put(stylesheet, templates);
+    }
+    return templates;
+  }
+
+  /**
+   * Transform a file with a compiled stylesheet.
+   *
+   * @param templates compiled stylesheet
+   * @param input XML file to transform
+   * @param output target of the transformation
+   * @throws TransformerException if the transformation fails
+   */
+  public static void transform(Templates templates, File input, Result output) throws TransformerException {
+    var transformer = templates.newTransformer();
+    transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+    transformer.transform(new StreamSource(input), output);
+  }
+
+  private Source getSource(String stylesheet) throws TransformerException {
+    var resource = XsltStylesheets.class.getResource("/xsl/" + stylesheet);
+    if (resource != null) {
+      return new StreamSource(resource.toExternalForm());
+    }
+    var path = CxxUtils.resolveAntPath(baseDir, stylesheet);
+    if (path == null) {
+      throw new TransformerException("Cannot find the stylesheet '" + stylesheet + "'");
+    }
+    return new StreamSource(new File(path));
+  }
+
+  private static TransformerFactory newFactory() throws TransformerException {
+    var factory = TransformerFactory.newInstance();
+    factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+    factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+    factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+    return factory;
+  }
+
+}
@@ -108,8 +108,9 @@ public class CxxValgrindSensor extends CxxIssuesReportSensor {
   @Override
   protected void processReport(File report) {
     try {
-      var parser = new ValgrindReportParser();
-      saveErrors(parser.parse(report));
+      // the issues are saved while parsing, the errors of the report are not collected:
+      // if the report turns out to be invalid, the issues of the errors before the invalid part are kept
+      new ValgrindReportParser().parse(report, this::saveError);
     } catch (XMLStreamException e) {
       throw new InvalidReportException("The 'Valgrind' report is invalid", e);
     }
@@ -127,14 +128,18 @@ public class CxxValgrindSensor extends CxxIssuesReportSensor {
 
   void saveErrors(Set<ValgrindError> valgrindErrors) {
     for (var error : valgrindErrors) {
-      var stackNr = 0;
-      for (var stack : error.getStacks()) {
-        CxxReportIssue issue = createIssue(error, stack, stackNr);
-        if (issue != null) {
-          saveUniqueViolation(issue);
-        }
-        ++stackNr;
+      saveError(error);
+    }
+  }
+
+  void saveError(ValgrindError error) {
+    var stackNr = 0;
+    for (var stack : error.getStacks()) {
+      CxxReportIssue issue = createIssue(error, stack, stackNr);
+      if (issue != null) {
+        saveUniqueViolation(issue);
       }
+      ++stackNr;
     }
   }
 
@@ -21,16 +21,30 @@ package org.sonar.cxx.sensors.valgrind;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
 import javax.xml.stream.XMLStreamException;
 import org.codehaus.staxmate.in.SMHierarchicCursor;
 import org.codehaus.staxmate.in.SMInputCursor;
 import org.sonar.cxx.sensors.utils.EmptyReportException;
 import org.sonar.cxx.sensors.utils.StaxParser;
 
+/**
+ * Streaming parser for Valgrind XML reports.
+ *
+ * The errors are passed to a consumer as soon as an {@code <error>} element is complete, so the memory needed does not
+ * depend on the size of the report. Frames and stacks repeat heavily in Valgrind reports: equal strings, frames and
+ * stacks are interned and share one instance.
+ */
 class ValgrindReportParser {
 
+  // upper limit of interned objects of each kind, the pools are cleared when exceeded
+  private static final int INTERN_LIMIT = 100_000;
+
   /**
    * Parses given valgrind report
    *
@@ -39,16 +53,53 @@ class ValgrindReportParser {
    * @exception XMLStreamException javax.xml.stream.XMLStreamException
    */
   public Set<ValgrindError> parse(File report) throws XMLStreamException {
-    var streamHandler = new ValgrindReportStreamHandler();
-    new StaxParser(streamHandler).parse(report);
-    return streamHandler.valgrindErrors;
+    var valgrindErrors = new HashSet<ValgrindError>();
+    parse(report, valgrindErrors::add);
+    return valgrindErrors;
+  }
+
+  /**
+   * Parses given valgrind report and passes each error to the consumer
+   *
+   * @param report full path of XML report
+   * @param consumer called for each error, in the order of the report
+   * @exception XMLStreamException javax.xml.stream.XMLStreamException
+   */
+  public void parse(File report, Consumer<ValgrindError> consumer) throws XMLStreamException {
+    new StaxParser(new ValgrindReportStreamHandler(consumer)).parse(report);
   }
 
   private static class ValgrindReportStreamHandler implements StaxParser.XmlStreamHandler {
 
-    private final Set<ValgrindError> valgrindErrors = new HashSet<>();
+    private final Consumer<ValgrindError> consumer;
+    private final Map<String, String> strings = new HashMap<>();
+    private final Map<ValgrindFrame, ValgrindFrame> frames = new HashMap<>();
+    private final Map<ValgrindStack, ValgrindStack> stacks = new HashMap<>();
+
+    ValgrindReportStreamHandler(Consumer<ValgrindError> consumer) {
+      this.consumer = consumer;
+    }
+
+    private static <T> T intern(Map<T, T> pool, @Nullable T value) {
+      if (value == null) {
+        return null;
+      }
+      T interned = pool.get(value);
+      if (interned == null) {
+        if (pool.size() >= INTERN_LIMIT) {
+          pool.clear();
+        }
+        pool.put(value, value);
+        interned = value;
+      }
+      return interned;
+    }
+
+    private String getValue(SMInputCursor cursor) throws XMLStreamException {
+      return intern(strings, cursor.getElemStringValue());
+    }
 
-    private static ValgrindStack parseStackTag(SMInputCursor child) throws XMLStreamException {
+    private ValgrindStack parseStackTag(SMInputCursor child) throws XMLStreamException {
       var stack = new ValgrindStack();
       SMInputCursor frameCursor = child.childElementCursor("frame");
       while (frameCursor.getNext() != null) {
@@ -66,36 +117,36 @@ class ValgrindReportParser {
           String tagName = frameChild.getLocalName();
 
           if ("ip".equalsIgnoreCase(tagName)) {
-            ip = frameChild.getElemStringValue();
+            ip = getValue(frameChild);
           } else if ("obj".equalsIgnoreCase(tagName)) {
-            obj = frameChild.getElemStringValue();
+            obj = getValue(frameChild);
           } else if ("fn".equalsIgnoreCase(tagName)) {
-            fn = frameChild.getElemStringValue();
+            fn = getValue(frameChild);
           } else if ("dir".equalsIgnoreCase(tagName)) {
-            dir = frameChild.getElemStringValue();
+            dir = getValue(frameChild);
           } else if ("file".equalsIgnoreCase(tagName)) {
-            file = frameChild.getElemStringValue();
+            file = getValue(frameChild);
           } else if ("line".equalsIgnoreCase(tagName)) {
-            line = frameChild.getElemStringValue();
+            line = getValue(frameChild);
           }
         }
-        stack.addFrame(new ValgrindFrame(ip, obj, fn, dir, file, line));
+        stack.addFrame(intern(frames, new ValgrindFrame(ip, obj, fn, dir, file, line)));
       }
 
-      return stack;
+      return intern(stacks, stack);
     }
 
-    private static ValgrindError parseErrorTag(SMInputCursor error) throws XMLStreamException {
+    private ValgrindError parseErrorTag(SMInputCursor error) throws XMLStreamException {
       SMInputCursor child = error.childElementCursor();
 
       String kind = null;
       String text = null;
       var details = new ArrayList<String>();
-      var stacks = new ArrayList<ValgrindStack>();
+      var errorStacks = new ArrayList<ValgrindStack>();
       while (child.getNext() != null) {
         String tagName = child.getLocalName();
         if ("kind".equalsIgnoreCase(tagName)) {
-          kind = child.getElemStringValue();
+          kind = getValue(child);
         } else if ("xwhat".equalsIgnoreCase(tagName)) {
           text = child.childElementCursor("text").advance().getElemStringValue();
         } else if ("what".equalsIgnoreCase(tagName)) {
@@ -103,11 +154,11 @@ class ValgrindReportParser {
         } else if ("auxwhat".equalsIgnoreCase(tagName)) {
           details.add(child.getElemStringValue());
         } else if ("stack".equalsIgnoreCase(tagName)) {
-          stacks.add(parseStackTag(child));
+          errorStacks.add(parseStackTag(child));
         }
       }
 
-      if (text == null || kind == null || stacks.isEmpty()) {
+      if (text == null || kind == null || errorStacks.isEmpty()) {
         var msg = "Valgrind error is incomplete: we require all of 'kind', '*what.text' and 'stack'";
         child.throwStreamException(msg);
       }
@@ -116,7 +167,7 @@ class ValgrindReportParser {
         text = text + ": " + String.join("; ", details);
       }
 
-      return new ValgrindError(kind, text, stacks);
+      return new ValgrindError(kind, text, errorStacks);
     }
 
     /**
@@ -133,7 +184,7 @@ class ValgrindReportParser {
       SMInputCursor errorCursor = rootCursor.childElementCursor("error");
 
       while (errorCursor.getNext() != null) {
-        valgrindErrors.add(parseErrorTag(errorCursor));
+        consumer.accept(parseErrorTag(errorCursor));
       }
     }
   }
@@ -19,8 +19,12 @@
  */
 package org.sonar.cxx.sensors.clangtidy;
 
+import java.io.File;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.Before;
@@ -33,6 +37,7 @@ import org.sonar.api.batch.sensor.issue.Issue;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.cxx.sensors.utils.CxxReportSensor;
 import org.sonar.cxx.sensors.utils.TestUtils;
+import org.sonar.cxx.utils.CxxReportIssue;
 
 public class CxxClangTidySensorTest {
 
@@ -383,4 +388,31 @@ public class CxxClangTidySensorTest {
     softly.assertAll();
   }
 
+  @Test
+  public void shouldParseInChunks() throws IOException {
+    for (var name : Arrays.asList("cpd.report-note.txt", "cpd.report-alias-rule-ids.txt",
+                                  "cpd.report-duplicates.txt")) {
+      var report = new File(fs.baseDir(), "clang-tidy-reports/" + name);
+
+      var expected = new CollectingSensor();
+      new ClangTidyParser(expected).parse(report, StandardCharsets.UTF_8.name());
+      var chunked = new CollectingSensor();
+      new ClangTidyParser(chunked, 1).parse(report, StandardCharsets.UTF_8.name());
+
+      assertThat(expected.issues).isNotEmpty();
+      assertThat(chunked.issues).isEqualTo(expected.issues);
+    }
+  }
+
+  private static class CollectingSensor extends CxxClangTidySensor {
+
+    private final List<CxxReportIssue> issues = new ArrayList<>();
+
+    @Override
+    public void saveUniqueViolation(CxxReportIssue issue) {
+      issues.add(issue);
+    }
+
+  }
+
 }
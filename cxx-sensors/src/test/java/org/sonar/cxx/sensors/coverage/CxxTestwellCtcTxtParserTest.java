@@ -19,6 +19,8 @@
  */
 package org.sonar.cxx.sensors.coverage;
 
+import java.io.File;
+import static org.assertj.core.api.Assertions.assertThat;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.Before;
 import org.junit.Test;
@@ -27,6 +29,7 @@ import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.cxx.sensors.coverage.ctc.CxxCoverageTestwellCtcTxtSensor;
+import org.sonar.cxx.sensors.coverage.ctc.TestwellCtcTxtParser;
 import org.sonar.cxx.sensors.utils.CxxReportSensor;
 import org.sonar.cxx.sensors.utils.TestUtils;
 
@@ -201,4 +204,20 @@ public class CxxTestwellCtcTxtParserTest {
 
   }
 
+  @Test
+  public void shouldParseInChunks() {
+    var report = new File(fs.baseDir(), "coverage-reports/TestwellCTC/report_small.txt");
+
+    var expected = new TestwellCtcTxtParser().parse(report);
+    var chunked = new TestwellCtcTxtParser(1).parse(report);
+
+    assertThat(chunked).hasSize(3).containsOnlyKeys(expected.keySet());
+    for (var entry : expected.entrySet()) {
+      var measures = chunked.get(entry.getKey());
+      assertThat(measures.getCoveredLines()).isEqualTo(entry.getValue().getCoveredLines());
+      assertThat(measures.getCoveredConditions()).isEqualTo(entry.getValue().getCoveredConditions());
+      assertThat(measures.getCoverageMeasures()).hasSameSizeAs(entry.getValue().getCoverageMeasures());
+    }
+  }
+
 }
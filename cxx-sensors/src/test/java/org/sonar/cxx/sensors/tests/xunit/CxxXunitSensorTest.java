@@ -74,6 +74,35 @@ public class CxxXunitSensorTest {
         tuple(CoreMetrics.TEST_EXECUTION_TIME_KEY, 0L));
   }
 
+  @Test
+  public void shouldReadTransformedXunitReport() {
+    var context = SensorContextTester.create(fs.baseDir());
+    settings.setProperty(CxxXunitSensor.REPORT_PATH_KEY, "xunit-reports/cppunit/cppunit-report.xml");
+    settings.setProperty(CxxXunitSensor.STYLESHEET_KEY, "cppunit-1.x-to-junit-1.0.xsl");
+    context.setSettings(settings);
+
+    var sensor = new CxxXunitSensor();
+    sensor.execute(context);
+
+    assertThat(context.measures(context.project().key()))
+      .extracting("metric.key", "value")
+      .contains(
+        tuple(CoreMetrics.TESTS_KEY, 5),
+        tuple(CoreMetrics.TEST_FAILURES_KEY, 1),
+        tuple(CoreMetrics.TEST_ERRORS_KEY, 1));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldThrowWhenStylesheetNotFound() {
+    var context = SensorContextTester.create(fs.baseDir());
+    settings.setProperty(CxxXunitSensor.REPORT_PATH_KEY, "xunit-reports/cppunit/cppunit-report.xml");
+    settings.setProperty(CxxXunitSensor.STYLESHEET_KEY, "notexisting.xsl");
+    context.setSettings(settings);
+
+    var sensor = new CxxXunitSensor();
+    sensor.execute(context);
+  }
+
   @Test(expected = IllegalStateException.class)
   public void shouldThrowWhenGivenInvalidTime() {
     var context = SensorContextTester.create(fs.baseDir());
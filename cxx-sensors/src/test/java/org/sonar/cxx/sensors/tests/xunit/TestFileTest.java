@@ -89,4 +89,35 @@ public class TestFileTest {
     assertEquals(testFile.getSkipped(), skippedBefore + 1);
   }
 
+  @Test
+  public void addingAResultShouldIncrementStatistics() {
+    testFile.add("failure", 10);
+    testFile.add("error", 20);
+    testFile.add("skipped", 0);
+    testFile.add("ok", 5);
+
+    assertEquals(4, testFile.getTests());
+    assertEquals(1, testFile.getFailures());
+    assertEquals(1, testFile.getErrors());
+    assertEquals(1, testFile.getSkipped());
+    assertEquals(35, testFile.getExecutionTime());
+    assertEquals(0, testFile.getTestCases().size());
+  }
+
+  @Test
+  public void addingATestFileShouldAddStatistics() {
+    var other = new TestFile("test.cpp");
+    other.add("failure", 10);
+    other.add(new TestCase("name", 5, "ok", "", "", "classname", "test.cpp", "tsname"));
+
+    testFile.add("error", 1);
+    testFile.add(other);
+
+    assertEquals(3, testFile.getTests());
+    assertEquals(1, testFile.getFailures());
+    assertEquals(1, testFile.getErrors());
+    assertEquals(16, testFile.getExecutionTime());
+    assertEquals(1, testFile.getTestCases().size());
+  }
+
 }
@@ -60,6 +60,24 @@ public class XunitReportParserTest {
     }
   }
 
+  @Test
+  public void testParseStatisticsOnly() throws javax.xml.stream.XMLStreamException {
+    var total = new XunitReportParser("", false);
+    for (var report : new String[]{"xunit-result-2.xml", "xunit-result-SAMPLE.xml", "nested_testsuites.xml"}) {
+      parserHandler = new XunitReportParser("", false);
+      parser = new StaxParser(parserHandler, false);
+      parser.parse(TestUtils.loadResource(pathPrefix + report));
+      total.add(parserHandler);
+    }
+
+    long tests = 0;
+    for (var testFile : total.getTestFiles()) {
+      tests += testFile.getTests();
+      assertEquals(0, testFile.getTestCases().size());
+    }
+    assertEquals(5 + 3 + 2, tests);
+  }
+
   @Test(expected = javax.xml.stream.XMLStreamException.class)
   public void shouldThrowWhenGivenInvalidTime() throws javax.xml.stream.XMLStreamException {
     parserHandler = new XunitReportParser("");
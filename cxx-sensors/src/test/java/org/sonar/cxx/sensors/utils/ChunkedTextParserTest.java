@@ -0,0 +1,93 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Test;
+
+public class ChunkedTextParserTest {
+
+  @Test
+  public void chunksInOrderOfRecords() {
+    var records = IntStream.range(0, 1000).mapToObj(Integer::toString).collect(Collectors.toList());
+    var result = new ArrayList<String>();
+
+    new ChunkedTextParser<List<String>>(7, record -> true, (chunk, last) -> chunk)
+      .parse(records.iterator(), result::addAll);
+
+    assertThat(result).isEqualTo(records);
+  }
+
+  @Test
+  public void splitOnlyBeforeUnitStart() {
+    var records = Arrays.asList("issue 1", "note", "note", "issue 2", "note", "issue 3", "issue 4", "note");
+    var chunks = new ArrayList<List<String>>();
+
+    new ChunkedTextParser<List<String>>(1, record -> record.startsWith("issue"), (chunk, last) -> chunk)
+      .parse(records.iterator(), chunks::add);
+
+    assertThat(chunks).containsExactly(Arrays.asList("issue 1", "note", "note"),
+                                       Arrays.asList("issue 2", "note"),
+                                       Arrays.asList("issue 3"),
+                                       Arrays.asList("issue 4", "note"));
+  }
+
+  @Test
+  public void onlyLastChunkIsMarked() {
+    var records = Arrays.asList("a", "b", "c");
+    var last = new ArrayList<Boolean>();
+
+    new ChunkedTextParser<Boolean>(1, record -> true, (chunk, isLast) -> isLast)
+      .parse(records.iterator(), last::add);
+
+    assertThat(last).containsExactly(false, false, true);
+  }
+
+  @Test
+  public void singleChunkInCallingThread() {
+    var thread = Thread.currentThread();
+    var threads = new ArrayList<Thread>();
+
+    new ChunkedTextParser<Thread>(record -> true, (chunk, last) -> Thread.currentThread())
+      .parse(Arrays.asList("a", "b").iterator(), threads::add);
+
+    assertThat(threads).containsExactly(thread);
+  }
+
+  @Test
+  public void exceptionOfChunkIsRethrown() {
+    var records = Arrays.asList("a", "b", "c");
+
+    assertThatThrownBy(() -> new ChunkedTextParser<String>(1, record -> true, (chunk, last) -> {
+      if ("b".equals(chunk.get(0))) {
+        throw new IllegalArgumentException("invalid " + chunk.get(0));
+      }
+      return chunk.get(0);
+    }).parse(records.iterator(), result -> {
+    })).isInstanceOf(IllegalArgumentException.class).hasMessage("invalid b");
+  }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.cxx.utils.CxxReportIssue;
+
+public class CxxIssuesReportSensorTest {
+
+  private static final String REPORT_PATH_KEY = "sonar.cxx.test.reportPaths";
+
+  private DefaultFileSystem fs;
+  private SensorContextTester context;
+
+  @Before
+  public void setUp() {
+    fs = TestUtils.mockFileSystem();
+    context = SensorContextTester.create(fs.baseDir());
+    var settings = new MapSettings();
+    settings.setProperty(REPORT_PATH_KEY, "cppcheck-reports/cppcheck-result-SAMPLE-V2.xml");
+    context.setSettings(settings);
+    context.fileSystem().add(TestInputFileBuilder.create("ProjectKey", "a.cpp")
+      .setLanguage("cxx").initMetadata("line 1\nline 2\nline 3\n").build());
+    context.fileSystem().add(TestInputFileBuilder.create("ProjectKey", "b.cpp")
+      .setLanguage("cxx").initMetadata("line 1\n").build());
+  }
+
+  @Test
+  public void issuesAreSavedAtEndOfReport() {
+    var sensor = new TestIssuesSensor();
+    for (var i = 0; i < 100; i++) {
+      sensor.issues.add(new CxxReportIssue("rule" + i, (i % 2 == 0) ? "a.cpp" : "b.cpp", "1", null, "msg " + i));
+    }
+    sensor.issues.add(new CxxReportIssue("rule0", "a.cpp", "1", null, "msg 0"));
+
+    sensor.execute(context);
+
+    assertThat(sensor.savedWhileProcessing).isZero();
+    assertThat(context.allIssues()).hasSize(100);
+    assertThat(sensor.getStatistics().getTotal().getDuplicates()).isEqualTo(1);
+    assertThat(sensor.getStatistics().getTotal().getSaved()).isEqualTo(100);
+  }
+
+  @Test
+  public void rangesOfSameLocationInReportOrder() {
+    var sensor = new TestIssuesSensor();
+    sensor.issues.add(new CxxReportIssue("rule1", "a.cpp", "2", "3", "column"));
+    sensor.issues.add(new CxxReportIssue("rule2", "a.cpp", "2", "3", "column"));
+    sensor.issues.add(new CxxReportIssue("rule3", "a.cpp", "2", "100", "behind last column"));
+    sensor.issues.add(new CxxReportIssue("rule4", "a.cpp", "10", null, "behind last line"));
+    sensor.issues.add(new CxxReportIssue("rule5", "b.cpp", "1", null, "other file"));
+    sensor.issues.add(new CxxReportIssue("rule6", "c.cpp", "1", null, "unknown file"));
+
+    sensor.execute(context);
+
+    assertThat(context.allIssues()).hasSize(5);
+    var ranges = new ArrayList<String>();
+    for (var issue : context.allIssues()) {
+      var location = issue.primaryLocation();
+      ranges.add(location.inputComponent().key() + ":" + location.textRange().start().line() + ":"
+                   + location.textRange().start().lineOffset() + "-" + location.textRange().end().lineOffset());
+    }
+    assertThat(ranges).containsExactly("ProjectKey:a.cpp:2:3-4", "ProjectKey:a.cpp:2:3-4",
+                                       "ProjectKey:a.cpp:2:0-6", "ProjectKey:a.cpp:4:0-0",
+                                       "ProjectKey:b.cpp:1:0-6");
+    assertThat(sensor.getStatistics().getTotal().getUnresolvedPaths()).isEqualTo(1);
+  }
+
+  private class TestIssuesSensor extends CxxIssuesReportSensor {
+
+    private final List<CxxReportIssue> issues = new ArrayList<>();
+    private int savedWhileProcessing = -1;
+
+    @Override
+    public void describe(SensorDescriptor descriptor) {
+      descriptor.name("TestIssuesSensor");
+    }
+
+    @Override
+    protected void processReport(File report) {
+      issues.forEach(this::saveUniqueViolation);
+      savedWhileProcessing = CxxIssuesReportSensorTest.this.context.allIssues().size();
+    }
+
+    @Override
+    protected String getReportPathsKey() {
+      return REPORT_PATH_KEY;
+    }
+
+    @Override
+    protected String getRuleRepositoryKey() {
+      return "test";
+    }
+
+  }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.cxx.sensors.cppcheck.CxxCppCheckSensor;
+
+public class ReportImportStatisticsTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void countersPerReportAndSensor() throws IOException {
+    var first = tmp.newFile("first.xml");
+    Files.writeString(first.toPath(), "0123456789");
+    var second = tmp.newFile("second.xml");
+
+    var statistics = new ReportImportStatistics("Sensor");
+    statistics.startReport(first);
+    statistics.addParsed(3);
+    statistics.addDuplicate();
+    statistics.addSaved(2);
+    statistics.addUnresolvedPath();
+    statistics.endReport();
+    statistics.addReport(second, 2_000_000L, 4, true);
+    statistics.addSaved(1);
+    statistics.stop();
+
+    assertThat(statistics.getReports()).hasSize(2);
+    var report = statistics.getReports().get(0);
+    assertThat(report.getBytes()).isEqualTo(10);
+    assertThat(report.getParsed()).isEqualTo(3);
+    assertThat(report.getDuplicates()).isEqualTo(1);
+    assertThat(report.getSaved()).isEqualTo(2);
+    assertThat(report.getUnresolvedPaths()).isEqualTo(1);
+    assertThat(report.isFailed()).isFalse();
+    report = statistics.getReports().get(1);
+    assertThat(report.getTime()).isEqualTo(2);
+    assertThat(report.getParsed()).isEqualTo(4);
+    assertThat(report.getSaved()).isZero();
+    assertThat(report.isFailed()).isTrue();
+
+    var total = statistics.getTotal();
+    assertThat(total.getBytes()).isEqualTo(10);
+    assertThat(total.getParsed()).isEqualTo(7);
+    assertThat(total.getDuplicates()).isEqualTo(1);
+    assertThat(total.getSaved()).isEqualTo(3);
+    assertThat(total.getUnresolvedPaths()).isEqualTo(1);
+  }
+
+  @Test
+  public void json() throws IOException {
+    var statistics = new ReportImportStatistics("Sensor");
+    statistics.addReport(new File("C:\\reports\\\"a\".xml"), 1_000_000L, 1, false);
+
+    var json = new ObjectMapper().readTree(statistics.toJson());
+    assertThat(json.get("sensor").asText()).isEqualTo("Sensor");
+    assertThat(json.get("time").asLong()).isZero();
+    assertThat(json.get("bytes").asLong()).isZero();
+    assertThat(json.get("parsed").asInt()).isEqualTo(1);
+    assertThat(json.get("duplicates").asInt()).isZero();
+    assertThat(json.get("saved").asInt()).isZero();
+    assertThat(json.get("unresolvedPaths").asInt()).isZero();
+    assertThat(json.get("reports")).hasSize(1);
+    var report = json.get("reports").get(0);
+    assertThat(report.get("path").asText()).isEqualTo("C:\\reports\\\"a\".xml");
+    assertThat(report.get("time").asLong()).isEqualTo(1);
+    assertThat(report.get("bytes").asLong()).isZero();
+    assertThat(report.get("parsed").asInt()).isEqualTo(1);
+    assertThat(report.get("duplicates").asInt()).isZero();
+    assertThat(report.get("saved").asInt()).isZero();
+    assertThat(report.get("unresolvedPaths").asInt()).isZero();
+    assertThat(report.get("failed").asBoolean()).isFalse();
+  }
+
+  @Test
+  public void sensorWithStatisticsReport() throws IOException {
+    var fs = TestUtils.mockFileSystem();
+    var context = SensorContextTester.create(fs.baseDir());
+    var settings = new MapSettings();
+    settings.setProperty(CxxReportSensor.ERROR_RECOVERY_KEY, true);
+    settings.setProperty(CxxCppCheckSensor.REPORT_PATH_KEY, "cppcheck-reports/cppcheck-result-*.xml");
+    settings.setProperty(CxxReportSensor.REPORT_IMPORT_STATISTICS_KEY, tmp.getRoot().getAbsolutePath() + "/out");
+    context.setSettings(settings);
+    context.fileSystem().add(TestInputFileBuilder.create("ProjectKey", "sources/utils/code_chunks.cpp")
+      .setLanguage("cxx").initMetadata("asd\nasdas\nasda\n").build());
+
+    var sensor = new CxxCppCheckSensor();
+    sensor.execute(context);
+
+    var statistics = sensor.getStatistics();
+    assertThat(statistics.getSensor()).isEqualTo("CxxCppCheckSensor");
+    assertThat(statistics.getReports()).isNotEmpty();
+    assertThat(statistics.getReports()).anyMatch(ReportImportStatistics.ReportStatistics::isFailed);
+    var total = statistics.getTotal();
+    assertThat(total.getBytes()).isPositive();
+    assertThat(total.getSaved()).isEqualTo(context.allIssues().size());
+    assertThat(total.getParsed()).isEqualTo(6);
+    assertThat(total.getUnresolvedPaths()).isEqualTo(1);
+
+    var json = Files.readString(new File(tmp.getRoot(), "out/CxxCppCheckSensor.json").toPath(),
+                                StandardCharsets.UTF_8);
+    var root = new ObjectMapper().readTree(json);
+    assertThat(root.get("sensor").asText()).isEqualTo("CxxCppCheckSensor");
+    assertThat(root.get("reports").get(0).get("path").asText()).contains("cppcheck-result-");
+  }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TextScannerTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void lines() throws IOException {
+    var file = write("a\nb\r\nc\rd\n\ne", StandardCharsets.UTF_8);
+
+    try (var scanner = new TextScanner(file, StandardCharsets.UTF_8.name())) {
+      assertThat(readLines(scanner)).containsExactly("a", "b", "c", "d", "", "e");
+      assertThatThrownBy(scanner::nextLine).isInstanceOf(NoSuchElementException.class);
+    }
+  }
+
+  @Test
+  public void lastLineSeparator() throws IOException {
+    try (var scanner = new TextScanner(write("a\n", StandardCharsets.UTF_8), StandardCharsets.UTF_8.name())) {
+      assertThat(readLines(scanner)).containsExactly("a");
+    }
+    try (var scanner = new TextScanner(write("", StandardCharsets.UTF_8), StandardCharsets.UTF_8.name())) {
+      assertThat(scanner.hasNextLine()).isFalse();
+    }
+  }
+
+  @Test
+  public void longLines() throws IOException {
+    var line = "x".repeat(300_000);
+    var file = write(line + "\r\n" + line + "\r\n", StandardCharsets.UTF_8);
+
+    try (var scanner = new TextScanner(file, StandardCharsets.UTF_8.name())) {
+      assertThat(readLines(scanner)).containsExactly(line, line);
+    }
+  }
+
+  @Test
+  public void multiByteCharacters() throws IOException {
+    var text = new StringBuilder();
+    for (var i = 0; i < 100_000; i++) {
+      text.append("ä€😀").append(i).append('\n');
+    }
+    var file = write(text.toString(), StandardCharsets.UTF_8);
+
+    try (var scanner = new TextScanner(file, StandardCharsets.UTF_8.name())) {
+      var lines = readLines(scanner);
+      assertThat(lines).hasSize(100_000);
+      assertThat(lines.get(99_999)).isEqualTo("ä€😀99999");
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void surrogatePairAtBufferBoundary() throws IOException {
+    // only one char of the initial buffer of 64K chars is free for the two chars of the emoji
+    var line = "a".repeat(64 * 1024 - 1) + "😀";
+    var file = write(line + "\nnext\n", StandardCharsets.UTF_8);
+
+    try (var scanner = new TextScanner(file, StandardCharsets.UTF_8.name())) {
+      assertThat(readLines(scanner)).containsExactly(line, "next");
+    }
+  }
+
+  @Test
+  public void byteOrderMark() throws IOException {
+    var file = tmp.newFile();
+    Files.write(file.toPath(), new byte[]{(byte) 0xFF, (byte) 0xFE, 'a', 0, '\n', 0, 'b', 0});
+    try (var scanner = new TextScanner(file, StandardCharsets.UTF_8.name())) {
+      assertThat(scanner.encoding()).isEqualTo("UTF-16LE");
+      assertThat(readLines(scanner)).containsExactly("a", "b");
+    }
+
+    file = tmp.newFile();
+    Files.write(file.toPath(), new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'a'});
+    try (var scanner = new TextScanner(file, StandardCharsets.UTF_16.name())) {
+      assertThat(scanner.encoding()).isEqualTo("UTF-8");
+      assertThat(readLines(scanner)).containsExactly("a");
+    }
+
+    file = write("a", StandardCharsets.ISO_8859_1);
+    try (var scanner = new TextScanner(file, StandardCharsets.ISO_8859_1.name())) {
+      assertThat(scanner.encoding()).isEqualTo(StandardCharsets.ISO_8859_1.name());
+    }
+  }
+
+  @Test
+  public void delimiter() throws IOException {
+    var file = write("---\na\nb\n---\n---\nc\n---\n", StandardCharsets.UTF_8);
+
+    try (var scanner = new TextScanner(file, StandardCharsets.UTF_8.name())) {
+      scanner.useDelimiter(Pattern.compile("^-{3}$", Pattern.MULTILINE));
+      var tokens = new ArrayList<String>();
+      while (scanner.hasNext()) {
+        tokens.add(scanner.next());
+      }
+      assertThat(tokens).containsExactly("a\nb", "", "c", "");
+      assertThatThrownBy(scanner::next).isInstanceOf(NoSuchElementException.class);
+    }
+  }
+
+  @Test
+  public void whitespace() throws IOException {
+    var file = write("  a b\n\n\tc  \n", StandardCharsets.UTF_8);
+
+    try (var scanner = new TextScanner(file, StandardCharsets.UTF_8.name())) {
+      assertThat(scanner.next()).isEqualTo("a");
+      assertThat(scanner.next()).isEqualTo("b");
+      assertThat(scanner.next()).isEqualTo("c");
+      assertThat(scanner.hasNext()).isFalse();
+    }
+  }
+
+  @Test
+  public void closed() throws IOException {
+    var scanner = new TextScanner(write("a", StandardCharsets.UTF_8), StandardCharsets.UTF_8.name());
+    scanner.close();
+    scanner.close();
+    assertThatThrownBy(scanner::hasNextLine).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void invalidEncoding() throws IOException {
+    var file = write("a", StandardCharsets.UTF_8);
+    assertThatThrownBy(() -> new TextScanner(file, "unknown-encoding")).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private File write(String text, Charset charset) throws IOException {
+    var file = tmp.newFile();
+    Files.writeString(file.toPath(), text, charset);
+    return file;
+  }
+
+  private static List<String> readLines(TextScanner scanner) {
+    var lines = new ArrayList<String>();
+    while (scanner.hasNextLine()) {
+      lines.add(scanner.nextLine());
+    }
+    return lines;
+  }
+
+}
@@ -19,12 +19,16 @@
  */
 package org.sonar.cxx.sensors.valgrind;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.HashSet;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -32,10 +36,14 @@ import org.sonar.api.batch.fs.internal.DefaultFileSystem;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 import org.sonar.api.batch.sensor.internal.DefaultSensorDescriptor;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.cxx.sensors.utils.CxxReportSensor;
 import org.sonar.cxx.sensors.utils.TestUtils;
 
 public class CxxValgrindSensorTest {
 
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
   private DefaultFileSystem fs;
   private CxxValgrindSensor sensor;
 
@@ -80,6 +88,30 @@ public class CxxValgrindSensorTest {
     assertThat(context.allIssues()).isEmpty();
   }
 
+  @Test
+  public void shouldKeepIssuesOfErrorsBeforeAnIncompleteError() throws IOException {
+    var baseDir = tmp.getRoot();
+    var context = SensorContextTester.create(baseDir);
+    context.settings().setProperty(CxxReportSensor.ERROR_RECOVERY_KEY, true);
+    context.settings().setProperty(CxxValgrindSensor.REPORT_PATH_KEY, "valgrind.xml");
+    context.fileSystem().add(
+      TestInputFileBuilder.create("ProjectKey", "file.cpp")
+        .setLanguage("cxx")
+        .initMetadata("asd\nasdas\nasda\n")
+        .build());
+    Files.writeString(tmp.newFile("valgrind.xml").toPath(),
+                      "<valgrindoutput>\n"
+                        + "<error><kind>Leak_DefinitelyLost</kind><what>leak</what>\n"
+                        + "<stack><frame><ip>0x1</ip><obj>obj</obj><fn>fn</fn><dir>" + baseDir.getPath() + "</dir>"
+                        + "<file>file.cpp</file><line>2</line></frame></stack></error>\n"
+                        + "<error><what>no kind</what><stack><frame><ip>0x2</ip></frame></stack></error>\n"
+                        + "</valgrindoutput>\n");
+    sensor.execute(context);
+
+    // the report is invalid, but the issues of the errors before the invalid one are kept
+    assertThat(context.allIssues()).hasSize(1);
+  }
+
   @Test
   public void sensorDescriptor() {
     var descriptor = new DefaultSensorDescriptor();
@@ -20,8 +20,12 @@
 package org.sonar.cxx.sensors.valgrind;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Set;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import org.junit.Before;
 import org.junit.Test;
 import org.sonar.cxx.sensors.utils.TestUtils;
@@ -44,6 +48,24 @@ public class ValgrindReportParserTest {
     assertEquals(13, valgrindErrors.size());
   }
 
+  @Test
+  public void shouldStreamErrorsWithInternedFrames() throws javax.xml.stream.XMLStreamException {
+    File absReportsProject = TestUtils.loadResource("/org/sonar/cxx/sensors/reports-project").getAbsoluteFile();
+    var absReportFile = new File(absReportsProject, "valgrind-reports/valgrind-result-SAMPLE_1.xml");
+    var valgrindErrors = new ArrayList<ValgrindError>();
+    parser.parse(absReportFile, valgrindErrors::add);
+    assertEquals(13, new HashSet<>(valgrindErrors).size());
+
+    var frames = new HashMap<ValgrindFrame, ValgrindFrame>();
+    for (var error : valgrindErrors) {
+      for (var stack : error.getStacks()) {
+        for (var frame : stack.getFrames()) {
+          assertSame(frame, frames.computeIfAbsent(frame, f -> f));
+        }
+      }
+    }
+  }
+
   @Test
   public void parseAnErrorWithMultipleStacks() throws javax.xml.stream.XMLStreamException {
     File absReportsProject = TestUtils.loadResource("/org/sonar/cxx/sensors/reports-project").getAbsoluteFile();
@@ -31,11 +31,15 @@ import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.Grammar;
 import com.sonar.sslr.api.RecognitionException;
 import com.sonar.sslr.impl.Parser;
-import com.sonar.sslr.impl.ast.AstWalker;
 import java.io.File;
+import java.io.IOException;
 import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.utils.log.Logger;
@@ -58,6 +62,9 @@ public class AstScanner<G extends Grammar> {
   private final SquidIndex indexer = new SquidIndex();
   private final MetricDef[] metrics;
   private final MetricDef filesMetric;
+  @Nullable
+  private final File statisticsReport;
+  private ScanStatistics lastStatistics = null;
 
   protected AstScanner(Builder<G> builder) {
     this.visitors = Lists.newArrayList(builder.visitors);
@@ -69,6 +76,7 @@ public class AstScanner<G extends Grammar> {
     this.context.setCommentAnalyser(builder.commentAnalyser);
     this.metrics = builder.metrics;
     this.filesMetric = builder.filesMetric;
+    this.statisticsReport = builder.statisticsReport;
     indexer.index(context.getProject());
   }
 
@@ -87,56 +95,70 @@ public class AstScanner<G extends Grammar> {
   public void scanFiles(Collection<File> files) {
     initVisitors();
 
-    var astWalker = new AstWalker(visitors);
+    var dispatcher = new AstVisitorDispatcher(visitors, isStatisticsEnabled());
+    var statistics = createStatistics();
 
     for (var file : files) {
       checkCancel();
       context.setFile(file, filesMetric);
-
-      Exception parseException = null;
-      AstNode ast = null;
-      try {
-        try {
-          ast = parser.parse(file);
-        } catch (Exception e) {
-          parseException = handleParseException(file, e);
-        }
-        walkAndVisit(astWalker, ast, parseException);
-      } catch (Throwable e) {
-        throw new AnalysisException("Unable to parse file: " + file.getAbsolutePath(), e);
-      }
+      scan(dispatcher, statistics, file, () -> parser.parse(file));
     }
 
     destroyVisitors();
+    reportStatistics(dispatcher, statistics);
     decorateSquidTree();
   }
 
   public void scanInputFiles(Iterable<InputFile> inputFiles) {
     initVisitors();
 
-    var astWalker = new AstWalker(visitors);
+    var dispatcher = new AstVisitorDispatcher(visitors, isStatisticsEnabled());
+    var statistics = createStatistics();
 
     for (var inputFile : inputFiles) {
       var file = new File(inputFile.uri().getPath());
       checkCancel();
       context.setInputFile(inputFile, filesMetric);
+      scan(dispatcher, statistics, file, () -> parser.parse(inputFile.contents()));
+    }
+
+    destroyVisitors();
+    reportStatistics(dispatcher, statistics);
+    decorateSquidTree();
+  }
 
-      Exception parseException = null;
-      AstNode ast = null;
+  /**
+   * Statistics of the last scan, only available if enabled (debug log or statistics report).
+   */
+  @CheckForNull
+  public ScanStatistics getStatistics() {
+    return lastStatistics;
+  }
+
+  private void scan(AstVisitorDispatcher dispatcher, @Nullable ScanStatistics statistics, File file,
+                    Callable<AstNode> parse) {
+    long start = statistics != null ? System.nanoTime() : 0L;
+    long parsed = 0L;
+
+    Exception parseException = null;
+    AstNode ast = null;
+    try {
       try {
-        try {
-          ast = parser.parse(inputFile.contents());
-        } catch (Exception e) {
-          parseException = handleParseException(file, e);
-        }
-        walkAndVisit(astWalker, ast, parseException);
-      } catch (Throwable e) {
-        throw new AnalysisException("Unable to parse file: " + file.getAbsolutePath(), e);
+        ast = parse.call();
+      } catch (Exception e) {
+        parseException = handleParseException(file, e);
       }
+      if (statistics != null) {
+        parsed = System.nanoTime();
+      }
+      walkAndVisit(dispatcher, ast, parseException);
+    } catch (Throwable e) {
+      throw new AnalysisException("Unable to parse file: " + file.getAbsolutePath(), e);
     }
 
-    destroyVisitors();
-    decorateSquidTree();
+    if (statistics != null) {
+      statistics.addFile(file.getAbsolutePath(), parsed - start, System.nanoTime() - parsed);
+    }
   }
 
   private static Exception handleParseException(File file, Exception e) {
@@ -150,9 +172,10 @@ public class AstScanner<G extends Grammar> {
     return e;
   }
 
-  private void walkAndVisit(AstWalker astWalker, AstNode ast, @Nullable Exception parseException) throws Throwable {
+  private void walkAndVisit(AstVisitorDispatcher dispatcher, AstNode ast, @Nullable Exception parseException)
+    throws Throwable {
     if (parseException == null) {
-      astWalker.walkAndVisit(ast);
+      dispatcher.walkAndVisit(ast);
     } else {
       // process parse error
       for (var visitor : visitors) {
@@ -175,6 +198,34 @@ public class AstScanner<G extends Grammar> {
     context.popTillSourceProject();
   }
 
+  private boolean isStatisticsEnabled() {
+    return statisticsReport != null || LOG.isDebugEnabled();
+  }
+
+  @CheckForNull
+  private ScanStatistics createStatistics() {
+    lastStatistics = isStatisticsEnabled() ? new ScanStatistics() : null;
+    return lastStatistics;
+  }
+
+  private void reportStatistics(AstVisitorDispatcher dispatcher, @Nullable ScanStatistics statistics) {
+    if (statistics == null) {
+      return;
+    }
+    statistics.setVisitorTimes(dispatcher.getVisitorTimes());
+    if (LOG.isDebugEnabled()) {
+      statistics.log(LOG);
+    }
+    if (statisticsReport != null) {
+      try {
+        Files.createDirectories(statisticsReport.getAbsoluteFile().getParentFile().toPath());
+        Files.writeString(statisticsReport.toPath(), statistics.toJson(), StandardCharsets.UTF_8);
+      } catch (IOException e) {
+        LOG.warn("Cannot write scan statistics '{}': {}", statisticsReport, e.getMessage());
+      }
+    }
+  }
+
   private void initVisitors() {
     for (var visitor : visitors) {
       visitor.init();
@@ -224,6 +275,7 @@ public class AstScanner<G extends Grammar> {
     private CommentAnalyser commentAnalyser;
     private MetricDef[] metrics;
     private MetricDef filesMetric;
+    private File statisticsReport;
 
     public Builder(SquidAstVisitorContextImpl<G> context) {
       checkNotNull(context, "context cannot be null");
@@ -263,6 +315,16 @@ public class AstScanner<G extends Grammar> {
       return this;
     }
 
+    /**
+     * Collect the scan statistics (time per phase, visitor and file) and write them as JSON to the given file. Without
+     * report the statistics are only collected if debug logging is enabled.
+     */
+    public Builder<G> setStatisticsReport(File statisticsReport) {
+      checkNotNull(statisticsReport, "statisticsReport cannot be null");
+      this.statisticsReport = statisticsReport;
+      return this;
+    }
+
     public AstScanner<G> build() {
       checkState(baseParser != null, "baseParser must be set");
       checkState(commentAnalyser != null, "commentAnalyser must be set");
@@ -0,0 +1,210 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.AstVisitor;
+import com.sonar.sslr.api.Token;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Walks an AST and dispatches the nodes and tokens to the visitors (replacement of the SSLR AstWalker).
+ *
+ * For each AST node type the interested visitors are computed once as a flat array of visitor indexes. Nodes without
+ * interested visitors are passed without any allocation, leaves are only entered if a visitor is interested in their
+ * type or in tokens, and the walk is skipped completely if no visitor subscribed to node types or tokens. Each token is
+ * passed only once to the token visitors, in the order of the walk: token visitors attribute measures to the source
+ * code element currently on the stack, so their calls can't be moved out of the walk. A {@link SelectiveVisitor} not
+ * visiting the current file gets no nodes and tokens of the file, if no visitor is left the walk is skipped.
+ *
+ * Optionally the time spent in each visitor is measured, to identify expensive visitors and checks.
+ */
+final class AstVisitorDispatcher {
+
+  private static final int[] NONE = new int[0];
+
+  private final AstVisitor[] visitors;
+  private final Map<AstNodeType, int[]> visitorsByNodeType = new IdentityHashMap<>();
+  private final int[] tokenVisitors;
+  private final boolean[] subscribed;
+  private final boolean[] active;
+  @Nullable
+  private final long[] nanos;
+
+  private Token lastVisitedToken = null;
+
+  /**
+   * @param visitors visitors to dispatch to, the subscriptions must be done already (after init)
+   * @param measureTime measure the time spent in each visitor
+   */
+  AstVisitorDispatcher(List<? extends AstVisitor> visitors, boolean measureTime) {
+    this.visitors = visitors.toArray(new AstVisitor[0]);
+
+    var byNodeType = new IdentityHashMap<AstNodeType, List<Integer>>();
+    var tokenVisitorList = new ArrayList<Integer>();
+    subscribed = new boolean[this.visitors.length];
+    active = new boolean[this.visitors.length];
+    for (var i = 0; i < this.visitors.length; i++) {
+      var visitor = this.visitors[i];
+      for (var type : visitor.getAstNodeTypesToVisit()) {
+        byNodeType.computeIfAbsent(type, t -> new ArrayList<>()).add(i);
+        subscribed[i] = true;
+      }
+      if (visitor instanceof AstAndTokenVisitor) {
+        tokenVisitorList.add(i);
+        subscribed[i] = true;
+      }
+    }
+    for (var entry : byNodeType.entrySet()) {
+      visitorsByNodeType.put(entry.getKey(), toArray(entry.getValue()));
+    }
+    tokenVisitors = toArray(tokenVisitorList);
+    nanos = measureTime ? new long[this.visitors.length] : null;
+  }
+
+  void walkAndVisit(@Nullable AstNode ast) {
+    var walkTree = false;
+    for (var i = 0; i < visitors.length; i++) {
+      visitFile(i, ast);
+      active[i] = subscribed[i]
+                    && (!(visitors[i] instanceof SelectiveVisitor) || ((SelectiveVisitor) visitors[i]).isVisitingFile());
+      walkTree |= active[i];
+    }
+    if (ast != null && walkTree) {
+      lastVisitedToken = null;
+      visit(ast);
+      lastVisitedToken = null;
+    }
+    for (var i = visitors.length - 1; i >= 0; i--) {
+      leaveFile(i, ast);
+    }
+  }
+
+  /**
+   * Time spent in each visitor (visitor name, milliseconds), in the order of the visitors.
+   */
+  Map<String, Long> getVisitorTimes() {
+    var result = new LinkedHashMap<String, Long>();
+    if (nanos != null) {
+      for (var i = 0; i < visitors.length; i++) {
+        result.merge(visitors[i].getClass().getName(), nanos[i] / 1_000_000L, Long::sum);
+      }
+    }
+    return result;
+  }
+
+  private void visit(AstNode node) {
+    int[] nodeVisitors = visitorsByNodeType.getOrDefault(node.getType(), NONE);
+    for (var index : nodeVisitors) {
+      if (active[index]) {
+        visitNode(index, node);
+      }
+    }
+    if (tokenVisitors.length > 0) {
+      visitToken(node.getToken());
+    }
+    if (node.hasChildren()) {
+      for (var child : node.getChildren()) {
+        if (child.hasChildren() || tokenVisitors.length > 0 || visitorsByNodeType.containsKey(child.getType())) {
+          visit(child);
+        }
+      }
+    }
+    for (var i = nodeVisitors.length - 1; i >= 0; i--) {
+      if (active[nodeVisitors[i]]) {
+        leaveNode(nodeVisitors[i], node);
+      }
+    }
+  }
+
+  private void visitToken(@Nullable Token token) {
+    if (token != null && token != lastVisitedToken) {
+      lastVisitedToken = token;
+      for (var index : tokenVisitors) {
+        if (!active[index]) {
+          continue;
+        }
+        if (nanos == null) {
+          ((AstAndTokenVisitor) visitors[index]).visitToken(token);
+        } else {
+          long start = System.nanoTime();
+          ((AstAndTokenVisitor) visitors[index]).visitToken(token);
+          nanos[index] += System.nanoTime() - start;
+        }
+      }
+    }
+  }
+
+  private void visitFile(int index, @Nullable AstNode ast) {
+    if (nanos == null) {
+      visitors[index].visitFile(ast);
+    } else {
+      long start = System.nanoTime();
+      visitors[index].visitFile(ast);
+      nanos[index] += System.nanoTime() - start;
+    }
+  }
+
+  private void leaveFile(int index, @Nullable AstNode ast) {
+    if (nanos == null) {
+      visitors[index].leaveFile(ast);
+    } else {
+      long start = System.nanoTime();
+      visitors[index].leaveFile(ast);
+      nanos[index] += System.nanoTime() - start;
+    }
+  }
+
+  private void visitNode(int index, AstNode node) {
+    if (nanos == null) {
+      visitors[index].visitNode(node);
+    } else {
+      long start = System.nanoTime();
+      visitors[index].visitNode(node);
+      nanos[index] += System.nanoTime() - start;
+    }
+  }
+
+  private void leaveNode(int index, AstNode node) {
+    if (nanos == null) {
+      visitors[index].leaveNode(node);
+    } else {
+      long start = System.nanoTime();
+      visitors[index].leaveNode(node);
+      nanos[index] += System.nanoTime() - start;
+    }
+  }
+
+  private static int[] toArray(List<Integer> list) {
+    var result = new int[list.size()];
+    for (var i = 0; i < result.length; i++) {
+      result[i] = list.get(i);
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import org.sonar.api.utils.log.Logger;
+
+/**
+ * Timing of a scan: time spent in the phases (parse including preprocessing and lexing, visit), time spent in each
+ * visitor or check and the slowest files.
+ *
+ * The statistics are only collected if enabled in the {@link AstScanner}, otherwise no time is measured at all.
+ */
+public class ScanStatistics {
+
+  public static final int SLOWEST_FILES = 10;
+
+  private final int slowestFilesLimit;
+  private final PriorityQueue<FileTime> slowestFiles;
+  private final Map<String, Long> visitorTimes = new LinkedHashMap<>();
+
+  private int files = 0;
+  private long parseNanos = 0;
+  private long visitNanos = 0;
+
+  public ScanStatistics() {
+    this(SLOWEST_FILES);
+  }
+
+  /**
+   * @param slowestFilesLimit number of slowest files to keep
+   */
+  public ScanStatistics(int slowestFilesLimit) {
+    this.slowestFilesLimit = slowestFilesLimit;
+    this.slowestFiles = new PriorityQueue<>(Comparator.comparingLong(FileTime::getTotalNanos));
+  }
+
+  void addFile(String path, long fileParseNanos, long fileVisitNanos) {
+    files++;
+    parseNanos += fileParseNanos;
+    visitNanos += fileVisitNanos;
+    if (slowestFilesLimit > 0) {
+      var fileTime = new FileTime(path, fileParseNanos, fileVisitNanos);
+      if (slowestFiles.size() < slowestFilesLimit) {
+        slowestFiles.add(fileTime);
+      } else if (slowestFiles.peek().getTotalNanos() < fileTime.getTotalNanos()) {
+        slowestFiles.poll();
+        slowestFiles.add(fileTime);
+      }
+    }
+  }
+
+  void setVisitorTimes(Map<String, Long> times) {
+    visitorTimes.clear();
+    visitorTimes.putAll(times);
+  }
+
+  /**
+   * Number of scanned files.
+   */
+  public int getFiles() {
+    return files;
+  }
+
+  /**
+   * Time spent in preprocessing, lexing and parsing in milliseconds.
+   */
+  public long getParseTime() {
+    return parseNanos / 1_000_000L;
+  }
+
+  /**
+   * Time spent in walking the AST and in the visitors in milliseconds.
+   */
+  public long getVisitTime() {
+    return visitNanos / 1_000_000L;
+  }
+
+  /**
+   * Time spent in each visitor (visitor name, milliseconds), sorted by descending time.
+   */
+  public Map<String, Long> getVisitorTimes() {
+    var result = new LinkedHashMap<String, Long>();
+    visitorTimes.entrySet().stream()
+      .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+      .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+    return result;
+  }
+
+  /**
+   * Slowest files, sorted by descending time.
+   */
+  public List<FileTime> getSlowestFiles() {
+    var result = new ArrayList<>(slowestFiles);
+    result.sort(Comparator.comparingLong(FileTime::getTotalNanos).reversed());
+    return result;
+  }
+
+  /**
+   * Write the statistics to the debug log.
+   */
+  public void log(Logger log) {
+    log.debug("scan time: {} file(s), parse {} ms, visit {} ms", files, getParseTime(), getVisitTime());
+    getVisitorTimes().forEach((name, time) -> log.debug("visitor time: {} ms {}", time, name));
+    for (var file : getSlowestFiles()) {
+      log.debug("file time: {} ms (parse {} ms, visit {} ms) {}",
+                file.getTotalTime(), file.getParseTime(), file.getVisitTime(), file.getPath());
+    }
+  }
+
+  /**
+   * Statistics as JSON document.
+   */
+  public String toJson() throws JsonProcessingException {
+    var mapper = new ObjectMapper();
+    ObjectNode json = mapper.createObjectNode()
+      .put("files", files);
+    json.putObject("phases")
+      .put("parse", getParseTime())
+      .put("visit", getVisitTime());
+    ArrayNode jsonVisitors = json.putArray("visitors");
+    getVisitorTimes().forEach((name, time) -> jsonVisitors.addObject()
+      .put("name", name)
+      .put("time", time));
+    ArrayNode jsonFiles = json.putArray("slowestFiles");
+    for (var file : getSlowestFiles()) {
+      jsonFiles.addObject()
+        .put("path", file.getPath())
+        .put("time", file.getTotalTime())
+        .put("parse", file.getParseTime())
+        .put("visit", file.getVisitTime());
+    }
+    return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(json);
+  }
+
+  /**
+   * Time spent for a single file.
+   */
+  public static class FileTime {
+
+    private final String path;
+    private final long parseNanos;
+    private final long visitNanos;
+
+    FileTime(String path, long parseNanos, long visitNanos) {
+      this.path = path;
+      this.parseNanos = parseNanos;
+      this.visitNanos = visitNanos;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public long getParseTime() {
+      return parseNanos / 1_000_000L;
+    }
+
+    public long getVisitTime() {
+      return visitNanos / 1_000_000L;
+    }
+
+    public long getTotalTime() {
+      return getTotalNanos() / 1_000_000L;
+    }
+
+    private long getTotalNanos() {
+      return parseNanos + visitNanos;
+    }
+
+  }
+
+}
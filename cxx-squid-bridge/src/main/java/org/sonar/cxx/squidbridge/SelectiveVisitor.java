@@ -0,0 +1,35 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+/**
+ * Visitor that is only interested in some of the files (e.g. only in header files).
+ *
+ * The scanner asks the visitor after visitFile() whether it is visiting the current file. If not, no nodes and tokens
+ * of the file are dispatched to the visitor; visitFile() and leaveFile() are always called.
+ */
+public interface SelectiveVisitor {
+
+  /**
+   * @return false if the nodes and tokens of the current file are not of interest for the visitor
+   */
+  boolean isVisitingFile();
+
+}
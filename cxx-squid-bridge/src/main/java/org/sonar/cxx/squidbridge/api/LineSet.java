@@ -0,0 +1,94 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge.api;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of line numbers of a file (e.g. lines of code, comment lines or NOSONAR lines).
+ *
+ * The lines are stored in a bit set: adding a line is a single bit operation without boxing, duplicates are ignored
+ * and the lines are iterated in ascending order.
+ */
+public final class LineSet {
+
+  private final BitSet lines = new BitSet();
+
+  /**
+   * Add a line, lines less than 1 are ignored.
+   */
+  public void add(int line) {
+    if (line > 0) {
+      lines.set(line);
+    }
+  }
+
+  public void remove(int line) {
+    if (line > 0) {
+      lines.clear(line);
+    }
+  }
+
+  public void addAll(LineSet other) {
+    lines.or(other.lines);
+  }
+
+  public boolean contains(int line) {
+    return line > 0 && lines.get(line);
+  }
+
+  /**
+   * Number of lines in the set.
+   */
+  public int size() {
+    return lines.cardinality();
+  }
+
+  public boolean isEmpty() {
+    return lines.isEmpty();
+  }
+
+  /**
+   * Call the action for each line in ascending order.
+   */
+  public void forEach(IntConsumer action) {
+    for (int line = lines.nextSetBit(0); line >= 0; line = lines.nextSetBit(line + 1)) {
+      action.accept(line);
+    }
+  }
+
+  /**
+   * Lines as set of integers (a copy).
+   */
+  public Set<Integer> toSet() {
+    var result = new HashSet<Integer>(lines.cardinality() * 2);
+    forEach(result::add);
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return lines.toString();
+  }
+
+}
@@ -23,12 +23,11 @@
  */
 package org.sonar.cxx.squidbridge.api;
 
-import java.util.HashSet;
 import java.util.Set;
 
 public class SourceFile extends SourceCode {
 
-  private final Set<Integer> noSonarTagLines = new HashSet<>();
+  private final LineSet noSonarTagLines = new LineSet();
 
   public SourceFile(String key) {
     super(key);
@@ -41,7 +40,7 @@ public class SourceFile extends SourceCode {
   }
 
   public Set<Integer> getNoSonarTagLines() {
-    return noSonarTagLines;
+    return noSonarTagLines.toSet();
   }
 
   public boolean hasNoSonarTagAtLine(int lineNumber) {
@@ -49,6 +48,10 @@ public class SourceFile extends SourceCode {
   }
 
   public void addNoSonarTagLines(Set<Integer> noSonarTagLines) {
+    noSonarTagLines.forEach(this.noSonarTagLines::add);
+  }
+
+  public void addNoSonarTagLines(LineSet noSonarTagLines) {
     this.noSonarTagLines.addAll(noSonarTagLines);
   }
 
@@ -27,9 +27,8 @@ import com.sonar.sslr.api.AstAndTokenVisitor;
 import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.Grammar;
 import com.sonar.sslr.api.Token;
-import java.util.HashSet;
-import java.util.Set;
 import org.sonar.cxx.squidbridge.SquidAstVisitor;
+import org.sonar.cxx.squidbridge.api.LineSet;
 import org.sonar.cxx.squidbridge.api.SourceFile;
 import org.sonar.cxx.squidbridge.measures.MetricDef;
 
@@ -38,8 +37,8 @@ import org.sonar.cxx.squidbridge.measures.MetricDef;
  */
 public final class CommentsVisitor<G extends Grammar> extends SquidAstVisitor<G> implements AstAndTokenVisitor {
 
-  private Set<Integer> noSonar;
-  private Set<Integer> comments;
+  private LineSet noSonar;
+  private LineSet comments;
   private boolean seenFirstToken;
 
   private final boolean enableNoSonar;
@@ -65,8 +64,8 @@ public final class CommentsVisitor<G extends Grammar> extends SquidAstVisitor<G>
 
   @Override
   public void visitFile(AstNode astNode) {
-    noSonar = new HashSet<>();
-    comments = new HashSet<>();
+    noSonar = new LineSet();
+    comments = new LineSet();
     seenFirstToken = false;
   }
 
@@ -0,0 +1,168 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.ast.AstWalker;
+import com.sonar.sslr.test.minic.MiniCGrammar;
+import com.sonar.sslr.test.minic.MiniCParser;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.fest.assertions.Assertions.assertThat;
+import org.junit.Test;
+
+public class AstVisitorDispatcherTest {
+
+  private static final String SOURCE = "int f(int a) { if (a) { return a; } while (a) { a = a - 1; } return 0; }";
+
+  private final List<String> events = new ArrayList<>();
+
+  @Test
+  public void sameOrderAsAstWalker() {
+    AstNode ast = MiniCParser.parseString(SOURCE);
+
+    new AstWalker(createVisitors()).walkAndVisit(ast);
+    var expected = new ArrayList<>(events);
+    events.clear();
+
+    new AstVisitorDispatcher(createVisitors(), false).walkAndVisit(ast);
+    assertThat(events).isEqualTo(expected);
+    assertThat(events).contains("node:identifier:IDENTIFIER", "token:tokens:f", "leave:statements:STATEMENT");
+  }
+
+  @Test
+  public void fileEventsWithoutSubscriptions() {
+    AstNode ast = MiniCParser.parseString(SOURCE);
+
+    new AstVisitorDispatcher(Arrays.asList(new RecordingVisitor("a"), new RecordingVisitor("b")), false)
+      .walkAndVisit(ast);
+    assertThat(events).containsExactly("visitFile:a", "visitFile:b", "leaveFile:b", "leaveFile:a");
+  }
+
+  @Test
+  public void selectiveVisitor() {
+    AstNode ast = MiniCParser.parseString(SOURCE);
+    var selective = new SelectiveRecordingVisitor("selective", MiniCGrammar.STATEMENT);
+
+    selective.visiting = false;
+    new AstVisitorDispatcher(Arrays.asList(selective), false).walkAndVisit(ast);
+    assertThat(events).containsExactly("visitFile:selective", "leaveFile:selective");
+    events.clear();
+
+    selective.visiting = true;
+    new AstVisitorDispatcher(Arrays.asList(selective), false).walkAndVisit(ast);
+    assertThat(events).contains("node:selective:STATEMENT", "leave:selective:STATEMENT");
+  }
+
+  @Test
+  public void parseError() {
+    new AstVisitorDispatcher(createVisitors(), false).walkAndVisit(null);
+    assertThat(events).hasSize(8);
+  }
+
+  @Test
+  public void visitorTimes() {
+    AstNode ast = MiniCParser.parseString(SOURCE);
+    var visitors = createVisitors();
+
+    var dispatcher = new AstVisitorDispatcher(visitors, true);
+    dispatcher.walkAndVisit(ast);
+    assertThat(dispatcher.getVisitorTimes()).hasSize(2);
+    assertThat(dispatcher.getVisitorTimes().keySet()).contains(RecordingVisitor.class.getName(),
+                                                               RecordingTokenVisitor.class.getName());
+
+    assertThat(new AstVisitorDispatcher(visitors, false).getVisitorTimes()).isEmpty();
+  }
+
+  private List<SquidAstVisitor<Grammar>> createVisitors() {
+    return Arrays.asList(
+      new RecordingVisitor("statements", MiniCGrammar.STATEMENT, MiniCGrammar.FUNCTION_DEFINITION),
+      new RecordingVisitor("identifier", GenericTokenType.IDENTIFIER),
+      new RecordingTokenVisitor("tokens"),
+      new RecordingVisitor("none")
+    );
+  }
+
+  private class RecordingVisitor extends SquidAstVisitor<Grammar> {
+
+    private final String name;
+
+    RecordingVisitor(String name, AstNodeType... types) {
+      this.name = name;
+      subscribeTo(types);
+    }
+
+    @Override
+    public void visitFile(AstNode ast) {
+      events.add("visitFile:" + name);
+    }
+
+    @Override
+    public void visitNode(AstNode node) {
+      events.add("node:" + name + ":" + node.getName());
+    }
+
+    @Override
+    public void leaveNode(AstNode node) {
+      events.add("leave:" + name + ":" + node.getName());
+    }
+
+    @Override
+    public void leaveFile(AstNode ast) {
+      events.add("leaveFile:" + name);
+    }
+
+  }
+
+  private class SelectiveRecordingVisitor extends RecordingVisitor implements SelectiveVisitor {
+
+    private boolean visiting = true;
+
+    SelectiveRecordingVisitor(String name, AstNodeType... types) {
+      super(name, types);
+    }
+
+    @Override
+    public boolean isVisitingFile() {
+      return visiting;
+    }
+
+  }
+
+  private class RecordingTokenVisitor extends RecordingVisitor implements AstAndTokenVisitor {
+
+    RecordingTokenVisitor(String name) {
+      super(name);
+    }
+
+    @Override
+    public void visitToken(Token token) {
+      events.add("token:tokens:" + token.getValue());
+    }
+
+  }
+
+}
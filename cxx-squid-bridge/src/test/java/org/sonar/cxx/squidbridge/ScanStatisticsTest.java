@@ -0,0 +1,126 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.test.minic.MiniCGrammar;
+import com.sonar.sslr.test.minic.MiniCParser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import static org.fest.assertions.Assertions.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.cxx.squidbridge.api.SourceProject;
+import org.sonar.cxx.squidbridge.metrics.CounterVisitor;
+import org.sonar.cxx.squidbridge.test.miniC.MiniCAstScanner.MiniCMetrics;
+
+public class ScanStatisticsTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void slowestFiles() {
+    var statistics = new ScanStatistics(2);
+    statistics.addFile("a", 1_000_000L, 2_000_000L);
+    statistics.addFile("b", 5_000_000L, 1_000_000L);
+    statistics.addFile("c", 1_000_000L, 1_000_000L);
+    statistics.addFile("d", 2_000_000L, 2_000_000L);
+
+    assertThat(statistics.getFiles()).isEqualTo(4);
+    assertThat(statistics.getParseTime()).isEqualTo(9);
+    assertThat(statistics.getVisitTime()).isEqualTo(6);
+    assertThat(statistics.getSlowestFiles()).hasSize(2);
+    assertThat(statistics.getSlowestFiles().get(0).getPath()).isEqualTo("b");
+    assertThat(statistics.getSlowestFiles().get(0).getTotalTime()).isEqualTo(6);
+    assertThat(statistics.getSlowestFiles().get(1).getPath()).isEqualTo("d");
+  }
+
+  @Test
+  public void json() throws IOException {
+    var statistics = new ScanStatistics();
+    statistics.addFile("C:\\src\\\"a\".c", 1_000_000L, 2_000_000L);
+    statistics.setVisitorTimes(Map.of("Visitor", 2L));
+
+    var json = new ObjectMapper().readTree(statistics.toJson());
+    assertThat(json.get("files").asInt()).isEqualTo(1);
+    assertThat(json.get("phases").get("parse").asLong()).isEqualTo(1);
+    assertThat(json.get("phases").get("visit").asLong()).isEqualTo(2);
+    assertThat(json.get("visitors").size()).isEqualTo(1);
+    assertThat(json.get("visitors").get(0).get("name").asText()).isEqualTo("Visitor");
+    assertThat(json.get("visitors").get(0).get("time").asLong()).isEqualTo(2);
+    assertThat(json.get("slowestFiles").size()).isEqualTo(1);
+    assertThat(json.get("slowestFiles").get(0).get("path").asText()).isEqualTo("C:\\src\\\"a\".c");
+    assertThat(json.get("slowestFiles").get(0).get("time").asLong()).isEqualTo(3);
+    assertThat(json.get("slowestFiles").get(0).get("parse").asLong()).isEqualTo(1);
+    assertThat(json.get("slowestFiles").get(0).get("visit").asLong()).isEqualTo(2);
+  }
+
+  @Test
+  public void scanWithStatisticsReport() throws IOException {
+    var report = new File(tmp.getRoot(), "out/statistics.json");
+    var scanner = createScanner(report);
+    var files = Arrays.asList(FileUtils.toFile(getClass().getResource("/metrics/lines.mc")),
+                              FileUtils.toFile(getClass().getResource("/checks/parse_error.mc")));
+
+    scanner.scanFiles(files);
+
+    var statistics = scanner.getStatistics();
+    assertThat(statistics).isNotNull();
+    assertThat(statistics.getFiles()).isEqualTo(2);
+    assertThat(statistics.getSlowestFiles()).hasSize(2);
+    assertThat(statistics.getVisitorTimes().keySet()).contains(CounterVisitor.class.getName());
+
+    var json = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+    var root = new ObjectMapper().readTree(json);
+    assertThat(root.get("files").asInt()).isEqualTo(2);
+    assertThat(json).contains("lines.mc").contains("parse_error.mc");
+  }
+
+  private static AstScanner<Grammar> createScanner(File report) {
+    var context = new SquidAstVisitorContextImpl<Grammar>(new SourceProject("MiniC Project"));
+    return AstScanner.<Grammar>builder(context)
+      .setBaseParser(MiniCParser.create())
+      .setFilesMetric(MiniCMetrics.FILES)
+      .setCommentAnalyser(new CommentAnalyser() {
+        @Override
+        public boolean isBlank(String commentLine) {
+          return commentLine.isBlank();
+        }
+
+        @Override
+        public String getContents(String comment) {
+          return comment.substring(2, comment.length() - 2);
+        }
+      })
+      .withSquidAstVisitor(CounterVisitor.<Grammar>builder().setMetricDef(MiniCMetrics.STATEMENTS)
+        .subscribeTo(MiniCGrammar.STATEMENT).build())
+      .setStatisticsReport(report)
+      .build();
+  }
+
+}
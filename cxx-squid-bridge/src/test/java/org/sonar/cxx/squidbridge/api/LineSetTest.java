@@ -0,0 +1,64 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge.api;
+
+import java.util.ArrayList;
+import static org.fest.assertions.Assertions.assertThat;
+import org.junit.Test;
+
+public class LineSetTest {
+
+  @Test
+  public void addAndRemove() {
+    var lines = new LineSet();
+    assertThat(lines.isEmpty()).isTrue();
+
+    lines.add(7);
+    lines.add(3);
+    lines.add(7);
+    lines.add(0);
+    lines.add(-1);
+    assertThat(lines.size()).isEqualTo(2);
+    assertThat(lines.contains(3)).isTrue();
+    assertThat(lines.contains(4)).isFalse();
+    assertThat(lines.contains(-1)).isFalse();
+
+    lines.remove(3);
+    assertThat(lines.contains(3)).isFalse();
+    assertThat(lines.toSet()).containsOnly(7);
+  }
+
+  @Test
+  public void forEachInAscendingOrder() {
+    var lines = new LineSet();
+    lines.add(100);
+    lines.add(1);
+    lines.add(42);
+    var other = new LineSet();
+    other.add(42);
+    other.add(64);
+    lines.addAll(other);
+
+    var result = new ArrayList<Integer>();
+    lines.forEach(result::add);
+    assertThat(result).containsExactly(1, 42, 64, 100);
+  }
+
+}
@@ -22,13 +22,17 @@ package org.sonar.cxx;
 import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.Grammar;
+import java.io.File;
 import static java.lang.Math.min;
 import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.cxx.api.CxxMetric;
 import org.sonar.cxx.config.CxxSquidConfiguration;
 import org.sonar.cxx.parser.CxxGrammarImpl;
 import org.sonar.cxx.parser.CxxParser;
+import org.sonar.cxx.preprocessor.CxxPreprocessor;
 import org.sonar.cxx.squidbridge.AstScanner;
 import org.sonar.cxx.squidbridge.CommentAnalyser;
 import org.sonar.cxx.squidbridge.SourceCodeBuilderVisitor;
@@ -60,6 +64,33 @@ import org.sonar.cxx.visitors.CxxPublicApiVisitor;
 
 public final class CxxAstScanner {
 
+  /**
+   * Results of the scan besides the issues of the checks. Visitors which are only needed for results which are not
+   * required are not created.
+   */
+  public enum Requirement {
+    /**
+     * file metrics (lines, statements, functions, classes, complexity, comments, function complexity and size)
+     */
+    METRICS,
+    /**
+     * public API metrics
+     */
+    PUBLIC_API,
+    /**
+     * tokens for copy paste detection
+     */
+    CPD,
+    /**
+     * syntax highlighting
+     */
+    HIGHLIGHTING,
+    /**
+     * lines of code and executable lines
+     */
+    FILE_LINES
+  }
+
   private CxxAstScanner() {
   }
 
@@ -99,7 +130,7 @@ public final class CxxAstScanner {
   }
 
   /**
-   * Create scanner for language
+   * Create scanner for language with all visitors
    *
    * @param squidConfig the Squid configuration
    * @param visitors visitors AST checks and visitors to use
@@ -107,16 +138,39 @@ public final class CxxAstScanner {
    */
   @SafeVarargs
   public static AstScanner<Grammar> create(CxxSquidConfiguration squidConfig, SquidAstVisitor<Grammar>... visitors) {
+    return create(squidConfig, EnumSet.allOf(Requirement.class), visitors);
+  }
+
+  /**
+   * Create scanner for language with the visitors needed for the requirements and the checks
+   *
+   * @param squidConfig the Squid configuration
+   * @param requirements results of the scan besides the issues of the checks
+   * @param visitors visitors AST checks and visitors to use
+   * @return scanner for the given parameters
+   */
+  @SafeVarargs
+  public static AstScanner<Grammar> create(CxxSquidConfiguration squidConfig, Set<Requirement> requirements,
+                                           SquidAstVisitor<Grammar>... visitors) {
     var context = new SquidAstVisitorContextImpl<>(new SourceProject("Cxx Project"));
-    var parser = CxxParser.create(context, squidConfig);
+    var preprocessor = new CxxPreprocessor(context, squidConfig);
+    var parser = CxxParser.create(squidConfig, preprocessor);
     var builder = AstScanner.<Grammar>builder(context).setBaseParser(parser);
 
+    // metrics used by the checks (e.g. lines of code in function body) are needed for the checks too
+    boolean metrics = requirements.contains(Requirement.METRICS);
+    boolean baseMetrics = metrics || visitors.length > 0;
+
     /* Metrics */
     builder.withMetrics(CxxMetric.values());
 
     /* Files */
     builder.setFilesMetric(CxxMetric.FILES);
 
+    /* Statistics */
+    squidConfig.get(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.SCAN_STATISTICS_REPORT)
+      .ifPresent(path -> builder.setStatisticsReport(new File(path)));
+
     /* Comments */
     builder.setCommentAnalyser(
       new CommentAnalyser() {
@@ -164,10 +218,12 @@ public final class CxxAstScanner {
       return function;
     }, CxxGrammarImpl.functionDefinition));
 
-    builder.withSquidAstVisitor(CounterVisitor.<Grammar>builder()
-      .setMetricDef(CxxMetric.FUNCTIONS)
-      .subscribeTo(CxxGrammarImpl.functionDefinition)
-      .build());
+    if (metrics) {
+      builder.withSquidAstVisitor(CounterVisitor.<Grammar>builder()
+        .setMetricDef(CxxMetric.FUNCTIONS)
+        .subscribeTo(CxxGrammarImpl.functionDefinition)
+        .build());
+    }
 
     /* Classes */
     builder.withSquidAstVisitor(new SourceCodeBuilderVisitor<>((SourceCode parentSourceCode, AstNode astNode) -> {
@@ -178,16 +234,25 @@ public final class CxxAstScanner {
       return cls;
     }, CxxGrammarImpl.classSpecifier));
 
-    builder.withSquidAstVisitor(CounterVisitor.<Grammar>builder()
-      .setMetricDef(CxxMetric.CLASSES)
-      .subscribeTo(CxxGrammarImpl.classSpecifier)
-      .build());
+    if (metrics) {
+      builder.withSquidAstVisitor(CounterVisitor.<Grammar>builder()
+        .setMetricDef(CxxMetric.CLASSES)
+        .subscribeTo(CxxGrammarImpl.classSpecifier)
+        .build());
+    }
 
     /* Metrics */
-    builder.withSquidAstVisitor(new LinesVisitor<>(CxxMetric.LINES));
-    builder.withSquidAstVisitor(new CxxLinesOfCodeVisitor<>());
-    builder.withSquidAstVisitor(new CxxLinesOfCodeInFunctionBodyVisitor<>());
-    builder.withSquidAstVisitor(new CxxPublicApiVisitor<>(squidConfig));
+    if (metrics) {
+      builder.withSquidAstVisitor(new LinesVisitor<>(CxxMetric.LINES));
+    }
+    if (baseMetrics) {
+      builder.withSquidAstVisitor(new CxxLinesOfCodeVisitor<>());
+      builder.withSquidAstVisitor(new CxxLinesOfCodeInFunctionBodyVisitor<>());
+    }
+    if (requirements.contains(Requirement.PUBLIC_API)) {
+      builder.withSquidAstVisitor(new CxxPublicApiVisitor<>(squidConfig));
+    }
+    // NOSONAR comments are needed to filter the issues of the checks
     builder.withSquidAstVisitor(CommentsVisitor.<Grammar>builder().withCommentMetric(CxxMetric.COMMENT_LINES)
       .withNoSonar(true)
       .withIgnoreHeaderComment(false)
@@ -195,34 +260,46 @@ public final class CxxAstScanner {
     );
 
     /* Statements */
-    builder.withSquidAstVisitor(CounterVisitor.<Grammar>builder()
-      .setMetricDef(CxxMetric.STATEMENTS)
-      .subscribeTo(CxxGrammarImpl.statement)
-      .build());
+    if (metrics) {
+      builder.withSquidAstVisitor(CounterVisitor.<Grammar>builder()
+        .setMetricDef(CxxMetric.STATEMENTS)
+        .subscribeTo(CxxGrammarImpl.statement)
+        .build());
+    }
 
-    builder.withSquidAstVisitor(new CxxCyclomaticComplexityVisitor<>(ComplexityVisitor.<Grammar>builder()
-      .setMetricDef(CxxMetric.COMPLEXITY)
-      .subscribeTo(CxxComplexityConstants.getCyclomaticComplexityTypes())
-      .build()));
+    if (baseMetrics) {
+      builder.withSquidAstVisitor(new CxxCyclomaticComplexityVisitor<>(ComplexityVisitor.<Grammar>builder()
+        .setMetricDef(CxxMetric.COMPLEXITY)
+        .subscribeTo(CxxComplexityConstants.getCyclomaticComplexityTypes())
+        .build()));
+    }
 
-    builder.withSquidAstVisitor(new CxxCognitiveComplexityVisitor<>());
-    builder.withSquidAstVisitor(new CxxFunctionComplexityVisitor<>(squidConfig));
-    builder.withSquidAstVisitor(new CxxFunctionSizeVisitor<>(squidConfig));
+    if (metrics) {
+      builder.withSquidAstVisitor(new CxxCognitiveComplexityVisitor<>());
+      builder.withSquidAstVisitor(new CxxFunctionComplexityVisitor<>(squidConfig));
+      builder.withSquidAstVisitor(new CxxFunctionSizeVisitor<>(squidConfig));
+    }
 
     // to emit a 'new file' event to the internals of the plugin
-    builder.withSquidAstVisitor(new CxxFileVisitor<>());
+    builder.withSquidAstVisitor(new CxxFileVisitor<>(preprocessor));
 
     // log syntax errors
     builder.withSquidAstVisitor(new CxxParseErrorLoggerVisitor<>());
 
     /* Highlighter */
-    builder.withSquidAstVisitor(new CxxHighlighterVisitor());
+    if (requirements.contains(Requirement.HIGHLIGHTING)) {
+      builder.withSquidAstVisitor(new CxxHighlighterVisitor());
+    }
 
     /* CPD */
-    builder.withSquidAstVisitor(new CxxCpdVisitor(squidConfig));
+    if (requirements.contains(Requirement.CPD)) {
+      builder.withSquidAstVisitor(new CxxCpdVisitor(squidConfig));
+    }
 
     /* NCLOC & EXECUTABLE_LINES */
-    builder.withSquidAstVisitor(new CxxFileLinesVisitor());
+    if (requirements.contains(Requirement.FILE_LINES)) {
+      builder.withSquidAstVisitor(new CxxFileLinesVisitor());
+    }
 
     /* External visitors (typically Check ones) */
     for (var visitor : visitors) {
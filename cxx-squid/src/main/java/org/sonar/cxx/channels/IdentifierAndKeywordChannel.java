@@ -0,0 +1,97 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.channels;
+
+import static com.sonar.sslr.api.GenericTokenType.IDENTIFIER;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
+import com.sonar.sslr.impl.Lexer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.sonar.sslr.channel.Channel;
+import org.sonar.sslr.channel.CodeReader;
+
+/**
+ * Case sensitive version of the SSLR IdentifierAndKeywordChannel sharing the token values.
+ *
+ * Keywords use the value of the keyword type. Identifiers are interned: tokens of the same identifier (e.g. types or
+ * variables used all over a file) share one string instead of creating a new one for each token. The number of
+ * cached identifiers is limited, the cache is cleared if the limit is reached.
+ */
+public class IdentifierAndKeywordChannel extends Channel<Lexer> {
+
+  private static final int MAX_CACHED_IDENTIFIERS = 100_000;
+
+  private final Map<String, TokenType> keywordsMap = new HashMap<>();
+  private final Map<String, String> identifiers = new HashMap<>();
+  private final StringBuilder tmpBuilder = new StringBuilder(256);
+  private final Matcher matcher;
+  private final Token.Builder tokenBuilder = Token.builder();
+
+  public IdentifierAndKeywordChannel(String regexp, TokenType[]... keywordSets) {
+    for (var keywords : keywordSets) {
+      for (var keyword : keywords) {
+        keywordsMap.put(keyword.getValue(), keyword);
+      }
+    }
+    matcher = Pattern.compile(regexp).matcher("");
+  }
+
+  @Override
+  public boolean consume(CodeReader code, Lexer lexer) {
+    if (code.popTo(matcher, tmpBuilder) > 0) {
+      var word = tmpBuilder.toString();
+      tmpBuilder.delete(0, tmpBuilder.length());
+
+      TokenType type = keywordsMap.get(word);
+      String value;
+      if (type != null) {
+        value = type.getValue();
+      } else {
+        type = IDENTIFIER;
+        value = intern(word);
+      }
+
+      lexer.addToken(tokenBuilder
+        .setType(type)
+        .setValueAndOriginalValue(value)
+        .setURI(lexer.getURI())
+        .setLine(code.getPreviousCursor().getLine())
+        .setColumn(code.getPreviousCursor().getColumn())
+        .build());
+      return true;
+    }
+    return false;
+  }
+
+  private String intern(String word) {
+    var value = identifiers.putIfAbsent(word, word);
+    if (value != null) {
+      return value;
+    }
+    if (identifiers.size() > MAX_CACHED_IDENTIFIERS) {
+      identifiers.clear();
+    }
+    return word;
+  }
+
+}
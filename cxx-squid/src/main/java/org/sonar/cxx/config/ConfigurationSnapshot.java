@@ -0,0 +1,276 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.config;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import org.jdom2.Element;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Binary snapshot of the build configuration read from JSON Compilation Database and MsBuild logs.
+ *
+ * The snapshot contains a string table followed by the levels, the shared profiles and the files. Levels, profiles
+ * and files only contain indices into the string table, files reference their profile by index. PredefinedMacros and
+ * SonarProjectProperties are not part of the snapshot, they are set from the project properties on each run.
+ *
+ * The snapshot is only valid for the same sources: the fingerprint is a SHA-256 hash over path, size and modification
+ * time of the sources (hashing the content of large build logs would take nearly as long as parsing them), base
+ * directory and encoding. A snapshot with a different fingerprint is ignored.
+ */
+final class ConfigurationSnapshot {
+
+  private static final Logger LOG = Loggers.get(ConfigurationSnapshot.class);
+
+  private static final int MAGIC = 0x43585843; // "CXXC"
+  private static final int VERSION = 1;
+  private static final int FINGERPRINT_LENGTH = 32;
+  private static final int HEADER_LENGTH = 8 + FINGERPRINT_LENGTH;
+
+  private ConfigurationSnapshot() {
+  }
+
+  /**
+   * Fingerprint of the sources of a configuration.
+   *
+   * @param sources JSON Compilation Database and MsBuild log files
+   * @param baseDir base directory of the project
+   * @param charsetName encoding of the MsBuild log files
+   * @return SHA-256 hash
+   */
+  static byte[] fingerprint(List<File> sources, String baseDir, String charsetName) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      var text = new StringBuilder(256);
+      text.append(VERSION).append('\n').append(baseDir).append('\n').append(charsetName).append('\n');
+      for (var source : sources) {
+        text.append(source.getAbsolutePath()).append('|').append(source.length()).append('|')
+          .append(source.lastModified()).append('\n');
+      }
+      return digest.digest(text.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Write the build configuration to a snapshot file.
+   *
+   * @param config configuration to write
+   * @param fingerprint fingerprint of the sources of the configuration
+   * @param snapshot file to write
+   * @throws IOException if the file cannot be written
+   */
+  static void write(CxxSquidConfiguration config, byte[] fingerprint, Path snapshot) throws IOException {
+    var strings = new LinkedHashMap<String, Integer>();
+    var levels = new ArrayList<Element>();
+    List<Element> files = new ArrayList<>();
+    for (var eLevel : config.getRootElement().getChildren()) {
+      switch (eLevel.getName()) {
+        case CxxSquidConfiguration.PREDEFINED_MACROS:
+        case CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES:
+        case CxxSquidConfiguration.PROFILES:
+          break;
+        case CxxSquidConfiguration.FILES:
+          files = eLevel.getChildren();
+          break;
+        default:
+          levels.add(eLevel);
+      }
+    }
+
+    // string table
+    for (var eLevel : levels) {
+      addStrings(eLevel.getName(), eLevel, strings);
+    }
+    for (var eProfile : config.getProfiles()) {
+      addStrings(null, eProfile, strings);
+    }
+    for (var eFile : files) {
+      addStrings(eFile.getAttributeValue("path"), eFile, strings);
+    }
+
+    Path parent = snapshot.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+    try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.write(fingerprint);
+      out.writeInt(strings.size());
+      for (var string : strings.keySet()) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+      out.writeInt(levels.size());
+      for (var eLevel : levels) {
+        out.writeInt(strings.get(eLevel.getName()));
+        writeProperties(eLevel, strings, out);
+      }
+      out.writeInt(config.getProfiles().size());
+      for (var eProfile : config.getProfiles()) {
+        writeProperties(eProfile, strings, out);
+      }
+      out.writeInt(files.size());
+      for (var eFile : files) {
+        out.writeInt(strings.get(eFile.getAttributeValue("path")));
+        String profile = eFile.getAttributeValue("profile");
+        out.writeInt(profile != null ? Integer.parseInt(profile) - 1 : -1);
+        writeProperties(eFile, strings, out);
+      }
+    }
+    Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Read a snapshot file into a configuration.
+   *
+   * @param snapshot file to read, the file is memory mapped
+   * @param fingerprint expected fingerprint of the sources
+   * @param config empty configuration to fill
+   * @return true if the snapshot was read, false if it does not exist, is outdated or invalid
+   */
+  static boolean read(Path snapshot, byte[] fingerprint, CxxSquidConfiguration config) {
+    if (!Files.isRegularFile(snapshot)) {
+      return false;
+    }
+    try (var channel = FileChannel.open(snapshot)) {
+      // check the header before mapping the file: an outdated snapshot is overwritten afterwards
+      ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // read until the header is complete or end of file
+      }
+      header.flip();
+      if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+        LOG.info("Configuration snapshot '{}' has an unknown format, reading the configuration", snapshot);
+        return false;
+      }
+      var stored = new byte[FINGERPRINT_LENGTH];
+      header.get(stored);
+      if (!Arrays.equals(stored, fingerprint)) {
+        LOG.info("Configuration snapshot '{}' is outdated, reading the configuration", snapshot);
+        return false;
+      }
+
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH, channel.size() - HEADER_LENGTH);
+
+      var strings = new String[readCount(buffer, 4)];
+      for (var i = 0; i < strings.length; i++) {
+        var bytes = new byte[readCount(buffer, 1)];
+        buffer.get(bytes);
+        strings[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+      var levels = readCount(buffer, 8);
+      for (var i = 0; i < levels; i++) {
+        config.addLevel(strings[buffer.getInt()], readProperties(buffer, strings));
+      }
+      var profiles = new ArrayList<Map<String, List<String>>>();
+      for (int i = readCount(buffer, 4); i > 0; i--) {
+        profiles.add(readProperties(buffer, strings));
+      }
+      for (int i = readCount(buffer, 12); i > 0; i--) {
+        String path = strings[buffer.getInt()];
+        int profile = buffer.getInt();
+        config.addFile(path, profile >= 0 ? profiles.get(profile) : null, readProperties(buffer, strings));
+      }
+      return true;
+    } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      LOG.warn("Cannot read configuration snapshot '{}', reading the configuration: {}", snapshot, e.getMessage());
+      return false;
+    }
+  }
+
+  private static void addStrings(@CheckForNull String name, Element element, Map<String, Integer> strings) {
+    if (name != null) {
+      strings.putIfAbsent(name, strings.size());
+    }
+    for (var eKey : element.getChildren()) {
+      strings.putIfAbsent(eKey.getName(), strings.size());
+      for (var eValue : eKey.getChildren("Value")) {
+        strings.putIfAbsent(eValue.getText(), strings.size());
+      }
+    }
+  }
+
+  private static void writeProperties(Element element, Map<String, Integer> strings, DataOutputStream out)
+    throws IOException {
+    var eKeys = element.getChildren();
+    out.writeInt(eKeys.size());
+    for (var eKey : eKeys) {
+      out.writeInt(strings.get(eKey.getName()));
+      var eValues = eKey.getChildren("Value");
+      out.writeInt(eValues.size());
+      for (var eValue : eValues) {
+        out.writeInt(strings.get(eValue.getText()));
+      }
+    }
+  }
+
+  private static Map<String, List<String>> readProperties(ByteBuffer buffer, String[] strings) {
+    var properties = new LinkedHashMap<String, List<String>>();
+    for (int keys = readCount(buffer, 8); keys > 0; keys--) {
+      String key = strings[buffer.getInt()];
+      int count = readCount(buffer, 4);
+      var values = properties.computeIfAbsent(key, k -> new ArrayList<>(count));
+      for (var i = 0; i < count; i++) {
+        values.add(strings[buffer.getInt()]);
+      }
+    }
+    return properties;
+  }
+
+  /**
+   * Read a count or length and check it against the remaining bytes, to not allocate memory for a corrupted value.
+   *
+   * @param buffer buffer to read from
+   * @param minBytes minimal number of bytes of each counted element
+   * @return count
+   * @throws IllegalArgumentException if the count is negative or the elements do not fit into the remaining bytes
+   */
+  private static int readCount(ByteBuffer buffer, int minBytes) {
+    int count = buffer.getInt();
+    if (count < 0 || count > buffer.remaining() / minBytes) {
+      throw new IllegalArgumentException("Invalid count " + count + " at position " + (buffer.position() - 4));
+    }
+    return count;
+  }
+
+}
@@ -26,20 +26,25 @@ import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.jdom2.Attribute;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.Verifier;
-import org.jdom2.filter.Filters;
 import org.jdom2.output.Format;
 import org.jdom2.output.XMLOutputter;
-import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.XPathFactory;
 import org.sonar.api.utils.PathUtils;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
@@ -65,6 +70,10 @@ import org.sonar.cxx.squidbridge.api.SquidConfiguration;
  * With {@code get} and {@code getValues} the information is read out again afterwards. {@code get} returns the first
  * found value for key, whereby the search starts on level. {@code getValues} collects all found values over all levels.
  * It starts with the given level and further found values are added to the end of the list.
+ *
+ * Files with identical properties (e.g. all files of a project compiled with the same compiler options) can share a
+ * profile, see {@code addProfile}. A profile is stored only once below the Profiles element and is referenced by the
+ * files. The values of the profile are returned before the values stored on the file itself.
  */
 public class CxxSquidConfiguration extends SquidConfiguration {
 
@@ -73,6 +82,7 @@ public class CxxSquidConfiguration extends SquidConfiguration {
   public static final String SONAR_PROJECT_PROPERTIES = "SonarProjectProperties";
   public static final String GLOBAL = "Global";
   public static final String FILES = "Files";
+  public static final String PROFILES = "Profiles";
 
   // SonarProjectProperties
   public static final String ERROR_RECOVERY_ENABLED = "ErrorRecoveryEnabled";
@@ -82,6 +92,10 @@ public class CxxSquidConfiguration extends SquidConfiguration {
   public static final String FUNCTION_SIZE_THRESHOLD = "FunctionSizeThreshold";
   public static final String API_FILE_SUFFIXES = "ApiFileSuffixes";
   public static final String JSON_COMPILATION_DATABASE = "JsonCompilationDatabase";
+  public static final String SCAN_STATISTICS_REPORT = "ScanStatisticsReport";
+  public static final String PARSE_TIMEOUT = "ParseTimeout";
+  public static final String PARSE_TOKEN_LIMIT = "ParseTokenLimit";
+  public static final String MACRO_EXPANSION_DEPTH_LIMIT = "MacroExpansionDepthLimit";
 
   // Global/File Properties
   public static final String DEFINES = "Defines";
@@ -90,9 +104,15 @@ public class CxxSquidConfiguration extends SquidConfiguration {
 
   private static final Logger LOG = Loggers.get(CxxSquidConfiguration.class);
 
-  private XPathFactory xFactory = XPathFactory.instance();
+  // minimum number of command objects of a JSON Compilation Database read by one thread
+  private static final int JSON_CHUNK_SIZE = 1000;
+
   private LinkedList<Element> parentList = new LinkedList<>();
   private Document document;
+  private final Map<String, Element> fileIndex = new HashMap<>();
+  private final Map<Map<String, List<String>>, Element> profileIndex = new HashMap<>();
+  private final List<Element> profileList = new ArrayList<>();
+  private Element profiles;
 
   private String baseDir = "";
 
@@ -133,6 +153,10 @@ public class CxxSquidConfiguration extends SquidConfiguration {
     element = new Element(FILES);
     root.addContent(element);
     parentList.addFirst(element);
+
+    // shared profiles are not part of the hierarchy, they are referenced by the files
+    profiles = new Element(PROFILES);
+    root.addContent(profiles);
   }
 
   /**
@@ -207,6 +231,43 @@ public class CxxSquidConfiguration extends SquidConfiguration {
     }
   }
 
+  /**
+   * Add the properties of a file as shared profile to the database.
+   *
+   * Identical sets of properties are stored only once as profile and the file references the profile. If the file
+   * already contains properties, the values are added to the file instead (same as {@code add(String, String, List)}
+   * for each key) to keep the order of the values.
+   *
+   * @param level path of the file
+   * @param properties keys and values of the file, empty values are ignored
+   */
+  public void addProfile(String level, Map<String, List<String>> properties) {
+    var filtered = new LinkedHashMap<String, List<String>>();
+    for (var property : properties.entrySet()) {
+      var values = new ArrayList<String>(property.getValue().size());
+      for (var value : property.getValue()) {
+        if (value != null && !value.isEmpty()) {
+          values.add(value);
+        }
+      }
+      if (!values.isEmpty()) {
+        filtered.put(property.getKey(), values);
+      }
+    }
+    if (!filtered.isEmpty()) {
+      setProfile(getFile(unifyPath(level)), filtered);
+    }
+  }
+
+  /**
+   * Number of shared profiles in the database.
+   *
+   * @return number of profiles
+   */
+  public int getProfileCount() {
+    return profileList.size();
+  }
+
   /**
    * Searches for the property with the specified key.
    *
@@ -223,7 +284,10 @@ public class CxxSquidConfiguration extends SquidConfiguration {
     Element eLevel = findLevel(level, parentList.getFirst());
     do {
       if (eLevel != null) {
-        Element eKey = eLevel.getChild(key);
+        Element eKey = getProfileKey(eLevel, key);
+        if (eKey == null) {
+          eKey = eLevel.getChild(key);
+        }
         if (eKey != null) {
           return Optional.of(eKey.getChildText("Value"));
         }
@@ -246,12 +310,7 @@ public class CxxSquidConfiguration extends SquidConfiguration {
     List<String> result = new ArrayList<>();
     Element eLevel = findLevel(level, null);
     if (eLevel != null) {
-      Element eKey = eLevel.getChild(key);
-      if (eKey != null) {
-        for (var value : eKey.getChildren("Value")) {
-          result.add(value.getText());
-        }
-      }
+      collectValues(eLevel, key, result);
     }
 
     return result;
@@ -272,12 +331,7 @@ public class CxxSquidConfiguration extends SquidConfiguration {
     Element eLevel = findLevel(level, parentList.getFirst());
     do {
       if (eLevel != null) {
-        Element eKey = eLevel.getChild(key);
-        if (eKey != null) {
-          for (var value : eKey.getChildren("Value")) {
-            result.add(value.getText());
-          }
-        }
+        collectValues(eLevel, key, result);
       }
       eLevel = getParentElement(eLevel);
     } while (eLevel != null);
@@ -299,12 +353,7 @@ public class CxxSquidConfiguration extends SquidConfiguration {
     Element eLevel = findLevel(level, parentList.getFirst());
     if (eLevel != null) {
       for (var child : eLevel.getChildren()) {
-        Element eKey = child.getChild(key);
-        if (eKey != null) {
-          for (var value : eKey.getChildren("Value")) {
-            result.add(value.getText());
-          }
-        }
+        collectValues(child, key, result);
       }
     }
     // add content of shared parents only once at the end
@@ -416,30 +465,220 @@ public class CxxSquidConfiguration extends SquidConfiguration {
     return baseDir;
   }
 
+  /**
+   * Read the JSON Compilation Database (if configured) and the MsBuild logs.
+   *
+   * The sources are read concurrently into partial configurations, which are merged afterwards in the order JSON
+   * Compilation Database, MsBuild logs. The resulting order of the values is the same as reading them one after the
+   * other.
+   *
+   * @param logFiles MsBuild log files
+   * @param charsetName encoding of the MsBuild log files
+   */
+  public void readConfiguration(List<File> logFiles, String charsetName) {
+    var loaders = new ArrayList<Consumer<CxxSquidConfiguration>>();
+    addJsonCompilationDbLoaders(loaders);
+    addMsBuildLoaders(logFiles, charsetName, loaders);
+    load(loaders);
+  }
+
+  /**
+   * Read the JSON Compilation Database (if configured) and the MsBuild logs, using a binary snapshot.
+   *
+   * If the snapshot exists and was written for the same sources (same files with same size and modification time), the
+   * configuration is read from the snapshot. Otherwise it is read from the sources and the snapshot is written.
+   *
+   * @param logFiles MsBuild log files
+   * @param charsetName encoding of the MsBuild log files
+   * @param snapshot file of the snapshot, without snapshot if null
+   */
+  public void readConfiguration(List<File> logFiles, String charsetName, @Nullable File snapshot) {
+    if (snapshot == null) {
+      readConfiguration(logFiles, charsetName);
+      return;
+    }
+
+    var sources = new ArrayList<File>();
+    get(SONAR_PROJECT_PROPERTIES, JSON_COMPILATION_DATABASE).ifPresent(jsonDb -> sources.add(new File(jsonDb)));
+    sources.addAll(logFiles);
+    byte[] fingerprint = ConfigurationSnapshot.fingerprint(sources, baseDir, charsetName);
+
+    var loaded = createPartial();
+    if (ConfigurationSnapshot.read(snapshot.toPath(), fingerprint, loaded)) {
+      LOG.info("Configuration read from snapshot '{}'", snapshot);
+    } else {
+      loaded = createPartial();
+      loaded.readConfiguration(logFiles, charsetName);
+      try {
+        ConfigurationSnapshot.write(loaded, fingerprint, snapshot.toPath());
+        LOG.info("Configuration snapshot written to '{}'", snapshot);
+      } catch (IOException e) {
+        LOG.warn("Cannot write configuration snapshot '{}': {}", snapshot, e.getMessage());
+      }
+    }
+    merge(loaded);
+  }
+
   public void readMsBuildFiles(List<File> logFiles, String charsetName) {
-    MsBuild msBuild = msBuild = new MsBuild(this);
+    var loaders = new ArrayList<Consumer<CxxSquidConfiguration>>();
+    addMsBuildLoaders(logFiles, charsetName, loaders);
+    load(loaders);
+  }
+
+  public void readJsonCompilationDb() {
+    var loaders = new ArrayList<Consumer<CxxSquidConfiguration>>();
+    addJsonCompilationDbLoaders(loaders);
+    load(loaders);
+  }
+
+  /**
+   * Add the content of a partial configuration to the end of this configuration.
+   *
+   * Values of the hierarchy levels (except PredefinedMacros and SonarProjectProperties, which are copied into the
+   * partial configurations) and of the files are appended to the existing values, shared profiles stay shared.
+   *
+   * @param partial configuration to merge
+   */
+  void merge(CxxSquidConfiguration partial) {
+    for (var eLevel : partial.document.getRootElement().getChildren()) {
+      switch (eLevel.getName()) {
+        case PREDEFINED_MACROS:
+        case SONAR_PROJECT_PROPERTIES:
+        case PROFILES:
+          break;
+        case FILES:
+          for (var eFile : eLevel.getChildren()) {
+            String id = eFile.getAttributeValue("profile");
+            addFile(eFile.getAttributeValue("path"),
+                    id != null ? getProperties(partial.profileList.get(Integer.parseInt(id) - 1)) : null,
+                    getProperties(eFile));
+          }
+          break;
+        default:
+          addLevel(eLevel.getName(), getProperties(eLevel));
+      }
+    }
+  }
+
+  Element getRootElement() {
+    return document.getRootElement();
+  }
+
+  List<Element> getProfiles() {
+    return profileList;
+  }
+
+  /**
+   * Add the properties of a level.
+   *
+   * @param level identifier of the level
+   * @param properties keys and values
+   */
+  void addLevel(String level, Map<String, List<String>> properties) {
+    Element target = getLevel(level);
+    properties.forEach((key, values) -> addValues(target, key, values));
+  }
+
+  /**
+   * Add the properties of a file.
+   *
+   * @param path unified path of the file
+   * @param profile properties of the shared profile of the file or null
+   * @param properties own keys and values of the file
+   */
+  void addFile(String path, @Nullable Map<String, List<String>> profile, Map<String, List<String>> properties) {
+    Element target = getFile(path);
+    if (profile != null) {
+      setProfile(target, profile);
+    }
+    properties.forEach((key, values) -> addValues(target, key, values));
+  }
+
+  /**
+   * Create an empty configuration for a loader, with a copy of the predefined macros and project properties.
+   */
+  private CxxSquidConfiguration createPartial() {
+    var partial = new CxxSquidConfiguration(baseDir, getCharset());
+    for (var level : new String[]{PREDEFINED_MACROS, SONAR_PROJECT_PROPERTIES}) {
+      Element source = document.getRootElement().getChild(level);
+      Element target = partial.document.getRootElement().getChild(level);
+      getProperties(source).forEach((key, values) -> addValues(target, key, values));
+    }
+    return partial;
+  }
+
+  private void addMsBuildLoaders(List<File> logFiles, String charsetName,
+                                 List<Consumer<CxxSquidConfiguration>> loaders) {
     for (var logFile : logFiles) {
       if (logFile.exists()) {
-        msBuild.parse(logFile, baseDir, charsetName);
+        loaders.add(config -> new MsBuild(config).parse(logFile, baseDir, charsetName));
       } else {
         LOG.error("MsBuild log file not found: '{}'", logFile.getAbsolutePath());
       }
     }
   }
 
-  public void readJsonCompilationDb() {
+  private void addJsonCompilationDbLoaders(List<Consumer<CxxSquidConfiguration>> loaders) {
     var jsonDbFile = get(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
-                     CxxSquidConfiguration.JSON_COMPILATION_DATABASE);
+                         CxxSquidConfiguration.JSON_COMPILATION_DATABASE);
     if (jsonDbFile.isPresent()) {
       try {
-        var jsonDb = new JsonCompilationDatabase(this);
-        jsonDb.parse(new File(jsonDbFile.get()));
+        var commandObjects = JsonCompilationDatabase.read(new File(jsonDbFile.get()));
+        int chunkSize = Math.max(JSON_CHUNK_SIZE, (commandObjects.length + getThreads() - 1) / getThreads());
+        for (var from = 0; from < commandObjects.length; from += chunkSize) {
+          var chunk = Arrays.asList(commandObjects).subList(from, Math.min(from + chunkSize, commandObjects.length));
+          loaders.add(config -> new JsonCompilationDatabase(config).parse(chunk));
+        }
       } catch (IOException e) {
         LOG.error("Cannot access Json DB File: " + e.getMessage());
       }
     }
   }
 
+  /**
+   * Execute the loaders concurrently, each one into its own partial configuration, and merge the results in the order
+   * of the loaders. A single loader is executed directly on this configuration.
+   */
+  private void load(List<Consumer<CxxSquidConfiguration>> loaders) {
+    if (loaders.size() <= 1) {
+      loaders.forEach(loader -> loader.accept(this));
+      return;
+    }
+
+    var partials = new ArrayList<Future<CxxSquidConfiguration>>(loaders.size());
+    var executor = Executors.newFixedThreadPool(Math.min(loaders.size(), getThreads()), runnable -> {
+      var thread = new Thread(runnable, "cxx-configuration");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      for (var loader : loaders) {
+        var partial = createPartial();
+        partials.add(executor.submit(() -> {
+          loader.accept(partial);
+          return partial;
+        }));
+      }
+      for (var partial : partials) {
+        merge(partial.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Reading the configuration was interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Cannot read the configuration", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static int getThreads() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
   /**
    * Create uniform notation of path names.
    *
@@ -494,43 +733,158 @@ public class CxxSquidConfiguration extends SquidConfiguration {
    */
   @CheckForNull
   private Element findLevel(String level, @Nullable Element defaultElement) {
-    String xpath;
+    Element element;
     if (Verifier.checkElementName(level) == null) {
-      xpath = "/CompilationDatabase/" + level;
+      element = document.getRootElement().getChild(level);
     } else {
-      // handle special case 'FILES empty' no need to search in tree
-      if (parentList.getFirst().getContentSize() == 0) {
-        return defaultElement;
-      }
-      xpath = "//Files/File[@path='" + unifyPath(level) + "']";
-    }
-    XPathExpression<Element> expr = xFactory.compile(xpath, Filters.element());
-    List<Element> elements = expr.evaluate(document);
-    if (!elements.isEmpty()) {
-      return elements.get(0);
+      element = fileIndex.get(unifyPath(level));
     }
-    return defaultElement;
+    return element != null ? element : defaultElement;
   }
 
   /**
-   * Add or reuse an key Element.
+   * Add or reuse a level Element.
    *
-   * @param level for key
-   * @param key identifier of key
-   * @return existing or new Element for key
+   * @param level identifier or path of the level
+   * @return existing or new Element for level
    */
-  private Element getKey(String level, String key) {
+  private Element getLevel(String level) {
     Element eLevel = findLevel(level, null);
     if (eLevel == null) {
       if (Verifier.checkElementName(level) == null) {
         eLevel = new Element(level);
         document.getRootElement().addContent(eLevel);
       } else {
-        eLevel = new Element("File");
-        eLevel.setAttribute(new Attribute("path", unifyPath(level)));
-        parentList.getFirst().addContent(eLevel);
+        eLevel = getFile(unifyPath(level));
       }
     }
+    return eLevel;
+  }
+
+  /**
+   * Add or reuse a File element.
+   *
+   * @param path unified path of the file
+   * @return existing or new File element
+   */
+  private Element getFile(String path) {
+    Element eFile = fileIndex.get(path);
+    if (eFile == null) {
+      eFile = new Element("File");
+      eFile.setAttribute(new Attribute("path", path));
+      parentList.getFirst().addContent(eFile);
+      fileIndex.put(path, eFile);
+    }
+    return eFile;
+  }
+
+  /**
+   * Reference a shared profile from a file or add the values to the file if it has already content.
+   *
+   * @param eFile File element
+   * @param properties keys and non empty values
+   */
+  private void setProfile(Element eFile, Map<String, List<String>> properties) {
+    if (eFile.getContentSize() != 0 || eFile.getAttribute("profile") != null) {
+      properties.forEach((key, values) -> addValues(eFile, key, values));
+      return;
+    }
+    Element eProfile = profileIndex.get(properties);
+    if (eProfile == null) {
+      eProfile = new Element("Profile");
+      eProfile.setAttribute(new Attribute("id", Integer.toString(profileList.size() + 1)));
+      for (var property : properties.entrySet()) {
+        addValues(eProfile, property.getKey(), property.getValue());
+      }
+      profiles.addContent(eProfile);
+      profileList.add(eProfile);
+      profileIndex.put(properties, eProfile);
+    }
+    eFile.setAttribute(new Attribute("profile", eProfile.getAttributeValue("id")));
+  }
+
+  /**
+   * Add values to a key of a level.
+   *
+   * @param level Element to add the key
+   * @param key identifier of key
+   * @param values to add
+   */
+  private static void addValues(Element level, String key, List<String> values) {
+    Element eKey = level.getChild(key);
+    if (eKey == null) {
+      eKey = new Element(key);
+      level.addContent(eKey);
+    }
+    for (var value : values) {
+      setValue(eKey, value);
+    }
+  }
+
+  /**
+   * Values of all keys of an Element.
+   *
+   * @param level Element to read
+   * @return keys and values in document order
+   */
+  private static Map<String, List<String>> getProperties(Element level) {
+    var properties = new LinkedHashMap<String, List<String>>();
+    for (var eKey : level.getChildren()) {
+      var values = properties.computeIfAbsent(eKey.getName(), k -> new ArrayList<>());
+      for (var value : eKey.getChildren("Value")) {
+        values.add(value.getText());
+      }
+    }
+    return properties;
+  }
+
+  /**
+   * Key Element of the profile referenced by a level.
+   *
+   * @param level Element which can reference a profile
+   * @param key identifier of key
+   * @return key Element of the profile or null if there is none
+   */
+  @CheckForNull
+  private Element getProfileKey(Element level, String key) {
+    String id = level.getAttributeValue("profile");
+    if (id != null) {
+      return profileList.get(Integer.parseInt(id) - 1).getChild(key);
+    }
+    return null;
+  }
+
+  /**
+   * Add the values of a key on one level: first the values of the referenced profile, then the own values.
+   *
+   * @param level Element to read
+   * @param key identifier of key
+   * @param result list to add the values
+   */
+  private void collectValues(Element level, String key, List<String> result) {
+    Element eProfileKey = getProfileKey(level, key);
+    if (eProfileKey != null) {
+      for (var value : eProfileKey.getChildren("Value")) {
+        result.add(value.getText());
+      }
+    }
+    Element eKey = level.getChild(key);
+    if (eKey != null) {
+      for (var value : eKey.getChildren("Value")) {
+        result.add(value.getText());
+      }
+    }
+  }
+
+  /**
+   * Add or reuse an key Element.
+   *
+   * @param level for key
+   * @param key identifier of key
+   * @return existing or new Element for key
+   */
+  private Element getKey(String level, String key) {
+    Element eLevel = getLevel(level);
     Element eKey = eLevel.getChild(key);
     if (eKey == null) {
       eKey = new Element(key);
@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -115,6 +116,28 @@ public class JsonCompilationDatabase {
    * @throws IOException
    */
   public void parse(File compileCommandsFile) throws IOException {
+    parse(Arrays.asList(read(compileCommandsFile)));
+  }
+
+  /**
+   * Set up the given CxxSquidConfiguration from command objects of a JSON compilation database
+   *
+   * @param commandObjects command objects in the order of the database
+   */
+  public void parse(List<JsonCompilationDatabaseCommandObject> commandObjects) {
+    for (var commandObject : commandObjects) {
+      parseCommandObject(commandObject);
+    }
+  }
+
+  /**
+   * Read the command objects of a JSON compilation database
+   *
+   * @param compileCommandsFile
+   * @return command objects in the order of the database
+   * @throws IOException
+   */
+  static JsonCompilationDatabaseCommandObject[] read(File compileCommandsFile) throws IOException {
 
     LOG.debug("Parsing 'JSON Compilation Database' format");
 
@@ -123,13 +146,7 @@ public class JsonCompilationDatabase {
     mapper.enable(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY);
     mapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
 
-    JsonCompilationDatabaseCommandObject[] commandObjects
-                                             = mapper.readValue(compileCommandsFile,
-                                                                JsonCompilationDatabaseCommandObject[].class);
-
-    for (var commandObject : commandObjects) {
-      parseCommandObject(commandObject);
-    }
+    return mapper.readValue(compileCommandsFile, JsonCompilationDatabaseCommandObject[].class);
   }
 
   private void parseCommandObject(JsonCompilationDatabaseCommandObject commandObject) {
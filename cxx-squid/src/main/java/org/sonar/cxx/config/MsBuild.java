@@ -28,8 +28,12 @@ import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 
@@ -72,6 +76,7 @@ public class MsBuild {
   private String platform = "Win32";
 
   private final CxxSquidConfiguration squidConfig;
+  private final Map<String, String> includeCache = new HashMap<>();
 
   /**
    * CxxVCppBuildLogParser (ctor)
@@ -242,15 +247,17 @@ public class MsBuild {
   }
 
   private void parseVCppCompilerCLLine(String line, String projectPath, String fileElement) {
+    var includes = new ArrayList<String>();
+    var defines = new ArrayList<String>();
     for (var includePattern : INCLUDE_PATTERNS) {
       for (var includeElem : getMatches(includePattern, line)) {
-        parseInclude(includeElem, projectPath, fileElement);
+        parseInclude(includeElem, projectPath, includes);
       }
     }
 
     for (var definePattern : DEFINE_PATTERNS) {
       for (var macroElem : getMatches(definePattern, line)) {
-        addMacro(macroElem, fileElement);
+        addMacro(macroElem, defines);
       }
     }
 
@@ -258,33 +265,53 @@ public class MsBuild {
     // https://msdn.microsoft.com/en-us/library/vstudio/b0084kay(v=vs.110).aspx
     // https://msdn.microsoft.com/en-us/library/vstudio/b0084kay(v=vs.120).aspx
     // https://msdn.microsoft.com/en-us/library/vstudio/b0084kay(v=vs.140).aspx
-    parseCommonCompilerOptions(line, fileElement);
+    parseCommonCompilerOptions(line, defines, fileElement);
 
     switch (platformToolset) {
       case "V100":
-        parseV100CompilerOptions(line, fileElement);
+        parseV100CompilerOptions(line, defines);
         break;
       case "V110":
-        parseV110CompilerOptions(line, fileElement);
+        parseV110CompilerOptions(line, defines);
         break;
       case "V120":
-        parseV120CompilerOptions(line, fileElement);
+        parseV120CompilerOptions(line, defines);
         break;
       case "V140":
-        parseV140CompilerOptions(line, fileElement);
+        parseV140CompilerOptions(line, defines);
         break;
       case "V141":
-        parseV141CompilerOptions(line, fileElement);
+        parseV141CompilerOptions(line, defines);
         break;
       case "V142":
-        parseV142CompilerOptions(line, fileElement);
+        parseV142CompilerOptions(line, defines);
         break;
       default:
       // do nothing
     }
+
+    // files with identical options share one profile
+    var properties = new LinkedHashMap<String, List<String>>();
+    properties.put(CxxSquidConfiguration.INCLUDE_DIRECTORIES, includes);
+    properties.put(CxxSquidConfiguration.DEFINES, defines);
+    squidConfig.addProfile(fileElement, properties);
+  }
+
+  private void parseInclude(String element, String project, List<String> includes) {
+    String key = project + '\n' + element;
+    String include = includeCache.get(key);
+    if (include == null) {
+      include = resolveInclude(element, project);
+      if (include == null) {
+        return;
+      }
+      includeCache.put(key, include);
+    }
+    includes.add(include);
   }
 
-  private void parseInclude(String element, String project, String fileElement) {
+  @CheckForNull
+  private static String resolveInclude(String element, String project) {
     try {
       var includeRoot = new File(element.replace("\"", ""));
       var p = Paths.get(project);
@@ -297,50 +324,50 @@ public class MsBuild {
           includeRoot = new File(project, includeRoot.getPath());
         }
       }
-      squidConfig.add(fileElement, CxxSquidConfiguration.INCLUDE_DIRECTORIES, includeRoot.getCanonicalPath());
+      return includeRoot.getCanonicalPath();
     } catch (IOException e) {
       LOG.error("Cannot parse include path using element '{}' : '{}'", element, e.getMessage());
     }
+    return null;
   }
 
-  private void addMacro(String macroElem, String file) {
-    String macro = macroElem.replace('=', ' ');
-    squidConfig.add(file, CxxSquidConfiguration.DEFINES, macro);
+  private static void addMacro(String macroElem, List<String> defines) {
+    defines.add(macroElem.replace('=', ' '));
   }
 
-  private boolean existMacro(String macroElem, String file) {
+  private boolean existMacro(String macroElem, List<String> defines, String file) {
     String macro = macroElem.replace('=', ' ');
-    List<String> values = squidConfig.getValues(file, CxxSquidConfiguration.DEFINES);
-    return values.contains(macro);
+    // values of the current line first, values already stored in the database only if needed
+    return defines.contains(macro) || squidConfig.getValues(file, CxxSquidConfiguration.DEFINES).contains(macro);
   }
 
-  private void parseCommonCompilerOptions(String line, String fileElement) {
+  private void parseCommonCompilerOptions(String line, List<String> defines, String fileElement) {
     // Always Defined //
     //_INTEGRAL_MAX_BITS Reports the maximum size (in bits) for an integral type.
-    addMacro("_INTEGRAL_MAX_BITS=64", fileElement);
+    addMacro("_INTEGRAL_MAX_BITS=64", defines);
     //_MSC_BUILD Evaluates to the revision number component of the compiler's version number. The revision number is
     // the fourth component of the period-delimited version number. For example, if the version number of the
     // Visual C++ compiler is 15.00.20706.01, the _MSC_BUILD macro evaluates to 1.
-    addMacro("_MSC_BUILD=1", fileElement);
+    addMacro("_MSC_BUILD=1", defines);
     //__COUNTER__ Expands to an integer starting with 0 and incrementing by 1 every time it is used in a source file
     // or included headers of the source file. __COUNTER__ remembers its state when you use precompiled headers.
-    addMacro("__COUNTER__=0", fileElement);
+    addMacro("__COUNTER__=0", defines);
     //__DATE__ The compilation date of the current source file. The date is a string literal of the form Mmm dd yyyy.
     // The month name Mmm is the same as for dates generated by the library function asctime declared in TIME.H.
-    addMacro("__DATE__=\"??? ?? ????\"", fileElement);
+    addMacro("__DATE__=\"??? ?? ????\"", defines);
     //__FILE__ The name of the current source file. __FILE__ expands to a string surrounded by double quotation marks.
     // To ensure that the full path to the file is displayed, use /FC (Full Path of Source Code File in Diagnostics).
-    addMacro("__FILE__=\"file\"", fileElement);
+    addMacro("__FILE__=\"file\"", defines);
     //__LINE__ The line number in the current source file. The line number is a decimal integer constant.
     // It can be changed with a #line directive.
-    addMacro("__LINE__=1", fileElement);
+    addMacro("__LINE__=1", defines);
     //__TIME__ The most recent compilation time of the current source file.
     // The time is a string literal of the form hh:mm:ss.
-    addMacro("__TIME__=\"??:??:??\"", fileElement);
+    addMacro("__TIME__=\"??:??:??\"", defines);
     //__TIMESTAMP__ The date and time of the last modification of the current source file,
     // expressed as a string literal in the form Ddd Mmm Date hh:mm:ss yyyy, where Ddd is
     // the abbreviated day of the week and Date is an integer from 1 to 31.
-    addMacro("__TIMESTAMP__=\"??? ?? ???? ??:??:??\"", fileElement);
+    addMacro("__TIMESTAMP__=\"??? ?? ???? ??:??:??\"", defines);
     // _M_IX86
     //    /GB _M_IX86 = 600 Blend
     //    /G5 _M_IX86 = 500 (Default. Future compilers will emit a different value to reflect the
@@ -349,16 +376,16 @@ public class MsBuild {
     //    /G3 _M_IX86 = 300  80386
     //    /G4 _M_IX86 = 400  80486
     if (line.contains("/GB ") || line.contains("/G6")) {
-      addMacro("_M_IX86=600", fileElement);
+      addMacro("_M_IX86=600", defines);
     }
     if (line.contains("/G5")) {
-      addMacro("_M_IX86=500", fileElement);
+      addMacro("_M_IX86=500", defines);
     }
     if (line.contains("/G3")) {
-      addMacro("_M_IX86=300", fileElement);
+      addMacro("_M_IX86=300", defines);
     }
     if (line.contains("/G4")) {
-      addMacro("_M_IX86=400", fileElement);
+      addMacro("_M_IX86=400", defines);
     }
     //_M_IX86_FP Expands to a value indicating which /arch compiler option was used:
     //    0 if /arch was not used.
@@ -366,20 +393,20 @@ public class MsBuild {
     //    2 if /arch:SSE2 was used.
     // Expands to an integer literal value indicating which /arch compiler option was used.
     // The default value is '2' if /arch was not specified
-    addMacro("_M_IX86_FP=2", fileElement);
+    addMacro("_M_IX86_FP=2", defines);
     if (line.contains("/arch:IA32")) {
-      addMacro("_M_IX86_FP=0", fileElement);
+      addMacro("_M_IX86_FP=0", defines);
     }
     if (line.contains("/arch:SSE")) {
-      addMacro("_M_IX86_FP=1", fileElement);
+      addMacro("_M_IX86_FP=1", defines);
     }
     //arch:ARMv7VE or /arch:VFPv4
     if (line.contains("/arch:ARMv7VE")) {
-      addMacro("_M_ARM=7", fileElement);
-      addMacro("_M_ARM_ARMV7VE=1", fileElement);
+      addMacro("_M_ARM=7", defines);
+      addMacro("_M_ARM_ARMV7VE=1", defines);
     }
     if (line.contains("/arch:VFPv4")) {
-      addMacro("_M_ARM=7", fileElement);
+      addMacro("_M_ARM=7", defines);
     }
     // WinCE and WinRT
     // see https://en.wikipedia.org/wiki/ARM_architecture
@@ -393,35 +420,35 @@ public class MsBuild {
       // In the range 30-39 if no /arch ARM option was specified, indicating the default architecture
       //   for ARM was used (VFPv3).
       // In the range 40-49 if /arch:VFPv4 was used.
-      addMacro("_M_ARM_FP", fileElement);
+      addMacro("_M_ARM_FP", defines);
     }
     // __STDC__ Indicates full conformance with the ANSI C standard. Defined as the integer constant 1 only if
     // the /Za compiler option is given and you are not compiling C++ code; otherwise is undefined.
     if (line.contains("/Za ")) {
-      addMacro("__STDC__=1", fileElement);
+      addMacro("__STDC__=1", defines);
     }
 
     //_CHAR_UNSIGNED Default char type is unsigned. Defined when /J is specified.
     if (line.contains("/J ")) {
-      addMacro("_CHAR_UNSIGNED=1", fileElement);
+      addMacro("_CHAR_UNSIGNED=1", defines);
     }
 
     //_CPPRTTI Defined for code compiled with /GR (Enable Run-Time Type Information).
     if (line.contains("/GR ")) {
-      addMacro("_CPPRTTI", fileElement);
+      addMacro("_CPPRTTI", defines);
     }
 
     //_MANAGED Defined to be 1 when /clr is specified.
     if (line.contains("/clr ")) {
-      addMacro("_MANAGED", fileElement);
+      addMacro("_MANAGED", defines);
     }
     //_M_CEE_PURE Defined for a compilation that uses /clr:pure.
     if (line.contains("/clr:pure ")) {
-      addMacro("_M_CEE_PURE", fileElement);
+      addMacro("_M_CEE_PURE", defines);
     }
     //_M_CEE_SAFE Defined for a compilation that uses /clr:safe.
     if (line.contains("/clr:safe ")) {
-      addMacro("_M_CEE_SAFE", fileElement);
+      addMacro("_M_CEE_SAFE", defines);
     }
     // __CLR_VER Defines the version of the common language runtime used when the application was compiled.
     // The value returned will be in the following format:
@@ -430,68 +457,68 @@ public class MsBuild {
     //_M_CEE Defined for a compilation that uses any form of /clr (/clr:oldSyntax, /clr:safe, for example).
     if (line.contains("/clr")) {
 
-      addMacro("_M_CEE", fileElement);
-      addMacro("__cplusplus_cli=200406", fileElement);
-      addMacro("__CLR_VER", fileElement);
+      addMacro("_M_CEE", defines);
+      addMacro("__cplusplus_cli=200406", defines);
+      addMacro("__CLR_VER", defines);
       if (line.contains("/clr:pure ")) {
-        addMacro("_M_CEE_PURE", fileElement);
+        addMacro("_M_CEE_PURE", defines);
       }
       if (line.contains("/clr:safe ")) {
-        addMacro("_M_CEE_SAFE", fileElement);
+        addMacro("_M_CEE_SAFE", defines);
       }
     }
 
     //_MSC_EXTENSIONS This macro is defined when you compile with the /Ze compiler option (the default).
     //Its value, when defined, is 1.
     if (line.contains("/Ze ")) {
-      addMacro("_MSC_EXTENSIONS", fileElement);
+      addMacro("_MSC_EXTENSIONS", defines);
     }
 
     //__MSVC_RUNTIME_CHECKS Defined when one of the /RTC compiler options is specified.
     if (line.contains("/RTC ")) {
-      addMacro("__MSVC_RUNTIME_CHECKS", fileElement);
+      addMacro("__MSVC_RUNTIME_CHECKS", defines);
     }
 
     //_DEBUG Defined when you compile with /LDd, /MDd, and /MTd.
     if (line.contains("/LDd ")) {
-      addMacro("_DEBUG", fileElement);
+      addMacro("_DEBUG", defines);
     }
     //_DLL Defined when /MD or /MDd (Multithreaded DLL) is specified.
     if (line.contains("/MD ") || line.contains("/MDd ")) {
-      addMacro("_DLL", fileElement);
+      addMacro("_DLL", defines);
     }
     //_MT Defined when /MD (Multithreaded DLL) or /MT (Multithreaded) is specified.
     if (line.contains("/MD ") || line.contains("/MT ")) {
-      addMacro("_MT", fileElement);
+      addMacro("_MT", defines);
     }
     //_MT Defined when /MDd (Multithreaded DLL) or /MTd (Multithreaded) is specified.
     if (line.contains("/MDd ") || line.contains("/MTd ")) {
-      addMacro("_MT", fileElement);
-      addMacro("_DEBUG", fileElement);
+      addMacro("_MT", defines);
+      addMacro("_DEBUG", defines);
     }
     //_OPENMP Defined when compiling with /openmp, returns an integer representing the date of the
     // OpenMP specification implemented by Visual C++.
     if (line.contains("/openmp ")) {
-      addMacro("_OPENMP=200203", fileElement);
+      addMacro("_OPENMP=200203", defines);
     }
 
     //_VC_NODEFAULTLIB Defined when /Zl is used; see /Zl (Omit Default Library Name) for more information.
     if (line.contains("/Zl ")) {
-      addMacro("_VC_NODEFAULTLIB", fileElement);
+      addMacro("_VC_NODEFAULTLIB", defines);
     }
 
     //_NATIVE_WCHAR_T_DEFINED Defined when /Zc:wchar_t is used.
     //_WCHAR_T_DEFINED Defined when /Zc:wchar_t is used or if wchar_t is defined in a system header file
     // included in your project.
     if (line.contains("/Zc:wchar_t ")) {
-      addMacro("_WCHAR_T_DEFINED=1", fileElement);
-      addMacro("_NATIVE_WCHAR_T_DEFINED=1", fileElement);
+      addMacro("_WCHAR_T_DEFINED=1", defines);
+      addMacro("_NATIVE_WCHAR_T_DEFINED=1", defines);
     }
 
     //_Wp64 Defined when specifying /Wp64. Deprecated in Visual Studio 2010 and Visual Studio 2012,
     // and not supported starting in Visual Studio 2013
     if (line.contains("/Wp64 ")) {
-      addMacro("_Wp64", fileElement);
+      addMacro("_Wp64", defines);
     }
 
     //_M_AMD64 Defined for x64 processors.
@@ -503,17 +530,17 @@ public class MsBuild {
     //_M_IA64 Defined for Itanium Processor Family 64-bit processors.
     if ("x64".equals(platform) || line.contains("/D WIN64")) {
       // Defined for compilations that target x64 processors.
-      addMacro("_WIN32", fileElement);
+      addMacro("_WIN32", defines);
       // This is not defined for x86 processors.
-      addMacro("_WIN64", fileElement);
-      addMacro("_M_X64=100", fileElement);
-      addMacro("_M_IA64", fileElement);
-      addMacro("_M_AMD64", fileElement);
+      addMacro("_WIN64", defines);
+      addMacro("_M_X64=100", defines);
+      addMacro("_M_IA64", defines);
+      addMacro("_M_AMD64", defines);
     } else if ("Win32".equals(platform)) {
       // Defined for compilations that target x86 processors.
-      addMacro("_WIN32", fileElement);
+      addMacro("_WIN32", defines);
       //This is not defined for x64 processors.
-      addMacro("_M_IX86=600", fileElement);
+      addMacro("_M_IX86=600", defines);
     } else {
       // do nothing
     }
@@ -523,101 +550,101 @@ public class MsBuild {
           || line.contains("/EHa ")
           || line.contains("/EHsc ")
           || line.contains("/EHac ")) {
-      addMacro("_CPPUNWIND", fileElement);
+      addMacro("_CPPUNWIND", defines);
     }
-    if (line.contains("/favor:ATOM") && (existMacro(MSC_X64_100, fileElement)
-                                         || existMacro(MSC_IX86_600, fileElement))) {
-      addMacro("__ATOM__=1", fileElement);
+    if (line.contains("/favor:ATOM") && (existMacro(MSC_X64_100, defines, fileElement)
+                                         || existMacro(MSC_IX86_600, defines, fileElement))) {
+      addMacro("__ATOM__=1", defines);
     }
-    if (line.contains("/arch:AVX") && (existMacro(MSC_X64_100, fileElement)
-                                       || existMacro(MSC_IX86_600, fileElement))) {
-      addMacro("__AVX__=1", fileElement);
+    if (line.contains("/arch:AVX") && (existMacro(MSC_X64_100, defines, fileElement)
+                                       || existMacro(MSC_IX86_600, defines, fileElement))) {
+      addMacro("__AVX__=1", defines);
     }
-    if (line.contains("/arch:AVX2") && (existMacro(MSC_X64_100, fileElement)
-                                        || existMacro(MSC_IX86_600, fileElement))) {
-      addMacro("__AVX2__=1", fileElement);
+    if (line.contains("/arch:AVX2") && (existMacro(MSC_X64_100, defines, fileElement)
+                                        || existMacro(MSC_IX86_600, defines, fileElement))) {
+      addMacro("__AVX2__=1", defines);
     }
   }
 
-  private void parseV100CompilerOptions(String line, String fileElement) {
+  private void parseV100CompilerOptions(String line, List<String> defines) {
     // Visual Studio 2010 SP1 [10.0]
-    addMacro("__cplusplus=199711L", fileElement);
+    addMacro("__cplusplus=199711L", defines);
     // __cplusplus_winrt Defined when you use the /ZW option to compile. The value of __cplusplus_winrt is 201009.
     if (line.contains("/ZW ")) {
-      addMacro("__cplusplus_winrt=201009", fileElement);
+      addMacro("__cplusplus_winrt=201009", defines);
     }
-    addMacro("_MSC_VER=1600", fileElement);
-    addMacro("_MSC_FULL_VER=160040219", fileElement);
-    addMacro("_MFC_VER=0x0A00", fileElement);
-    addMacro("_ATL_VER=0x0A00", fileElement);
+    addMacro("_MSC_VER=1600", defines);
+    addMacro("_MSC_FULL_VER=160040219", defines);
+    addMacro("_MFC_VER=0x0A00", defines);
+    addMacro("_ATL_VER=0x0A00", defines);
     if (line.contains("/GX ")) {
-      addMacro("_CPPUNWIND", fileElement);
+      addMacro("_CPPUNWIND", defines);
     }
   }
 
-  private void parseV110CompilerOptions(String line, String fileElement) {
+  private void parseV110CompilerOptions(String line, List<String> defines) {
     // Visual Studio 2012 Update 4 [11.0]
-    addMacro("__cplusplus=199711L", fileElement);
+    addMacro("__cplusplus=199711L", defines);
     // __cplusplus_winrt Defined when you use the /ZW option to compile. The value of __cplusplus_winrt is 201009.
     if (line.contains("/ZW ")) {
-      addMacro("__cplusplus_winrt=201009", fileElement);
+      addMacro("__cplusplus_winrt=201009", defines);
     }
-    addMacro("_MSC_VER=1700", fileElement);
-    addMacro("_MSC_FULL_VER=170061030", fileElement);
-    addMacro("_MFC_VER=0x0B00", fileElement);
-    addMacro("_ATL_VER=0x0B00", fileElement);
+    addMacro("_MSC_VER=1700", defines);
+    addMacro("_MSC_FULL_VER=170061030", defines);
+    addMacro("_MFC_VER=0x0B00", defines);
+    addMacro("_ATL_VER=0x0B00", defines);
   }
 
-  private void parseV120CompilerOptions(String line, String fileElement) {
+  private void parseV120CompilerOptions(String line, List<String> defines) {
     // Visual Studio 2013 Update 5 [12.0]
-    addMacro("__cplusplus=199711L", fileElement);
+    addMacro("__cplusplus=199711L", defines);
     // __cplusplus_winrt Defined when you use the /ZW option to compile. The value of __cplusplus_winrt is 201009.
     if (line.contains("/ZW ")) {
-      addMacro("__cplusplus_winrt=201009", fileElement);
+      addMacro("__cplusplus_winrt=201009", defines);
     }
-    addMacro("_MSC_VER=1800", fileElement);
-    addMacro("_MSC_FULL_VER=180040629", fileElement);
-    addMacro("_MFC_VER=0x0C00", fileElement);
-    addMacro("_ATL_VER=0x0C00", fileElement);
+    addMacro("_MSC_VER=1800", defines);
+    addMacro("_MSC_FULL_VER=180040629", defines);
+    addMacro("_MFC_VER=0x0C00", defines);
+    addMacro("_ATL_VER=0x0C00", defines);
   }
 
-  private void parseV140CompilerOptions(String line, String fileElement) {
+  private void parseV140CompilerOptions(String line, List<String> defines) {
     // Visual Studio 2015 Update 3 [14.0]
-    addMacro("__cplusplus=199711L", fileElement);
+    addMacro("__cplusplus=199711L", defines);
     // __cplusplus_winrt Defined when you use the /ZW option to compile. The value of __cplusplus_winrt is 201009.
     if (line.contains("/ZW ")) {
-      addMacro("__cplusplus_winrt=201009", fileElement);
+      addMacro("__cplusplus_winrt=201009", defines);
     }
-    addMacro("_MSC_VER=1900", fileElement);
-    addMacro("_MSC_FULL_VER=190024210", fileElement);
-    addMacro("_MFC_VER=0x0E00", fileElement);
-    addMacro("_ATL_VER=0x0E00", fileElement);
+    addMacro("_MSC_VER=1900", defines);
+    addMacro("_MSC_FULL_VER=190024210", defines);
+    addMacro("_MFC_VER=0x0E00", defines);
+    addMacro("_ATL_VER=0x0E00", defines);
   }
 
-  private void parseV141CompilerOptions(String line, String fileElement) {
+  private void parseV141CompilerOptions(String line, List<String> defines) {
     // Visual Studio 2017 version 15.9.11
-    addMacro("__cplusplus=199711L", fileElement);
+    addMacro("__cplusplus=199711L", defines);
     // __cplusplus_winrt Defined when you use the /ZW option to compile. The value of __cplusplus_winrt is 201009.
     if (line.contains("/ZW ")) {
-      addMacro("__cplusplus_winrt=201009", fileElement);
+      addMacro("__cplusplus_winrt=201009", defines);
     }
-    addMacro("_MSC_VER=1910", fileElement);
-    addMacro("_MSC_FULL_VER=191627030", fileElement);
-    addMacro("_MFC_VER=0x0E00", fileElement);
-    addMacro("_ATL_VER=0x0E00", fileElement);
+    addMacro("_MSC_VER=1910", defines);
+    addMacro("_MSC_FULL_VER=191627030", defines);
+    addMacro("_MFC_VER=0x0E00", defines);
+    addMacro("_ATL_VER=0x0E00", defines);
   }
 
-  private void parseV142CompilerOptions(String line, String fileElement) {
+  private void parseV142CompilerOptions(String line, List<String> defines) {
     // Visual Studio 2019 version 16.9.2
-    addMacro("__cplusplus=201402L", fileElement);
+    addMacro("__cplusplus=201402L", defines);
     // __cplusplus_winrt Defined when you use the /ZW option to compile. The value of __cplusplus_winrt is 201009.
     if (line.contains("/ZW ")) {
-      addMacro("__cplusplus_winrt=201009", fileElement);
+      addMacro("__cplusplus_winrt=201009", defines);
     }
-    addMacro("_MSC_VER=1920", fileElement);
-    addMacro("_MSC_FULL_VER=192829913", fileElement);
-    addMacro("_MFC_VER=0x0E00", fileElement);
-    addMacro("_ATL_VER=0x0E00", fileElement);
+    addMacro("_MSC_VER=1920", defines);
+    addMacro("_MSC_FULL_VER=192829913", defines);
+    addMacro("_MFC_VER=0x0E00", defines);
+    addMacro("_ATL_VER=0x0E00", defines);
   }
 
 }
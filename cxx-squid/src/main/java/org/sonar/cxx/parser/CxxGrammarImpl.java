@@ -138,6 +138,8 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
   attributeDeclaration,
   declSpecifier,
   recoveredDeclaration,
+  recoverySegment,
+  recoveryBlock,
   conditionDeclSpecifierSeq,
   forRangeDeclSpecifierSeq,
   parameterDeclSpecifierSeq,
@@ -358,9 +360,13 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
   cudaKernel;
 
   public static Grammar create(CxxSquidConfiguration squidConfig) {
+    return create(isErrorRecoveryEnabled(squidConfig));
+  }
+
+  public static Grammar create(boolean errorRecovery) {
     var b = LexerfulGrammarBuilder.create();
 
-    toplevel(b, squidConfig);
+    toplevel(b, errorRecovery);
     expressions(b);
     statements(b);
     declarations(b);
@@ -420,11 +426,15 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
     b.rule(vcAtlDeclaration).is(vcAtlAttribute, ";");
   }
 
+  static boolean isErrorRecoveryEnabled(CxxSquidConfiguration squidConfig) {
+    return squidConfig.getBoolean(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
+                                  CxxSquidConfiguration.ERROR_RECOVERY_ENABLED).orElse(Boolean.TRUE);
+  }
+
   // **A.3 Basics [gram.basic]**
   //
-  private static void toplevel(LexerfulGrammarBuilder b, CxxSquidConfiguration squidConfig) {
-    if (squidConfig.getBoolean(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
-                               CxxSquidConfiguration.ERROR_RECOVERY_ENABLED).orElse(Boolean.TRUE)) {
+  private static void toplevel(LexerfulGrammarBuilder b, boolean errorRecovery) {
+    if (errorRecovery) {
       //
       // parsing with error recovery
       //
@@ -449,6 +459,10 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
 
       // eat all tokens until the next declaration is recognized
       // this works only on top level!!!
+      //
+      // a declaration is retried at every token as long as the per-file recovery limit is not reached (see
+      // ParseLimits), afterwards only at synchronization points (behind a ';', behind a balanced '{...}' block or in
+      // front of a keyword starting a declaration): this keeps recovery linear
       b.rule(recoveredDeclaration).is(
         b.oneOrMore(
           b.nextNot(
@@ -456,9 +470,47 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
               declaration,
               EOF
             )
-          ), b.anyToken()
+          ),
+          b.firstOf(
+            b.sequence(ParseLimits.RECOVERY_RETRY, b.anyToken()),
+            recoveryBlock,
+            recoverySegment,
+            b.anyToken()
+          )
         )
       );
+
+      b.rule(recoverySegment).is(
+        b.nextNot(b.firstOf("{", "}")),
+        b.anyToken(),
+        b.zeroOrMore(
+          b.nextNot(
+            b.firstOf(
+              ";", "{", "}", EOF,
+              CxxKeyword.NAMESPACE, CxxKeyword.TEMPLATE, CxxKeyword.CLASS, CxxKeyword.STRUCT, CxxKeyword.UNION,
+              CxxKeyword.ENUM, CxxKeyword.TYPEDEF, CxxKeyword.USING, CxxKeyword.EXTERN, CxxKeyword.STATIC_ASSERT
+            )
+          ),
+          b.anyToken()
+        ),
+        b.optional(
+          b.firstOf(
+            ";",
+            b.sequence(recoveryBlock, b.optional(";"))
+          )
+        )
+      ).skip();
+
+      b.rule(recoveryBlock).is(
+        "{",
+        b.zeroOrMore(
+          b.firstOf(
+            recoveryBlock,
+            b.sequence(b.nextNot(b.firstOf("{", "}", EOF)), b.anyToken())
+          )
+        ),
+        "}"
+      ).skip();
     } else {
       b.rule(translationUnit).is(
         b.firstOf(
@@ -903,6 +955,7 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
     );
 
     b.rule(expression).is(
+      ParseLimits.CHECKPOINT, // accounts a parse step, see ParseLimits
       assignmentExpression, b.zeroOrMore(",", assignmentExpression) // C++
     );
 
@@ -916,6 +969,7 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
   private static void statements(LexerfulGrammarBuilder b) {
 
     b.rule(statement).is(
+      ParseLimits.CHECKPOINT, // accounts a parse step, see ParseLimits
       b.firstOf(
         labeledStatement, // C++
         b.sequence(b.optional(attributeSpecifierSeq), expressionStatement), // C++
@@ -1046,6 +1100,7 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
     ).skipIfOneChild();
 
     b.rule(declaration).is(
+      ParseLimits.CHECKPOINT, // accounts a parse step, see ParseLimits
       b.firstOf(
         // identifiers with special meaning: import and module => must be placed before rules that start with an identifier!
         moduleImportDeclaration, // C++ import ...
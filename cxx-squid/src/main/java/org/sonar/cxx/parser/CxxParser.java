@@ -21,8 +21,8 @@ package org.sonar.cxx.parser;
 
 import com.sonar.sslr.api.Grammar;
 import com.sonar.sslr.impl.Parser;
-import java.io.File;
-import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.sonar.cxx.config.CxxSquidConfiguration;
 import org.sonar.cxx.preprocessor.CxxPreprocessor;
 import org.sonar.cxx.preprocessor.JoinStringsPreprocessor;
@@ -32,15 +32,12 @@ import org.sonar.cxx.squidbridge.api.SourceProject;
 
 public final class CxxParser {
 
-  private static WeakReference<CxxPreprocessor> currentPreprocessorInstance;
+  // grammars are not modified after construction: build them once and share them between all parsers
+  private static final Map<Boolean, Grammar> GRAMMARS = new ConcurrentHashMap<>();
 
   private CxxParser() {
   }
 
-  public static void finishedParsing(File path) {
-    currentPreprocessorInstance.get().finishedPreprocessing(path);
-  }
-
   public static Parser<Grammar> create() {
     return create(new SquidAstVisitorContextImpl<>(new SourceProject("")),
                   new CxxSquidConfiguration());
@@ -51,11 +48,42 @@ public final class CxxParser {
   }
 
   public static Parser<Grammar> create(SquidAstVisitorContext<Grammar> context, CxxSquidConfiguration squidConfig) {
-    var cxxpp = new CxxPreprocessor(context, squidConfig);
-    currentPreprocessorInstance = new WeakReference<>(cxxpp);
-    return Parser.builder(CxxGrammarImpl.create(squidConfig))
-      .withLexer(CxxLexer.create(squidConfig.getCharset(), cxxpp, new JoinStringsPreprocessor()))
+    return create(squidConfig, new CxxPreprocessor(context, squidConfig));
+  }
+
+  /**
+   * Create a parser using the given preprocessor.
+   *
+   * The preprocessor keeps the state of the translation unit under analysis. The owner of the preprocessor (typically
+   * the scanner) has to call {@link CxxPreprocessor#finishedPreprocessing} after each parsed file. Parser and
+   * preprocessor must not be used by multiple threads concurrently, create one parser for each scanner.
+   *
+   * The parse phase of each file is limited by the parse budget of the configuration (time and parse steps).
+   *
+   * @param squidConfig the Squid configuration
+   * @param preprocessor preprocessor for the tokens of the parser
+   * @return parser using the preprocessor
+   */
+  public static Parser<Grammar> create(CxxSquidConfiguration squidConfig, CxxPreprocessor preprocessor) {
+    return new LimitedParser(create(squidConfig, preprocessor, getGrammar(squidConfig)), new ParseLimits(squidConfig));
+  }
+
+  /**
+   * Create a parser using its own grammar instance. Use this only if the grammar is modified afterwards (e.g. rules
+   * are mocked in unit tests).
+   */
+  static Parser<Grammar> create(CxxSquidConfiguration squidConfig, CxxPreprocessor preprocessor, Grammar grammar) {
+    return Parser.builder(grammar)
+      .withLexer(CxxLexer.create(squidConfig.getCharset(), preprocessor, new JoinStringsPreprocessor()))
       .build();
   }
 
+  /**
+   * Shared C++ grammar, there is one instance for each error recovery setting.
+   */
+  public static Grammar getGrammar(CxxSquidConfiguration squidConfig) {
+    return GRAMMARS.computeIfAbsent(CxxGrammarImpl.isErrorRecoveryEnabled(squidConfig),
+                                    CxxGrammarImpl::create);
+  }
+
 }
@@ -0,0 +1,72 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.parser;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.Rule;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.Parser;
+import com.sonar.sslr.impl.matcher.RuleDefinition;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Parser which parses each file within the {@link ParseLimits} of the parse phase.
+ *
+ * SSLR builds parsers only with its builder, the parser is therefore a wrapper of a built parser.
+ */
+final class LimitedParser extends Parser<Grammar> {
+
+  private final Parser<Grammar> parser;
+  private final ParseLimits limits;
+
+  LimitedParser(Parser<Grammar> parser, ParseLimits limits) {
+    super(parser.getGrammar());
+    this.parser = parser;
+    this.limits = limits;
+  }
+
+  @Override
+  public AstNode parse(File file) {
+    return limits.parse(() -> parser.parse(file));
+  }
+
+  @Override
+  public AstNode parse(String source) {
+    return limits.parse(() -> parser.parse(source));
+  }
+
+  @Override
+  public AstNode parse(List<Token> tokens) {
+    return limits.parse(() -> parser.parse(tokens));
+  }
+
+  @Override
+  public RuleDefinition getRootRule() {
+    return parser.getRootRule();
+  }
+
+  @Override
+  public void setRootRule(Rule rootRule) {
+    parser.setRootRule(rootRule);
+  }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.parser;
+
+import java.util.function.Supplier;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.preprocessor.ParseBudgetExceededException;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.NativeExpression;
+
+/**
+ * Per file limits of the parse phase: time and number of parse steps (attempts to match a declaration, a statement or
+ * an expression). The preprocessing of the file is limited by the ParseBudget of the preprocessor. A limit of 0 means
+ * unlimited.
+ *
+ * Additionally the effort of the error recovery is capped: a declaration is retried at each skipped token only up to
+ * a number of retries per file, afterwards the error recovery skips to synchronization points.
+ *
+ * The limits are checked by {@link #CHECKPOINT} and {@link #RECOVERY_RETRY}, parts of the grammar. Grammars are shared
+ * between parsers and threads, the limits of the running parse are therefore kept in a thread local.
+ */
+final class ParseLimits {
+
+  /**
+   * Expression matching nothing, it accounts a parse step and throws a {@link ParseBudgetExceededException} if a limit
+   * of the running parse is exceeded.
+   */
+  static final Object CHECKPOINT = new Checkpoint();
+
+  /**
+   * Expression matching nothing as long as the error recovery of the running parse may retry a declaration at the next
+   * token. Without a running {@link #parse} it always matches.
+   */
+  static final Object RECOVERY_RETRY = new RecoveryRetry();
+
+  static final int DEFAULT_RECOVERY_RETRY_LIMIT = 1_000;
+
+  // check the time only every n-th step
+  private static final int TIME_CHECK_INTERVAL = 1024;
+  private static final ThreadLocal<ParseLimits> CURRENT = new ThreadLocal<>();
+
+  private final long timeoutNanos;
+  private final long stepLimit;
+  private final boolean enabled;
+  private final int recoveryRetryLimit;
+
+  private long deadline = 0;
+  private long steps = 0;
+  private int recoveryRetries = 0;
+
+  ParseLimits(CxxSquidConfiguration squidConfig) {
+    this(squidConfig.getLong(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.PARSE_TIMEOUT)
+      .orElse(0L) * 1_000_000_000L,
+         squidConfig.getLong(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.PARSE_TOKEN_LIMIT)
+           .orElse(0L),
+         DEFAULT_RECOVERY_RETRY_LIMIT);
+  }
+
+  ParseLimits(long timeoutNanos, long stepLimit, int recoveryRetryLimit) {
+    this.timeoutNanos = Math.max(timeoutNanos, 0);
+    this.stepLimit = Math.max(stepLimit, 0);
+    this.enabled = this.timeoutNanos > 0 || this.stepLimit > 0;
+    this.recoveryRetryLimit = Math.max(recoveryRetryLimit, 0);
+  }
+
+  /**
+   * Parse a file within the limits.
+   *
+   * @param parse parsing of the file
+   * @return result of the parsing
+   * @throws ParseBudgetExceededException if a limit is exceeded
+   */
+  <T> T parse(Supplier<T> parse) {
+    steps = 0;
+    recoveryRetries = 0;
+    if (timeoutNanos > 0) {
+      deadline = System.nanoTime() + timeoutNanos;
+    }
+    var previous = CURRENT.get();
+    CURRENT.set(this);
+    try {
+      return parse.get();
+    } finally {
+      if (previous != null) {
+        CURRENT.set(previous);
+      } else {
+        CURRENT.remove();
+      }
+    }
+  }
+
+  private void step(int line) {
+    if (!enabled) {
+      return;
+    }
+    steps++;
+    if (stepLimit > 0 && steps > stepLimit) {
+      exceeded(line, "more than " + stepLimit + " parse steps");
+    }
+    if (timeoutNanos > 0 && (steps % TIME_CHECK_INTERVAL) == 0 && System.nanoTime() > deadline) {
+      exceeded(line, "more than " + timeoutNanos / 1_000_000_000L + " seconds");
+    }
+  }
+
+  private boolean retryRecovery() {
+    if (recoveryRetries < recoveryRetryLimit) {
+      recoveryRetries++;
+      return true;
+    }
+    return false;
+  }
+
+  private static void exceeded(int line, String reason) {
+    throw new ParseBudgetExceededException(line, "Parse budget exceeded: " + reason + ", the file is not analyzed");
+  }
+
+  private static class Checkpoint extends NativeExpression {
+
+    @Override
+    public void execute(Machine machine) {
+      var limits = CURRENT.get();
+      if (limits != null) {
+        limits.step(machine.length() > 0 ? machine.tokenAt(0).getLine() : 0);
+      }
+      machine.jump(1);
+    }
+
+    @Override
+    public String toString() {
+      return "ParseLimits.CHECKPOINT";
+    }
+
+  }
+
+  private static class RecoveryRetry extends NativeExpression {
+
+    @Override
+    public void execute(Machine machine) {
+      var limits = CURRENT.get();
+      if (limits == null || limits.retryRecovery()) {
+        machine.jump(1);
+      } else {
+        machine.backtrack();
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "ParseLimits.RECOVERY_RETRY";
+    }
+
+  }
+
+}
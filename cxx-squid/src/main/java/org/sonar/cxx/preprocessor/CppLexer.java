@@ -21,7 +21,6 @@ package org.sonar.cxx.preprocessor;
 
 import com.sonar.sslr.impl.Lexer;
 import com.sonar.sslr.impl.channel.BomCharacterChannel;
-import com.sonar.sslr.impl.channel.IdentifierAndKeywordChannel;
 import com.sonar.sslr.impl.channel.PunctuatorChannel;
 import static com.sonar.sslr.impl.channel.RegexpChannelBuilder.ANY_CHAR;
 import static com.sonar.sslr.impl.channel.RegexpChannelBuilder.and;
@@ -34,6 +33,7 @@ import static com.sonar.sslr.impl.channel.RegexpChannelBuilder.regexp;
 import com.sonar.sslr.impl.channel.UnknownCharacterChannel;
 import java.nio.charset.Charset;
 import org.sonar.cxx.channels.CharacterLiteralsChannel;
+import org.sonar.cxx.channels.IdentifierAndKeywordChannel;
 import org.sonar.cxx.channels.KeywordChannel;
 import org.sonar.cxx.channels.StringLiteralsChannel;
 import org.sonar.cxx.channels.WhitespaceChannel;
@@ -92,7 +92,7 @@ public final class CppLexer {
       )
       .withChannel(new KeywordChannel(and("#", o2n("\\s"), "[a-z]", o2n("\\w")), CppKeyword.values()))
       //###.withChannel(new SpecialIdentifiers("import"))
-      .withChannel(new IdentifierAndKeywordChannel(and("[a-zA-Z_]", o2n("\\w")), true))
+      .withChannel(new IdentifierAndKeywordChannel(and("[a-zA-Z_]", o2n("\\w"))))
       .withChannel(new PunctuatorChannel(CppPunctuator.values()))
       .withChannel(new BomCharacterChannel())
       .withChannel(new UnknownCharacterChannel());
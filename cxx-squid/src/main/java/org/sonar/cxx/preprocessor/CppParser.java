@@ -25,21 +25,23 @@ import java.nio.charset.Charset;
 
 public final class CppParser {
 
+  // the grammar is not modified after construction: build it once and share it between all parsers
+  private static final Grammar GRAMMAR = CppGrammarImpl.create();
+
   private CppParser() {
   }
 
   public static Parser<Grammar> create(Charset charset) {
-    return Parser.builder(CppGrammarImpl.create())
+    return Parser.builder(GRAMMAR)
       .withLexer(CppLexer.create(charset))
       .build();
   }
 
   public static Parser<Grammar> createConstantExpressionParser(Charset charset) {
-    var grammar = CppGrammarImpl.create();
-    Parser<Grammar> parser = Parser.builder(grammar)
+    Parser<Grammar> parser = Parser.builder(GRAMMAR)
       .withLexer(CppLexer.create(charset))
       .build();
-    parser.setRootRule(grammar.rule(CppGrammarImpl.constantExpression));
+    parser.setRootRule(GRAMMAR.rule(CppGrammarImpl.constantExpression));
     return parser;
   }
 
@@ -27,6 +27,7 @@ import com.sonar.sslr.api.Preprocessor;
 import com.sonar.sslr.api.PreprocessorAction;
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.api.Trivia;
+import com.sonar.sslr.impl.Lexer;
 import com.sonar.sslr.impl.Parser;
 import java.io.File;
 import java.io.IOException;
@@ -40,6 +41,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -107,20 +109,30 @@ public class CxxPreprocessor extends Preprocessor {
   private final SourceCodeProvider mockCodeProvider;
 
   private MapChain<String, Macro> unitMacros = null;
-  private MapChain<String, Macro> globalMacros = null;
+  private Map<String, Macro> globalMacros = null;
   private List<String> globalIncludeDirectories = null;
 
   private SourceCodeProvider unitCodeProvider;
   private File currentContextFile;
 
   private final Set<File> analysedFiles = new HashSet<>();
+  private final IncludeFileCache includeFileCache = new IncludeFileCache();
+  private final SourceCodeReader sourceCodeReader = new SourceCodeReader();
   private final Parser<Grammar> pplineParser;
+  private final ParseBudget budget;
+
+  // lexers are not reentrant: one include lexer per nesting level of #include directives, created on demand
+  private final List<Lexer> includeLexers = new ArrayList<>();
+  private int includeDepth = 0;
 
   private static final String MISSING_INCLUDE_MSG = "Preprocessor: {} include directive error(s). "
                                                       + "This is only relevant if parser creates syntax errors."
                                                       + " The preprocessor searches for include files in the with "
                                                       + "'sonar.cxx.includeDirectories' defined directories and order.";
-  private static int missingIncludeFilesCounter = 0;
+  // total of all finished scans for the final report
+  private static final AtomicInteger totalMissingIncludeFiles = new AtomicInteger();
+  // counter of the current scan of this preprocessor
+  private int missingIncludeFiles = 0;
 
   public CxxPreprocessor(SquidAstVisitorContext<Grammar> context) {
     this(context, new CxxSquidConfiguration());
@@ -142,6 +154,7 @@ public class CxxPreprocessor extends Preprocessor {
     this.squidConfig = squidConfig;
     this.mockCodeProvider = mockCodeProvider;
     pplineParser = CppParser.create(squidConfig.getCharset());
+    budget = new ParseBudget(squidConfig);
 
     if (this.mockCodeProvider != null) {
       this.mockCodeProvider.setIncludeRoots(
@@ -170,25 +183,26 @@ public class CxxPreprocessor extends Preprocessor {
     // make sure, that the following code is executed for a new file only
     if (currentContextFile != context.getFile()) {
       currentContextFile = context.getFile();
+      budget.start();
 
-      unitCodeProvider = new SourceCodeProvider(currentContextFile);
-      unitMacros = new MapChain<>();
+      unitCodeProvider = new SourceCodeProvider(currentContextFile, includeFileCache, sourceCodeReader);
       String path = currentContextFile.getAbsolutePath();
 
       if (globalMacros != null) {
-        // reuse already parsed project macros
-        unitMacros.putAll(globalMacros);
+        // reuse already parsed project macros: shared, immutable layer with a unit specific overlay
+        unitMacros = new MapChain<>(globalMacros);
       } else {
         // on project level do this only once for all units
+        unitMacros = new MapChain<>();
         addGlobalIncludeDirectories();
         addGlobalMacros();
         addGlobalForcedIncludes();
-        globalMacros = new MapChain<>();
-        globalMacros.putAll(unitMacros);
+        globalMacros = Map.copyOf(unitMacros.getMap());
+        unitMacros = new MapChain<>(globalMacros);
 
         if (LOG.isDebugEnabled()) {
           LOG.debug("global include directories: {}", unitCodeProvider.getIncludeRoots());
-          LOG.debug("global macros: {}", globalMacros);
+          LOG.debug("global macros: {}", unitMacros);
         }
       }
 
@@ -217,6 +231,7 @@ public class CxxPreprocessor extends Preprocessor {
   public PreprocessorAction process(List<Token> tokens) { //TODO: deprecated PreprocessorAction
     var token = tokens.get(0);
     var type = token.getType();
+    budget.consumeToken(token, includeDepth == 0);
 
     if (type.equals(PREPROCESSOR)) {
       String rootFilePath = unitCodeProvider.getFileUnderAnalysisPath();
@@ -284,13 +299,29 @@ public class CxxPreprocessor extends Preprocessor {
   }
 
   public static void finalReport() {
-    if (missingIncludeFilesCounter != 0) {
-      LOG.warn(MISSING_INCLUDE_MSG, missingIncludeFilesCounter);
+    int total = totalMissingIncludeFiles.get();
+    if (total != 0) {
+      LOG.warn(MISSING_INCLUDE_MSG, total);
     }
   }
 
   public static void resetReport() {
-    missingIncludeFilesCounter = 0;
+    totalMissingIncludeFiles.set(0);
+  }
+
+  /**
+   * Number of include files not found in the current scan.
+   */
+  public int getMissingIncludeFiles() {
+    return missingIncludeFiles;
+  }
+
+  /**
+   * Add the counters of the current scan to the totals of the final report and start counting anew.
+   */
+  public void finishedScan() {
+    totalMissingIncludeFiles.addAndGet(missingIncludeFiles);
+    missingIncludeFiles = 0;
   }
 
   private static List<Token> stripEOF(List<Token> tokens) {
@@ -1105,17 +1136,20 @@ public class CxxPreprocessor extends Preprocessor {
     //    if it finds relevant preprocessor directives (currently: include's and define's)
     File includedFile = findIncludedFile(ast, token, filename);
     if (includedFile == null) {
-      missingIncludeFilesCounter++;
+      missingIncludeFiles++;
       LOG.debug("[" + filename + ":" + token.getLine()
                   + "]: preprocessor cannot find include file '" + token.getValue() + "'");
     } else if (analysedFiles.add(includedFile.getAbsoluteFile())) {
       unitCodeProvider.pushFileState(includedFile);
+      var includeLexer = getIncludeLexer();
+      includeDepth++;
       try {
         LOG.debug("process include file '{}'", includedFile.getAbsoluteFile());
-        IncludeLexer.create(this).lex(getCodeProvider().getSourceCode(includedFile, charset));
+        includeLexer.lex(getCodeProvider().getSourceCode(includedFile, charset));
       } catch (IOException e) {
         LOG.error("[{}: preprocessor cannot read include file]: {}", includedFile.getAbsoluteFile(), e.getMessage());
       } finally {
+        includeDepth--;
         unitCodeProvider.popFileState();
       }
     }
@@ -1123,6 +1157,13 @@ public class CxxPreprocessor extends Preprocessor {
     return oneConsumedToken(token);
   }
 
+  private Lexer getIncludeLexer() {
+    if (includeLexers.size() <= includeDepth) {
+      includeLexers.add(IncludeLexer.create(squidConfig.getCharset(), this));
+    }
+    return includeLexers.get(includeDepth);
+  }
+
   PreprocessorAction handleImportLine(AstNode ast, Token token, String filename, Charset charset) {
     if (ast.getFirstDescendant(CppGrammarImpl.expandedIncludeBody) != null) {
       // import <file>
@@ -1176,60 +1217,71 @@ public class CxxPreprocessor extends Preprocessor {
     // Every identifier and every keyword can be a macro instance. Pipe the resulting string through a lexer to
     // create proper Tokens and to expand recursively all macros which may be in there.
     //
-    PreprocessorAction ppaction = PreprocessorAction.NO_OPERATION;
     Macro macro = getMacro(curr.getValue());
     if (macro != null) {
-      List<Token> replTokens = new LinkedList<>();
-      var tokensConsumed = 0;
+      try {
+        budget.enterExpansion(curr, includeDepth == 0);
+        return expandMacroInstance(tokens, curr, macro, filename);
+      } finally {
+        budget.leaveExpansion();
+      }
+    }
 
-      if (macro.params == null) {
-        tokensConsumed = 1;
-        replTokens = new LinkedList<>(expandMacro(macro.name, serialize(evaluateHashhashOperators(macro.body))));
-      } else {
-        int tokensConsumedMatchingArgs = expandFunctionLikeMacro(macro.name,
-                                                                 tokens.subList(1, tokens.size()),
-                                                                 replTokens);
-        if (tokensConsumedMatchingArgs > 0) {
-          tokensConsumed = 1 + tokensConsumedMatchingArgs;
-        }
+    return PreprocessorAction.NO_OPERATION;
+  }
+
+  private PreprocessorAction expandMacroInstance(List<Token> tokens, Token curr, Macro macro, String filename) {
+    PreprocessorAction ppaction = PreprocessorAction.NO_OPERATION;
+    List<Token> replTokens = new LinkedList<>();
+    var tokensConsumed = 0;
+
+    if (macro.params == null) {
+      tokensConsumed = 1;
+      replTokens = new LinkedList<>(expandMacro(macro.name, serialize(evaluateHashhashOperators(macro.body))));
+    } else {
+      int tokensConsumedMatchingArgs = expandFunctionLikeMacro(macro.name,
+                                                               tokens.subList(1, tokens.size()),
+                                                               replTokens);
+      if (tokensConsumedMatchingArgs > 0) {
+        tokensConsumed = 1 + tokensConsumedMatchingArgs;
       }
+    }
 
-      if (tokensConsumed > 0) {
-
-        // Rescanning to expand function like macros, in case it requires consuming more tokens
-        List<Token> outTokens = new LinkedList<>();
-        unitMacros.disable(macro.name);
-        while (!replTokens.isEmpty()) {
-          var c = replTokens.get(0);
-          PreprocessorAction action = PreprocessorAction.NO_OPERATION;
-          if (c.getType().equals(IDENTIFIER)) {
-            List<Token> rest = new ArrayList<>(replTokens);
-            rest.addAll(tokens.subList(tokensConsumed, tokens.size()));
-            action = handleIdentifiersAndKeywords(rest, c, filename);
-          }
-          if (action.equals(PreprocessorAction.NO_OPERATION)) {
-            replTokens.remove(0);
-            outTokens.add(c);
+    if (tokensConsumed > 0) {
+
+      // Rescanning to expand function like macros, in case it requires consuming more tokens
+      List<Token> outTokens = new LinkedList<>();
+      unitMacros.disable(macro.name);
+      while (!replTokens.isEmpty()) {
+        var c = replTokens.get(0);
+        PreprocessorAction action = PreprocessorAction.NO_OPERATION;
+        if (c.getType().equals(IDENTIFIER)) {
+          List<Token> rest = new ArrayList<>(replTokens);
+          rest.addAll(tokens.subList(tokensConsumed, tokens.size()));
+          action = handleIdentifiersAndKeywords(rest, c, filename);
+        }
+        if (action.equals(PreprocessorAction.NO_OPERATION)) {
+          replTokens.remove(0);
+          outTokens.add(c);
+        } else {
+          outTokens.addAll(action.getTokensToInject());
+          int tokensConsumedRescanning = action.getNumberOfConsumedTokens();
+          if (tokensConsumedRescanning >= replTokens.size()) {
+            tokensConsumed += tokensConsumedRescanning - replTokens.size();
+            replTokens.clear();
           } else {
-            outTokens.addAll(action.getTokensToInject());
-            int tokensConsumedRescanning = action.getNumberOfConsumedTokens();
-            if (tokensConsumedRescanning >= replTokens.size()) {
-              tokensConsumed += tokensConsumedRescanning - replTokens.size();
-              replTokens.clear();
-            } else {
-              replTokens.subList(0, tokensConsumedRescanning).clear();
-            }
+            replTokens.subList(0, tokensConsumedRescanning).clear();
           }
         }
-        replTokens = outTokens;
-        unitMacros.enable(macro.name);
-        replTokens = reallocate(replTokens, curr);
-
-        ppaction = new PreprocessorAction(
-          tokensConsumed,
-          Collections.singletonList(Trivia.createSkippedText(tokens.subList(0, tokensConsumed))),
-          replTokens);
       }
+      replTokens = outTokens;
+      unitMacros.enable(macro.name);
+      replTokens = reallocate(replTokens, curr);
+
+      ppaction = new PreprocessorAction(
+        tokensConsumed,
+        Collections.singletonList(Trivia.createSkippedText(tokens.subList(0, tokensConsumed))),
+        replTokens);
     }
 
     return ppaction;
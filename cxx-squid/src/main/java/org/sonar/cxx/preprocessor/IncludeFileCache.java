@@ -0,0 +1,224 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.CheckForNull;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Project wide cache for the file system lookups of the preprocessor.
+ *
+ * Resolving an include directive probes the directory of the current file, the directories of the parent include
+ * files and all include roots. Doing this with file system calls for each #include of each translation unit results
+ * in a huge number of stat calls. The cache avoids this:
+ *
+ * - the content of each probed directory is read once, a file not contained in the listing does not exist
+ * - results of file probes are cached (positive and negative)
+ * - lookups in the include roots are cached per (include roots, include name)
+ * - canonical file names are cached
+ *
+ * The cache assumes that include files are not created or deleted during the analysis. It is thread safe.
+ */
+public class IncludeFileCache {
+
+  private static final Logger LOG = Loggers.get(IncludeFileCache.class);
+
+  private final Map<Path, DirectoryListing> directories = new ConcurrentHashMap<>();
+  private final Map<Path, Boolean> files = new ConcurrentHashMap<>();
+  private final Map<List<Path>, Integer> includeRoots = new ConcurrentHashMap<>();
+  private final AtomicInteger includeRootsCounter = new AtomicInteger();
+  private final Map<RootsLookup, Optional<Path>> rootsLookups = new ConcurrentHashMap<>();
+  private final Map<File, File> canonicalFiles = new ConcurrentHashMap<>();
+
+  /**
+   * Returns a key identifying a list of include roots. Lists with the same content get the same key.
+   *
+   * @param roots include roots in search order
+   * @return key to be used with {@link #findInIncludeRoots}
+   */
+  public int getIncludeRootsId(List<Path> roots) {
+    return includeRoots.computeIfAbsent(List.copyOf(roots), k -> includeRootsCounter.getAndIncrement());
+  }
+
+  /**
+   * Searches a file in a list of include roots.
+   *
+   * @param roots include roots in search order
+   * @param rootsId key of the include roots, see {@link #getIncludeRootsId}
+   * @param filename relative name of the file to search for
+   * @return first matching file or null if it does not exist in any of the include roots
+   */
+  @CheckForNull
+  public File findInIncludeRoots(List<Path> roots, int rootsId, String filename) {
+    return rootsLookups.computeIfAbsent(new RootsLookup(rootsId, filename), k -> {
+      for (var root : roots) {
+        var abspath = root.resolve(filename);
+        if (isFile(abspath)) {
+          return Optional.of(abspath);
+        }
+      }
+      return Optional.empty();
+    }).map(Path::toFile).orElse(null);
+  }
+
+  /**
+   * Cached variant of {@link Files#isRegularFile}.
+   */
+  public boolean isFile(File file) {
+    try {
+      return isFile(file.toPath());
+    } catch (InvalidPathException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Cached variant of {@link Files#isRegularFile}.
+   */
+  public boolean isFile(Path path) {
+    var result = files.get(path);
+    if (result == null) {
+      result = probe(path);
+      files.put(path, result);
+    }
+    return result;
+  }
+
+  /**
+   * Cached variant of {@link File#getCanonicalFile}. In case of an error the file is returned unchanged.
+   */
+  public File getCanonicalFile(File file) {
+    var result = canonicalFiles.get(file);
+    if (result == null) {
+      try {
+        result = file.getCanonicalFile();
+      } catch (IOException e) {
+        LOG.error("preprocessor: cannot get canonical form of: '{}'", file);
+        result = file;
+      }
+      canonicalFiles.put(file, result);
+    }
+    return result;
+  }
+
+  private boolean probe(Path path) {
+    var parent = path.getParent();
+    var name = path.getFileName();
+    if (parent != null && name != null) {
+      var listing = directories.computeIfAbsent(parent, DirectoryListing::read);
+      if (listing.excludes(name.toString())) {
+        return false;
+      }
+    }
+    return Files.isRegularFile(path);
+  }
+
+  private static class DirectoryListing {
+
+    private static final DirectoryListing UNKNOWN = new DirectoryListing(null);
+    private static final DirectoryListing EMPTY = new DirectoryListing(Collections.emptySet());
+
+    @CheckForNull
+    private final Set<String> names;
+    private final Set<String> lowerCaseNames = new HashSet<>();
+
+    private DirectoryListing(@CheckForNull Set<String> names) {
+      this.names = names;
+      if (names != null) {
+        for (var name : names) {
+          lowerCaseNames.add(name.toLowerCase(Locale.ROOT));
+        }
+      }
+    }
+
+    static DirectoryListing read(Path dir) {
+      try ( var stream = Files.newDirectoryStream(dir)) {
+        var names = new HashSet<String>();
+        for (var entry : stream) {
+          names.add(entry.getFileName().toString());
+        }
+        return new DirectoryListing(names);
+      } catch (NoSuchFileException | NotDirectoryException e) {
+        return EMPTY;
+      } catch (IOException | DirectoryIteratorException | SecurityException e) {
+        // directory cannot be listed: fall back to probe each file
+        return UNKNOWN;
+      }
+    }
+
+    /**
+     * True if the name is definitely not contained in the directory. The check is done case insensitive too, to
+     * support file systems which ignore the case.
+     */
+    boolean excludes(String name) {
+      return names != null && !names.contains(name) && !lowerCaseNames.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+  }
+
+  private static class RootsLookup {
+
+    private final int rootsId;
+    private final String filename;
+
+    RootsLookup(int rootsId, String filename) {
+      this.rootsId = rootsId;
+      this.filename = filename;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj == null || getClass() != obj.getClass()) {
+        return false;
+      }
+      var other = (RootsLookup) obj;
+      return rootsId == other.rootsId && filename.equals(other.filename);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(rootsId, filename);
+    }
+
+  }
+
+}
@@ -24,6 +24,7 @@ import com.sonar.sslr.impl.Lexer;
 import com.sonar.sslr.impl.channel.BlackHoleChannel;
 import static com.sonar.sslr.impl.channel.RegexpChannelBuilder.ANY_CHAR;
 import static com.sonar.sslr.impl.channel.RegexpChannelBuilder.commentRegexp;
+import java.nio.charset.Charset;
 import org.sonar.cxx.channels.PreprocessorChannel;
 import org.sonar.cxx.config.CxxSquidConfiguration;
 
@@ -33,12 +34,16 @@ public final class IncludeLexer {
   }
 
   public static Lexer create(Preprocessor... preprocessors) {
-    return create(new CxxSquidConfiguration(), preprocessors);
+    return create(Charset.defaultCharset(), preprocessors);
   }
 
   public static Lexer create(CxxSquidConfiguration squidConfig, Preprocessor... preprocessors) {
+    return create(squidConfig.getCharset(), preprocessors);
+  }
+
+  public static Lexer create(Charset charset, Preprocessor... preprocessors) {
     var builder = Lexer.builder()
-      .withCharset(squidConfig.getCharset())
+      .withCharset(charset)
       .withFailIfNoChannelToConsumeOneCharacter(true)
       .withChannel(new BlackHoleChannel("\\s"))
       .withChannel(new PreprocessorChannel())
@@ -31,6 +31,9 @@ import static org.sonar.cxx.parser.CxxTokenType.STRING;
 
 public final class Macro {
 
+  // all standard macros share the same (empty) URI
+  private static final URI PREDEFINED_URI = URI.create("");
+
   public final String name;
   public final List<Token> params;
   public final List<Token> body;
@@ -63,7 +66,7 @@ public final class Macro {
     this.body = Collections.singletonList(Token.builder()
       .setLine(1)
       .setColumn(0)
-      .setURI(URI.create(""))
+      .setURI(PREDEFINED_URI)
       .setValueAndOriginalValue(body)
       .setType(STRING)
       .build());
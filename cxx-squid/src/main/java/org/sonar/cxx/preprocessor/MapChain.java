@@ -21,20 +21,42 @@ package org.sonar.cxx.preprocessor;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * MapChain
  *
+ * A map with two layers: an optional, immutable and shared parent layer and a (small) modifiable overlay. Changes
+ * (put, remove, disable) are recorded in the overlay only, lookups fall through to the parent layer. This makes it
+ * possible to share one parent layer (e.g. the global macros) between many instances (e.g. one per translation unit)
+ * without copying it.
+ *
  * @param <K>
  * @param <V>
  *
  */
 public class MapChain<K, V> {
 
+  private final Map<K, V> parent;
   private final Map<K, V> enabled = new HashMap<>();
-  private final Map<K, V> disabled = new HashMap<>();
+  private final Set<K> disabled = new HashSet<>();
+  private final Set<K> removed = new HashSet<>();
+
+  public MapChain() {
+    this(Collections.emptyMap());
+  }
+
+  /**
+   * Create a new chain on top of a parent layer.
+   *
+   * @param parent immutable parent layer, the map is not copied and must not be changed afterwards
+   */
+  public MapChain(Map<K, V> parent) {
+    this.parent = parent;
+  }
 
   /**
    * get
@@ -43,7 +65,10 @@ public class MapChain<K, V> {
    * @return V
    */
   public V get(Object key) {
-    return enabled.get(key);
+    if (disabled.contains(key)) {
+      return null;
+    }
+    return lookup(key);
   }
 
   /**
@@ -54,16 +79,16 @@ public class MapChain<K, V> {
    * @return V
    */
   public V put(K key, V value) {
-    return enabled.put(key, value);
+    V previous = lookup(key);
+    enabled.put(key, value);
+    removed.remove(key);
+    return previous;
   }
 
   public void putAll(Map<K, V> m) {
-    enabled.putAll(m);
-  }
-
-  public void putAll(MapChain<K, V> m) {
-    enabled.putAll(m.enabled);
-    disabled.putAll(m.disabled);
+    for (var entry : m.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
   }
 
   /**
@@ -73,7 +98,12 @@ public class MapChain<K, V> {
    * @return V
    */
   public V remove(K key) {
-    return enabled.remove(key);
+    V previous = lookup(key);
+    enabled.remove(key);
+    if (parent.containsKey(key)) {
+      removed.add(key);
+    }
+    return previous;
   }
 
   /**
@@ -82,6 +112,8 @@ public class MapChain<K, V> {
   public void clear() {
     enabled.clear();
     disabled.clear();
+    removed.clear();
+    removed.addAll(parent.keySet());
   }
 
   /**
@@ -90,7 +122,9 @@ public class MapChain<K, V> {
    * @param key
    */
   public void disable(K key) {
-    move(key, enabled, disabled);
+    if (get(key) != null) {
+      disabled.add(key);
+    }
   }
 
   /**
@@ -99,26 +133,36 @@ public class MapChain<K, V> {
    * @param key
    */
   public void enable(K key) {
-    move(key, disabled, enabled);
+    disabled.remove(key);
   }
 
+  /**
+   * Returns a snapshot of all enabled entries (parent layer and overlay).
+   *
+   * Attention: this copies the whole map and should not be used in performance critical code.
+   */
   public Map<K, V> getMap() {
-    return Collections.unmodifiableMap(enabled);
+    var result = new HashMap<K, V>(parent);
+    result.keySet().removeAll(removed);
+    result.putAll(enabled);
+    result.keySet().removeAll(disabled);
+    return Collections.unmodifiableMap(result);
   }
 
   @Override
   public String toString() {
-    String mapAsString = enabled.values().stream()
+    String mapAsString = getMap().values().stream()
       .map(value -> value.toString())
       .collect(Collectors.joining(", ", "[", "]"));
     return mapAsString;
   }
 
-  private void move(K key, Map<K, V> from, Map<K, V> to) {
-    V value = from.remove(key);
-    if (value != null) {
-      to.put(key, value);
+  private V lookup(Object key) {
+    V value = enabled.get(key);
+    if (value == null && !removed.contains(key)) {
+      value = parent.get(key);
     }
+    return value;
   }
 
 }
@@ -0,0 +1,145 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import com.sonar.sslr.api.Token;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+
+/**
+ * Per file limits for the preprocessing of a translation unit: time, number of processed tokens (tokens of the file,
+ * of the included files and of the macro expansions) and nesting depth of macro expansions. A limit of 0 means
+ * unlimited.
+ *
+ * Once a limit is exceeded, each further call throws again: the exception can be caught on the way up (e.g. while
+ * evaluating an #if expression) but the file is abandoned anyway.
+ */
+class ParseBudget {
+
+  // check the time only every n-th token
+  private static final int TIME_CHECK_INTERVAL = 1024;
+
+  private final long timeoutNanos;
+  private final long tokenLimit;
+  private final int expansionDepthLimit;
+  private final boolean enabled;
+
+  private long deadline = 0;
+  private long tokens = 0;
+  private int expansionDepth = 0;
+  private int expansionLine = 0;
+  private String exceeded = null;
+
+  ParseBudget(CxxSquidConfiguration squidConfig) {
+    this(squidConfig.getLong(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.PARSE_TIMEOUT)
+      .orElse(0L) * 1_000_000_000L,
+         squidConfig.getLong(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.PARSE_TOKEN_LIMIT)
+           .orElse(0L),
+         squidConfig.getInt(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
+                            CxxSquidConfiguration.MACRO_EXPANSION_DEPTH_LIMIT).orElse(0));
+  }
+
+  ParseBudget(long timeoutNanos, long tokenLimit, int expansionDepthLimit) {
+    this.timeoutNanos = Math.max(timeoutNanos, 0);
+    this.tokenLimit = Math.max(tokenLimit, 0);
+    this.expansionDepthLimit = Math.max(expansionDepthLimit, 0);
+    this.enabled = this.timeoutNanos > 0 || this.tokenLimit > 0 || this.expansionDepthLimit > 0;
+  }
+
+  /**
+   * Start the budget of a new file.
+   */
+  void start() {
+    tokens = 0;
+    expansionDepth = 0;
+    exceeded = null;
+    if (timeoutNanos > 0) {
+      deadline = System.nanoTime() + timeoutNanos;
+    }
+  }
+
+  /**
+   * Account a token processed by the preprocessor.
+   *
+   * @param token processed token
+   * @param inFile token is from the file under analysis (not from an include file)
+   */
+  void consumeToken(Token token, boolean inFile) {
+    if (!enabled) {
+      return;
+    }
+    int line = getLine(token, inFile);
+    checkExceeded(line);
+    tokens++;
+    if (tokenLimit > 0 && tokens > tokenLimit) {
+      exceeded(line, "more than " + tokenLimit + " tokens");
+    }
+    if (timeoutNanos > 0 && (tokens % TIME_CHECK_INTERVAL) == 0 && System.nanoTime() > deadline) {
+      exceeded(line, "more than " + timeoutNanos / 1_000_000_000L + " seconds");
+    }
+  }
+
+  /**
+   * Enter the expansion of a macro.
+   *
+   * @param token macro instance
+   * @param inFile token is from the file under analysis (not from an include file)
+   */
+  void enterExpansion(Token token, boolean inFile) {
+    if (expansionDepth == 0) {
+      expansionLine = inFile ? token.getLine() : 0;
+    }
+    expansionDepth++;
+    if (!enabled) {
+      return;
+    }
+    checkExceeded(expansionLine);
+    if (expansionDepthLimit > 0 && expansionDepth > expansionDepthLimit) {
+      exceeded(expansionLine,
+               "macro expansion depth of more than " + expansionDepthLimit + " at '" + token.getValue() + "'");
+    }
+  }
+
+  void leaveExpansion() {
+    expansionDepth--;
+  }
+
+  /**
+   * Line in the file under analysis: line of the token or of the outermost macro instance, 0 if the token is from an
+   * include file.
+   */
+  private int getLine(Token token, boolean inFile) {
+    if (expansionDepth > 0) {
+      return expansionLine;
+    }
+    return inFile ? token.getLine() : 0;
+  }
+
+  private void checkExceeded(int line) {
+    if (exceeded != null) {
+      throw new ParseBudgetExceededException(line, exceeded);
+    }
+  }
+
+  private void exceeded(int line, String reason) {
+    exceeded = "Parse budget exceeded: " + reason + ", the file is not analyzed";
+    throw new ParseBudgetExceededException(line, exceeded);
+  }
+
+}
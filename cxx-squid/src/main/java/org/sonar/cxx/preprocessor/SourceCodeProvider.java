@@ -20,7 +20,6 @@
 package org.sonar.cxx.preprocessor;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
@@ -33,8 +32,6 @@ import java.util.List;
 import java.util.Objects;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
-import org.apache.commons.io.ByteOrderMark;
-import org.apache.commons.io.input.BOMInputStream;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 
@@ -48,16 +45,31 @@ public class SourceCodeProvider {
   private static final Logger LOG = Loggers.get(SourceCodeProvider.class);
 
   private final List<Path> includeRoots = new LinkedList<>();
+  private int includeRootsId;
   private final Deque<State> ppState = new LinkedList<>();
   private final File contextFile;
+  private final IncludeFileCache cache;
+  private final SourceCodeReader reader;
   private String fileUnderAnalysisPath;
 
   public SourceCodeProvider(File contextFile) {
+    this(contextFile, new IncludeFileCache(), new SourceCodeReader());
+  }
+
+  /**
+   * @param contextFile file under analysis
+   * @param cache cache for file system lookups, can be shared between all translation units of a project
+   * @param reader reader for the content of source files, can be shared between all translation units of a thread
+   */
+  public SourceCodeProvider(File contextFile, IncludeFileCache cache, SourceCodeReader reader) {
     // In case "physical" file is preprocessed, SquidAstVisitorContext::getFile() cannot return null.
     // Did you forget to setup the mock properly?
     Objects.requireNonNull(contextFile, "SquidAstVisitorContext::getFile() must be non-null!");
+    this.cache = cache;
+    this.reader = reader;
     pushFileState(contextFile);
     this.contextFile = contextFile;
+    includeRootsId = cache.getIncludeRootsId(includeRoots);
   }
 
   public void setIncludeRoots(List<String> roots, String baseDir) {
@@ -78,6 +90,7 @@ public class SourceCodeProvider {
         LOG.error("preprocessor: invalid include file directory '{}'", path.toString());
       }
     }
+    includeRootsId = cache.getIncludeRootsId(includeRoots);
   }
 
   public List<Path> getIncludeRoots() {
@@ -146,7 +159,7 @@ public class SourceCodeProvider {
     // If the file name is fully specified for an include file that has a path that includes a colon
     // (for example F:\MSVC\SPECIAL\INCL\TEST.H) the preprocessor follows the path.
     if (file.isAbsolute()) {
-      if (file.isFile()) {
+      if (cache.isFile(file)) {
         result = file;
       }
     } else {
@@ -157,7 +170,7 @@ public class SourceCodeProvider {
           cwd = ".";
         }
         var abspath = new File(new File(cwd), file.getPath());
-        if (abspath.isFile()) {
+        if (cache.isFile(abspath)) {
           // 1) In the same directory as the file that contains the #include statement.
           result = abspath;
         } else {
@@ -169,7 +182,7 @@ public class SourceCodeProvider {
           for (var parent : ppState) {
             if (parent.fileUnderAnalysis != contextFile) {
               abspath = new File(parent.fileUnderAnalysis.getParentFile(), file.getPath());
-              if (abspath.exists()) {
+              if (cache.isFile(abspath)) {
                 result = abspath;
                 break;
               }
@@ -181,39 +194,19 @@ public class SourceCodeProvider {
       // Angle-bracket form: lookup relative to to the include roots.
       // The quoted case falls back to this, if its special handling wasn't successful.
       if (result == null) {
-        for (var path : includeRoots) {
-          var abspath = path.resolve(filename);
-          if (Files.isRegularFile(abspath)) {
-            result = abspath.toFile();
-            break;
-          }
-        }
+        result = cache.findInIncludeRoots(includeRoots, includeRootsId, filename);
       }
     }
 
     if (result != null) {
-      try {
-        result = result.getCanonicalFile();
-      } catch (java.io.IOException e) {
-        LOG.error("preprocessor: cannot get canonical form of: '{}'", result);
-      }
+      result = cache.getCanonicalFile(result);
     }
 
     return result;
   }
 
   public String getSourceCode(File file, Charset defaultCharset) throws IOException {
-    try ( var bomInputStream = new BOMInputStream(new FileInputStream(file),
-                                              ByteOrderMark.UTF_8,
-                                              ByteOrderMark.UTF_16LE,
-                                              ByteOrderMark.UTF_16BE,
-                                              ByteOrderMark.UTF_32LE,
-                                              ByteOrderMark.UTF_32BE)) {
-      ByteOrderMark bom = bomInputStream.getBOM();
-      Charset charset = bom != null ? Charset.forName(bom.getCharsetName()) : defaultCharset;
-      byte[] bytes = bomInputStream.readAllBytes();
-      return new String(bytes, charset);
-    }
+    return reader.read(file, defaultCharset);
   }
 
   private static class State {
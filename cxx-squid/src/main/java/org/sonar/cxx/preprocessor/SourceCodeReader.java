@@ -0,0 +1,146 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the content of source files for the preprocessor.
+ *
+ * Small files are read into a reused byte buffer, big files (e.g. generated headers) are memory mapped. A byte order
+ * mark (BOM) is detected from the bytes and overrides the default charset. The bytes are decoded into a reused
+ * character buffer, so the only allocation per file is the resulting string.
+ *
+ * Instances are not thread safe, use one instance per preprocessor.
+ */
+public class SourceCodeReader {
+
+  private static final int MAP_THRESHOLD = 1024 * 1024;
+  private static final int MAX_RETAINED_CHARS = 4 * 1024 * 1024;
+
+  private static final Charset UTF_32LE = Charset.forName("UTF-32LE");
+  private static final Charset UTF_32BE = Charset.forName("UTF-32BE");
+
+  private final Map<Charset, CharsetDecoder> decoders = new HashMap<>();
+  private ByteBuffer bytes = ByteBuffer.allocate(0);
+  private CharBuffer chars = CharBuffer.allocate(0);
+
+  /**
+   * Read the content of a file.
+   *
+   * @param file file to read
+   * @param defaultCharset charset to use if the file has no BOM
+   * @return content of the file without BOM
+   * @throws IOException if the file cannot be read
+   */
+  public String read(File file, Charset defaultCharset) throws IOException {
+    try ( var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("file '" + file + "' is too large");
+      }
+      ByteBuffer content;
+      if (size >= MAP_THRESHOLD) {
+        content = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      } else {
+        content = readFully(channel, (int) size);
+      }
+      var charset = detectCharset(content, defaultCharset);
+      return decode(content, charset);
+    }
+  }
+
+  private ByteBuffer readFully(FileChannel channel, int size) throws IOException {
+    if (bytes.capacity() < size) {
+      bytes = ByteBuffer.allocate(size);
+    }
+    bytes.clear().limit(size);
+    while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+      // read until end of file
+    }
+    return bytes.flip();
+  }
+
+  /**
+   * Detects the BOM and moves the position of the buffer behind it.
+   */
+  static Charset detectCharset(ByteBuffer content, Charset defaultCharset) {
+    int pos = content.position();
+    int length = content.remaining();
+    int b0 = length > 0 ? content.get(pos) & 0xFF : -1;
+    int b1 = length > 1 ? content.get(pos + 1) & 0xFF : -1;
+    int b2 = length > 2 ? content.get(pos + 2) & 0xFF : -1;
+    int b3 = length > 3 ? content.get(pos + 3) & 0xFF : -1;
+
+    // longest BOMs first: UTF-32LE starts with the UTF-16LE BOM
+    if (b0 == 0xFF && b1 == 0xFE && b2 == 0x00 && b3 == 0x00) {
+      content.position(pos + 4);
+      return UTF_32LE;
+    }
+    if (b0 == 0x00 && b1 == 0x00 && b2 == 0xFE && b3 == 0xFF) {
+      content.position(pos + 4);
+      return UTF_32BE;
+    }
+    if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+      content.position(pos + 3);
+      return StandardCharsets.UTF_8;
+    }
+    if (b0 == 0xFF && b1 == 0xFE) {
+      content.position(pos + 2);
+      return StandardCharsets.UTF_16LE;
+    }
+    if (b0 == 0xFE && b1 == 0xFF) {
+      content.position(pos + 2);
+      return StandardCharsets.UTF_16BE;
+    }
+    return defaultCharset;
+  }
+
+  private String decode(ByteBuffer content, Charset charset) {
+    var decoder = decoders.computeIfAbsent(charset, c -> c.newDecoder()
+                                           .onMalformedInput(CodingErrorAction.REPLACE)
+                                           .onUnmappableCharacter(CodingErrorAction.REPLACE));
+    decoder.reset();
+    int capacity = (int) Math.ceil(content.remaining() * (double) decoder.maxCharsPerByte()) + 1;
+    var target = chars;
+    if (target.capacity() < capacity) {
+      target = CharBuffer.allocate(capacity);
+      if (capacity <= MAX_RETAINED_CHARS) {
+        chars = target;
+      }
+    }
+    target.clear();
+    decoder.decode(content, target, true);
+    decoder.flush(target);
+    return target.flip().toString();
+  }
+
+}
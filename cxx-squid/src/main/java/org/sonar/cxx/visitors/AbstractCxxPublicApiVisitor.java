@@ -20,19 +20,24 @@
 package org.sonar.cxx.visitors;
 
 import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.Grammar;
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.impl.ast.AstXmlPrinter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.parser.CxxGrammarImpl;
 import org.sonar.cxx.parser.CxxKeyword;
 import org.sonar.cxx.parser.CxxPunctuator;
+import org.sonar.cxx.squidbridge.SelectiveVisitor;
 import org.sonar.cxx.squidbridge.checks.SquidCheck;
 
 /**
@@ -58,6 +63,10 @@ import org.sonar.cxx.squidbridge.checks.SquidCheck;
  * Currently, no filtering is applied using preprocessing directive, e.g <code>#define DLLEXPORT</code>.<br>
  * <p>
  * Limitation: only "in front of the declaration" comments are considered.
+ * <p>
+ * The visitor is only active for files with one of the header file suffixes. The enclosing classes, templates and
+ * function definitions and the access specifiers in effect are tracked in a single top-down pass (no search of
+ * ancestors and previous siblings for each item).
  *
  * @see <a href="http://www.stack.nl/~dimitri/doxygen/manual/docblocks.html">
  * Doxygen Manual: Documenting the code</a>
@@ -66,7 +75,8 @@ import org.sonar.cxx.squidbridge.checks.SquidCheck;
  *
  * @param <G>
  */
-public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends SquidCheck<G> {
+public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends SquidCheck<G>
+  implements SelectiveVisitor {
 
   private static final Logger LOG = Loggers.get(AbstractCxxPublicApiVisitor.class);
 
@@ -82,6 +92,12 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
   private String[] headerFileSuffixes = null;
   protected boolean skipFile = true;
 
+  // enclosing classes, templates and function definitions, innermost first
+  private final Deque<Scope> scopes = new ArrayDeque<>();
+  private final Deque<AstNode> linkageSpecifications = new ArrayDeque<>();
+  private int functionBodyDepth = 0;
+  private int memberDeclarationDepth = 0;
+
   private static boolean isTypedef(AstNode declaratorList) {
     var simpleDeclSpezifierSeq = declaratorList.getPreviousSibling();
     if (simpleDeclSpezifierSeq != null) {
@@ -247,61 +263,77 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
     return comments;
   }
 
-  private static boolean isPublicApiMember(AstNode node) {
-    AstNode access = node;
+  /**
+   * Check if a node is part of the public API: the access specifier in effect is the last one of the innermost
+   * enclosing class having one. Without access specifier, members of a struct or union have the access level of the
+   * struct or union, members of a class are private.
+   */
+  private boolean isPublicApiMember(AstNode node) {
+    for (var scope : scopes) {
+      if (scope.access != null) {
+        return scope.access.getToken().getType().equals(CxxKeyword.PUBLIC)
+                 || scope.access.getToken().getType().equals(CxxKeyword.PROTECTED);
+      }
+    }
 
-    // retrieve the accessSpecifier
-    do {
-      access = access.getPreviousAstNode();
-    } while (access != null
-               && !access.getType().equals(CxxGrammarImpl.accessSpecifier));
+    for (var scope : scopes) {
+      if (!scope.node.is(CxxGrammarImpl.classSpecifier)) {
+        continue;
+      }
+      if (scope.classKey == null) {
+        LOG.error("isPublicApiMember: failed to get enclosing classSpecifier for node at {}",
+                  node.getTokenLine());
+        return false;
+      }
+      var type = scope.classKey.getToken().getType();
+      if (type.equals(CxxKeyword.CLASS)) {
+        // default access in classes is private
+        return false;
+      } else if (!type.equals(CxxKeyword.STRUCT) && !type.equals(CxxKeyword.UNION)) {
+        LOG.error("isPublicApiMember unhandled case: {} at {}", scope.classKey.getType(),
+                  scope.classKey.getTokenLine());
+        return false;
+      }
+      // struct and union members have public access, thus access level
+      // is the access level of the enclosing classSpecifier
+    }
 
-    if (access != null) {
-      return access.getToken().getType().equals(CxxKeyword.PUBLIC)
-               || access.getToken().getType().equals(CxxKeyword.PROTECTED);
-    } else {
-      AstNode classSpecifier = node
-        .getFirstAncestor(CxxGrammarImpl.classSpecifier);
+    if (node.is(CxxGrammarImpl.functionDefinition)) {
+      // filter out function definitions with nested name specifier: should be documented inside of class
+      var declarator = node.getFirstChild(CxxGrammarImpl.declarator);
+      if ((declarator != null) && declarator.hasDescendant(CxxGrammarImpl.nestedNameSpecifier)) {
+        return false;
+      }
+    }
 
-      if (classSpecifier != null) {
+    return true;
+  }
 
-        AstNode enclosingSpecifierNode = classSpecifier
-          .getFirstDescendant(CxxKeyword.STRUCT, CxxKeyword.CLASS,
-                              CxxKeyword.ENUM, CxxKeyword.UNION);
-
-        if (enclosingSpecifierNode != null) {
-          var type = enclosingSpecifierNode.getToken().getType();
-          if (type.equals(CxxKeyword.STRUCT) || type.equals(CxxKeyword.UNION)) {
-            // struct and union members have public access, thus access level
-            // is the access level of the enclosing classSpecifier
-            return isPublicApiMember(classSpecifier);
-
-          } else if (type.equals(CxxKeyword.CLASS)) {
-            // default access in classes is private
-            return false;
-
-          } else {
-            LOG.error("isPublicApiMember unhandled case: {} at {}", enclosingSpecifierNode.getType(),
-                      enclosingSpecifierNode.getTokenLine());
-            return false;
-          }
-        } else {
-          LOG.error("isPublicApiMember: failed to get enclosing classSpecifier for node at {}",
-                    node.getTokenLine());
-          return false;
-        }
+  /**
+   * Innermost enclosing class, template or function definition of one of the given types.
+   */
+  @CheckForNull
+  private AstNode getEnclosing(AstNodeType... types) {
+    for (var scope : scopes) {
+      if (scope.node.is(types)) {
+        return scope.node;
       }
+    }
+    return null;
+  }
 
-      if (node.is(CxxGrammarImpl.functionDefinition)) {
-        // filter out function definitions with nested name specifier: should be documented inside of class
-        var declarator = node.getFirstChild(CxxGrammarImpl.declarator);
-        if ((declarator != null) && declarator.hasDescendant(CxxGrammarImpl.nestedNameSpecifier)) {
-          return false;
-        }
+  /**
+   * Cascaded template declarations: the template declaration followed by its enclosing template declarations.
+   */
+  private List<AstNode> getTemplateDeclarations(AstNode templateDeclaration) {
+    var result = new ArrayList<AstNode>();
+    result.add(templateDeclaration);
+    for (var scope : scopes) {
+      if (scope.node != templateDeclaration && scope.node.is(CxxGrammarImpl.templateDeclaration)) {
+        result.add(scope.node);
       }
-
-      return true;
     }
+    return result;
   }
 
   /**
@@ -364,12 +396,20 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
       CxxGrammarImpl.functionDefinition,
       CxxGrammarImpl.enumSpecifier,
       CxxGrammarImpl.initDeclaratorList,
-      CxxGrammarImpl.aliasDeclaration);
+      CxxGrammarImpl.aliasDeclaration,
+      CxxGrammarImpl.accessSpecifier,
+      CxxGrammarImpl.templateDeclaration,
+      CxxGrammarImpl.functionBody,
+      CxxGrammarImpl.linkageSpecification);
   }
 
   @Override
   public void visitFile(AstNode astNode) {
     skipFile = true;
+    scopes.clear();
+    linkageSpecifications.clear();
+    functionBodyDepth = 0;
+    memberDeclarationDepth = 0;
 
     if (headerFileSuffixes != null) {
       for (var suffix : headerFileSuffixes) {
@@ -386,6 +426,11 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
 
   }
 
+  @Override
+  public boolean isVisitingFile() {
+    return !skipFile;
+  }
+
   @Override
   public void visitNode(AstNode astNode) {
     if (skipFile) {
@@ -395,12 +440,16 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
     switch ((CxxGrammarImpl) astNode.getType()) {
       case classSpecifier:
         visitClassSpecifier(astNode);
+        scopes.push(new Scope(astNode, astNode.getFirstDescendant(CxxKeyword.STRUCT, CxxKeyword.CLASS,
+                                                                  CxxKeyword.ENUM, CxxKeyword.UNION)));
         break;
       case memberDeclaration:
         visitMemberDeclaration(astNode);
+        memberDeclarationDepth++;
         break;
       case functionDefinition:
         visitFunctionDefinition(astNode);
+        scopes.push(new Scope(astNode, null));
         break;
       case enumSpecifier:
         visitEnumSpecifier(astNode);
@@ -411,6 +460,21 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
       case aliasDeclaration:
         visitAliasDeclaration(astNode);
         break;
+      case accessSpecifier:
+        // access specifiers of base classes are not relevant
+        if (astNode.getParent().is(CxxGrammarImpl.memberSpecification) && !scopes.isEmpty()) {
+          scopes.peek().access = astNode;
+        }
+        break;
+      case templateDeclaration:
+        scopes.push(new Scope(astNode, null));
+        break;
+      case functionBody:
+        functionBodyDepth++;
+        break;
+      case linkageSpecification:
+        linkageSpecifications.push(astNode);
+        break;
       default:
         // should not happen
         LOG.error("visiting unknown node: {}", astNode.getType());
@@ -418,6 +482,32 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
     }
   }
 
+  @Override
+  public void leaveNode(AstNode astNode) {
+    if (skipFile) {
+      return;
+    }
+
+    switch ((CxxGrammarImpl) astNode.getType()) {
+      case classSpecifier:
+      case functionDefinition:
+      case templateDeclaration:
+        scopes.pop();
+        break;
+      case memberDeclaration:
+        memberDeclarationDepth--;
+        break;
+      case functionBody:
+        functionBodyDepth--;
+        break;
+      case linkageSpecification:
+        linkageSpecifications.pop();
+        break;
+      default:
+        break;
+    }
+  }
+
   private void visitPublicApi(AstNode node, String id, List<Token> comments) {
     var doxygenComments = new ArrayList<Token>();
 
@@ -434,18 +524,12 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
   private void visitDeclaratorList(AstNode declaratorList) {
 
     // do not handle declaration in function body
-    AstNode functionBody = declaratorList
-      .getFirstAncestor(CxxGrammarImpl.functionBody);
-
-    if (functionBody != null) {
+    if (functionBodyDepth > 0) {
       return;
     }
 
     // do not handle member declarations here
-    AstNode memberDeclaration = declaratorList
-      .getFirstAncestor(CxxGrammarImpl.memberDeclaration);
-
-    if (memberDeclaration != null) {
+    if (memberDeclarationDepth > 0) {
       return;
     }
 
@@ -490,8 +574,7 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
     // in case of function declaration,
     // the docNode is set on the declaration node
     if (params != null) {
-      AstNode linkageSpecification = declaration
-        .getFirstAncestor(CxxGrammarImpl.linkageSpecification);
+      AstNode linkageSpecification = linkageSpecifications.peek();
       if (linkageSpecification != null) {
         if (linkageSpecification.hasDirectChildren(CxxPunctuator.CURLBR_LEFT)) {
           docNode = declaration; // extern "C" { ... }
@@ -521,7 +604,7 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
   private void visitDeclarator(AstNode declarator, AstNode docNode) {
 
     // check if this is a template specification to adjust documentation node
-    var templateDeclaration = declarator.getFirstAncestor(CxxGrammarImpl.templateDeclaration);
+    var templateDeclaration = getEnclosing(CxxGrammarImpl.templateDeclaration);
     if (templateDeclaration != null) {
       visitTemplateDeclaration(templateDeclaration);
     } else {
@@ -547,7 +630,7 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
   private void visitClassSpecifier(AstNode classSpecifier) {
 
     // check if this is a template specification to adjust documentation node
-    var docNode = classSpecifier.getFirstAncestor(CxxGrammarImpl.templateDeclaration);
+    var docNode = getEnclosing(CxxGrammarImpl.templateDeclaration);
     if (docNode == null) {
       // check if this is a typedef to adjust documentation node
       docNode = getTypedefNode(classSpecifier);
@@ -587,32 +670,21 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
 
   private void visitMemberDeclaration(AstNode memberDeclaration) {
 
-    // check if this is a template specification to adjust documentation node
-    var templateDeclaration = memberDeclaration.getFirstDescendant(CxxGrammarImpl.templateDeclaration);
-    AstNode declaratorList = null;
-    if (templateDeclaration == null) {
-      declaratorList = memberDeclaration.getFirstDescendant(CxxGrammarImpl.memberDeclaratorList);
-    }
-
     if (!isPublicApiMember(memberDeclaration)) {
       // if not part of the API, nothing to measure
       return;
     }
 
-    AstNode subclassSpecifier = memberDeclaration
-      .getFirstDescendant(CxxGrammarImpl.classSpecifier);
-
-    if (subclassSpecifier != null) {
-      // sub classes are handled by subscription
+    if (memberDeclaration.hasDescendant(CxxGrammarImpl.classSpecifier, CxxGrammarImpl.functionDefinition)) {
+      // sub classes and functionDef are handled by subscription
       return;
     }
 
-    AstNode functionDef = memberDeclaration
-      .getFirstDescendant(CxxGrammarImpl.functionDefinition);
-
-    if (functionDef != null) {
-      // functionDef are handled by subscription
-      return;
+    // check if this is a template specification to adjust documentation node
+    var templateDeclaration = memberDeclaration.getFirstDescendant(CxxGrammarImpl.templateDeclaration);
+    AstNode declaratorList = null;
+    if (templateDeclaration == null) {
+      declaratorList = memberDeclaration.getFirstDescendant(CxxGrammarImpl.memberDeclaratorList);
     }
 
     if (templateDeclaration != null) {
@@ -651,17 +723,15 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
       .collect(Collectors.joining());
 
     // handle cascaded template declarations
-    AstNode node = templateDeclaration;
-    AstNode currNode = node;
-    List<Token> comments;
-    do {
+    AstNode currNode = templateDeclaration;
+    List<Token> comments = new ArrayList<>();
+    for (var node : getTemplateDeclarations(templateDeclaration)) {
       comments = getBlockDocumentation(node);
       if (!comments.isEmpty()) {
         currNode = node;
         break;
       }
-      node = node.getFirstAncestor(CxxGrammarImpl.templateDeclaration);
-    } while (node != null);
+    }
 
     visitPublicApi(currNode, id, comments);
   }
@@ -695,23 +765,21 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
       return;
     }
 
-    var container = node.getFirstAncestor(
+    var container = getEnclosing(
       CxxGrammarImpl.templateDeclaration,
       CxxGrammarImpl.classSpecifier);
 
-    AstNode docNode = node;
-    List<Token> comments;
+    List<Token> comments = new ArrayList<>();
 
     if (container == null || container.getType().equals(CxxGrammarImpl.classSpecifier)) {
-      comments = getBlockDocumentation(docNode);
+      comments = getBlockDocumentation(node);
     } else { // template
-      do {
-        comments = getBlockDocumentation(container);
+      for (var templateDeclaration : getTemplateDeclarations(container)) {
+        comments = getBlockDocumentation(templateDeclaration);
         if (!comments.isEmpty()) {
           break;
         }
-        container = container.getFirstAncestor(CxxGrammarImpl.templateDeclaration);
-      } while (container != null);
+      }
     }
 
     // documentation may be inlined
@@ -751,7 +819,7 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
   }
 
   private void visitAliasDeclaration(AstNode aliasDeclNode) {
-    var parent = aliasDeclNode.getFirstAncestor(
+    var parent = getEnclosing(
       CxxGrammarImpl.functionDefinition,
       CxxGrammarImpl.classSpecifier);
 
@@ -769,7 +837,7 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
       } else {
         // Check if this is a template specification to adjust
         // documentation node
-        var container = aliasDeclNode.getFirstAncestor(
+        var container = getEnclosing(
           CxxGrammarImpl.templateDeclaration,
           CxxGrammarImpl.classSpecifier);
 
@@ -849,4 +917,22 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
 
   protected abstract void onPublicApi(AstNode node, String id, List<Token> comments);
 
+  /**
+   * Enclosing class, template declaration or function definition.
+   */
+  private static class Scope {
+
+    private final AstNode node;
+    @Nullable
+    private final AstNode classKey;
+    @Nullable
+    private AstNode access = null;
+
+    Scope(AstNode node, @Nullable AstNode classKey) {
+      this.node = node;
+      this.classKey = classKey;
+    }
+
+  }
+
 }
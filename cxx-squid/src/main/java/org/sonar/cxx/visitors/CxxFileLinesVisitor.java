@@ -24,7 +24,6 @@ import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.Grammar;
 import com.sonar.sslr.api.Token;
-import java.util.ArrayList;
 import java.util.List;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.cxx.api.CxxMetric;
@@ -32,15 +31,16 @@ import org.sonar.cxx.parser.CxxGrammarImpl;
 import org.sonar.cxx.parser.CxxKeyword;
 import org.sonar.cxx.parser.CxxPunctuator;
 import org.sonar.cxx.squidbridge.SquidAstVisitor;
+import org.sonar.cxx.squidbridge.api.LineSet;
 
 /**
  * Visitor that computes {@link CoreMetrics#NCLOC_DATA_KEY} and {@link CoreMetrics#EXECUTABLE_LINES_DATA} metrics used
- * by the DevCockpit.
+ * by the DevCockpit. The lines are stored as {@link LineSet} in the data of the source file.
  */
 public class CxxFileLinesVisitor extends SquidAstVisitor<Grammar> implements AstAndTokenVisitor {
 
-  private List<Integer> linesOfCode;
-  private List<Integer> executableLines;
+  private LineSet linesOfCode;
+  private LineSet executableLines;
   private int isWithinFunctionDefinition;
 
   private static boolean isDefaultOrDeleteFunctionBody(AstNode astNode) {
@@ -87,22 +87,6 @@ public class CxxFileLinesVisitor extends SquidAstVisitor<Grammar> implements Ast
     return !CxxPunctuator.CURLBR_LEFT.equals(type) && !CxxKeyword.DEFAULT.equals(type) && !CxxKeyword.CASE.equals(type);
   }
 
-  static void addLineNumber(List<Integer> collection, int lineNr) {
-    // use the fact, that we iterate over tokens from top to bottom.
-    // if the line was already visited its index was put at the end of
-    // collection.
-    //
-    // don't use Set, because Set would sort elements on each insert
-    // since we potentially insert line number for each token it would create
-    // large run-time overhead
-    //
-    // we sort/filter duplicates only once - on leaveFile(AstNode)
-    //
-    if (collection.isEmpty() || collection.get(collection.size() - 1) != lineNr) {
-      collection.add(lineNr);
-    }
-  }
-
   @Override
   public void init() {
     subscribeTo(CxxGrammarImpl.functionDefinition,
@@ -121,7 +105,7 @@ public class CxxFileLinesVisitor extends SquidAstVisitor<Grammar> implements Ast
     }
 
     if ((isWithinFunctionDefinition != 0) && isCodeToken(token)) {
-      addLineNumber(linesOfCode, token.getLine());
+      linesOfCode.add(token.getLine());
     }
   }
 
@@ -155,8 +139,8 @@ public class CxxFileLinesVisitor extends SquidAstVisitor<Grammar> implements Ast
 
   @Override
   public void visitFile(AstNode astNode) {
-    linesOfCode = new ArrayList<>();
-    executableLines = new ArrayList<>();
+    linesOfCode = new LineSet();
+    executableLines = new LineSet();
   }
 
   @Override
@@ -176,7 +160,7 @@ public class CxxFileLinesVisitor extends SquidAstVisitor<Grammar> implements Ast
       return;
     }
     if (isExecutableToken(astNode.getToken())) {
-      addLineNumber(executableLines, astNode.getTokenLine());
+      executableLines.add(astNode.getTokenLine());
     }
   }
 
@@ -21,14 +21,29 @@ package org.sonar.cxx.visitors;
 
 import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.Grammar;
-import org.sonar.cxx.parser.CxxParser;
+import org.sonar.cxx.preprocessor.CxxPreprocessor;
 import org.sonar.cxx.squidbridge.SquidAstVisitor;
 
+/**
+ * Resets the state of the preprocessor of a scanner after a file is parsed and reports its counters at the end of the
+ * scan.
+ */
 public class CxxFileVisitor<GRAMMAR extends Grammar> extends SquidAstVisitor<GRAMMAR> {
 
+  private final CxxPreprocessor preprocessor;
+
+  public CxxFileVisitor(CxxPreprocessor preprocessor) {
+    this.preprocessor = preprocessor;
+  }
+
   @Override
   public void visitFile(AstNode node) {
-    CxxParser.finishedParsing(getContext().getFile());
+    preprocessor.finishedPreprocessing(getContext().getFile());
+  }
+
+  @Override
+  public void destroy() {
+    preprocessor.finishedScan();
   }
 
 }
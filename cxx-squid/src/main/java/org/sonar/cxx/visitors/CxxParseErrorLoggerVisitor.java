@@ -23,6 +23,7 @@ import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.Grammar;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.parser.CxxGrammarImpl;
@@ -32,36 +33,66 @@ import org.sonar.cxx.squidbridge.SquidAstVisitor;
 public class CxxParseErrorLoggerVisitor<GRAMMAR extends Grammar> extends SquidAstVisitor<GRAMMAR> {
 
   private static final String SYNTAX_ERROR_MSG
-                                = "Source code parser: {} syntax error(s) detected. "
+                                = "Source code parser: {} syntax error(s) detected, {} token(s) skipped. "
                                     + "Syntax errors could cause invalid software metric values."
                                     + " Root cause are typically missing includes, "
                                     + "missing macros or compiler specific extensions.";
   private static final Logger LOG = Loggers.get(CxxParseErrorLoggerVisitor.class);
-  private static int errors = 0;
+  // totals of all finished scans for the final report
+  private static final AtomicInteger totalErrors = new AtomicInteger();
+  private static final AtomicInteger totalSkippedTokens = new AtomicInteger();
+
+  // counters of the scan of this visitor
+  private int errors = 0;
+  private int skippedTokens = 0;
 
   public static void finalReport() {
-    if (errors != 0) {
-      LOG.warn(SYNTAX_ERROR_MSG, errors);
+    if (totalErrors.get() != 0) {
+      LOG.warn(SYNTAX_ERROR_MSG, totalErrors.get(), totalSkippedTokens.get());
     }
   }
 
   public static void resetReport() {
-    errors = 0;
+    totalErrors.set(0);
+    totalSkippedTokens.set(0);
+  }
+
+  /**
+   * Number of syntax errors of the current scan.
+   */
+  public int getErrors() {
+    return errors;
+  }
+
+  /**
+   * Number of tokens skipped by the error recovery of the current scan.
+   */
+  public int getSkippedTokens() {
+    return skippedTokens;
   }
 
   @Override
   public void init() {
     subscribeTo(CxxGrammarImpl.recoveredDeclaration);
+    errors = 0;
+    skippedTokens = 0;
+  }
+
+  @Override
+  public void destroy() {
+    totalErrors.addAndGet(errors);
+    totalSkippedTokens.addAndGet(skippedTokens);
   }
 
   @Override
   public void visitNode(AstNode node) {
+    List<AstNode> children = node.getChildren();
     errors++;
+    skippedTokens += children.size();
     if (!LOG.isDebugEnabled()) {
       return;
     }
 
-    List<AstNode> children = node.getChildren();
     var sb = new StringBuilder(512);
     int identifierLine = -1;
 
@@ -22,19 +22,36 @@ package org.sonar.cxx;
 import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.assertj.core.api.SoftAssertions;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.cxx.api.CxxMetric;
 import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.preprocessor.CxxPreprocessor;
 import org.sonar.cxx.squidbridge.api.SourceFile;
 import org.sonar.cxx.squidbridge.api.SourceProject;
 import org.sonar.cxx.squidbridge.indexer.QueryByType;
+import org.sonar.cxx.visitors.CxxParseErrorLoggerVisitor;
 
 public class CxxAstScannerTest {
 
+  @Rule
+  public LogTester logTester = new LogTester();
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
   @Test
   public void files() throws UnsupportedEncodingException, IOException {
 
@@ -50,6 +67,84 @@ public class CxxAstScannerTest {
     assertThat(project.getInt(CxxMetric.FILES)).isEqualTo(2);
   }
 
+  @Test
+  public void independentScannersInParallel() throws InterruptedException, ExecutionException {
+    var files = Arrays.asList(
+      new File("src/test/resources/metrics/trivial.cc"),
+      new File("src/test/resources/metrics/classes.cc"),
+      new File("src/test/resources/metrics/statements.cc"));
+
+    var executor = Executors.newFixedThreadPool(4);
+    try {
+      var results = new ArrayList<Future<Integer>>();
+      for (var i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> {
+          var scanner = CxxAstScanner.create(new CxxSquidConfiguration());
+          scanner.scanFiles(files);
+          var project = (SourceProject) scanner.getIndex().search(new QueryByType(SourceProject.class)).iterator()
+            .next();
+          return project.getInt(CxxMetric.FILES);
+        }));
+      }
+      for (var result : results) {
+        assertThat(result.get()).isEqualTo(3);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void requirements() throws UnsupportedEncodingException, IOException {
+    var file = new File("src/test/resources/metrics/classes.cc");
+
+    var scanner = CxxAstScanner.create(new CxxSquidConfiguration(), EnumSet.noneOf(CxxAstScanner.Requirement.class));
+    scanner.scanFiles(Arrays.asList(file));
+    var sourceFile = (SourceFile) scanner.getIndex().search(new QueryByType(SourceFile.class)).iterator().next();
+
+    var softly = new SoftAssertions();
+    softly.assertThat(sourceFile.getInt(CxxMetric.LINES)).isZero();
+    softly.assertThat(sourceFile.getInt(CxxMetric.CLASSES)).isZero();
+    softly.assertThat(sourceFile.getData(CxxMetric.CPD_TOKENS_DATA)).isNull();
+    softly.assertThat(sourceFile.getData(CxxMetric.HIGHLIGTHING_DATA)).isNull();
+    softly.assertThat(sourceFile.getData(CxxMetric.NCLOC_DATA)).isNull();
+    softly.assertAll();
+
+    scanner = CxxAstScanner.create(new CxxSquidConfiguration(), EnumSet.of(CxxAstScanner.Requirement.CPD));
+    scanner.scanFiles(Arrays.asList(file));
+    sourceFile = (SourceFile) scanner.getIndex().search(new QueryByType(SourceFile.class)).iterator().next();
+    assertThat(sourceFile.getData(CxxMetric.CPD_TOKENS_DATA)).isNotNull();
+  }
+
+  @Test
+  public void errorCountersOfScannersInParallel() throws IOException, InterruptedException, ExecutionException {
+    var file = tmp.newFile("errors.cc");
+    Files.writeString(file.toPath(), "#include \"missing.h\"\nvoif f() {\n}\nvoid g() {\n int i = 0\n i++;\n}\n");
+    CxxPreprocessor.resetReport();
+    CxxParseErrorLoggerVisitor.resetReport();
+
+    var executor = Executors.newFixedThreadPool(4);
+    try {
+      var results = new ArrayList<Future<?>>();
+      for (var i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> CxxAstScanner.create(new CxxSquidConfiguration()).scanFile(file)));
+      }
+      for (var result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // the counters of each scan are added once to the totals of the final report
+    CxxPreprocessor.finalReport();
+    CxxParseErrorLoggerVisitor.finalReport();
+    var log = logTester.logs(LoggerLevel.WARN);
+    assertThat(log).hasSize(2);
+    assertThat(log.get(0)).startsWith("Preprocessor: 8 include directive error(s).");
+    assertThat(log.get(1)).startsWith("Source code parser: 16 syntax error(s) detected, 96 token(s) skipped.");
+  }
+
   @Test
   public void comments() throws UnsupportedEncodingException, IOException {
     var tester = CxxFileTesterHelper.create("src/test/resources/metrics/comments.cc", ".", "");
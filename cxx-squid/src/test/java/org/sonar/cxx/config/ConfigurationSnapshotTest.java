@@ -0,0 +1,111 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ConfigurationSnapshotTest {
+
+  private static final String VC_CHARSET = "UTF8";
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void roundTrip() throws IOException {
+    var log = new File("src/test/resources/msbuild/ParallelBuildLog.txt");
+    var snapshot = new File(tmp.getRoot(), "snapshot/config.bin");
+
+    var first = createConfiguration();
+    first.readConfiguration(List.of(log), VC_CHARSET, snapshot);
+    assertThat(snapshot).exists();
+
+    var second = createConfiguration();
+    second.readConfiguration(List.of(log), VC_CHARSET, snapshot);
+
+    var expected = createConfiguration();
+    expected.readConfiguration(List.of(log), VC_CHARSET);
+    assertThat(second.toString()).isEqualTo(expected.toString());
+    assertThat(first.toString()).isEqualTo(expected.toString());
+  }
+
+  @Test
+  public void outdatedSnapshot() throws IOException {
+    var log = new File("src/test/resources/msbuild/vc++13.txt");
+    var snapshot = tmp.newFile("config.bin").toPath();
+    var config = createConfiguration();
+    config.readConfiguration(List.of(log), VC_CHARSET);
+    byte[] fingerprint = ConfigurationSnapshot.fingerprint(List.of(log), ".", VC_CHARSET);
+    ConfigurationSnapshot.write(config, fingerprint, snapshot);
+
+    byte[] other = ConfigurationSnapshot.fingerprint(List.of(log), ".", "UTF-16");
+    assertThat(ConfigurationSnapshot.read(snapshot, other, createConfiguration())).isFalse();
+    var loaded = createConfiguration();
+    assertThat(ConfigurationSnapshot.read(snapshot, fingerprint, loaded)).isTrue();
+    assertThat(loaded.getProfileCount()).isEqualTo(config.getProfileCount());
+  }
+
+  @Test
+  public void invalidSnapshot() throws IOException {
+    var snapshot = tmp.newFile("config.bin").toPath();
+    byte[] fingerprint = ConfigurationSnapshot.fingerprint(List.of(), ".", VC_CHARSET);
+    Files.write(snapshot, new byte[]{0x43, 0x58, 0x58});
+    assertThat(ConfigurationSnapshot.read(snapshot, fingerprint, createConfiguration())).isFalse();
+    assertThat(ConfigurationSnapshot.read(tmp.getRoot().toPath().resolve("missing.bin"), fingerprint,
+                                          createConfiguration())).isFalse();
+  }
+
+  @Test
+  public void corruptedCounts() throws IOException {
+    var log = new File("src/test/resources/msbuild/vc++13.txt");
+    var snapshot = tmp.newFile("config.bin").toPath();
+    var config = createConfiguration();
+    config.readConfiguration(List.of(log), VC_CHARSET);
+    byte[] fingerprint = ConfigurationSnapshot.fingerprint(List.of(log), ".", VC_CHARSET);
+    ConfigurationSnapshot.write(config, fingerprint, snapshot);
+    byte[] bytes = Files.readAllBytes(snapshot);
+
+    // number of strings and length of the first string follow the header of 40 bytes
+    for (int offset : new int[]{40, 44}) {
+      for (int count : new int[]{Integer.MAX_VALUE, -1}) {
+        byte[] corrupted = bytes.clone();
+        ByteBuffer.wrap(corrupted).putInt(offset, count);
+        Files.write(snapshot, corrupted);
+        assertThat(ConfigurationSnapshot.read(snapshot, fingerprint, createConfiguration())).isFalse();
+      }
+    }
+  }
+
+  private static CxxSquidConfiguration createConfiguration() {
+    var config = new CxxSquidConfiguration(".");
+    config.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.DEFINES, "PROJECT 1");
+    config.add(CxxSquidConfiguration.GLOBAL, CxxSquidConfiguration.DEFINES, "GLOBAL 1");
+    return config;
+  }
+
+}
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.assertj.core.api.SoftAssertions;
@@ -259,6 +260,69 @@ public class CxxSquidConfigurationTest {
     softly.assertAll();
   }
 
+  @Test
+  public void testProfiles() {
+    var db = new CxxSquidConfiguration();
+    db.add(CxxSquidConfiguration.GLOBAL, "key1", "global");
+    db.add("c/d/e", "key1", "own");
+    db.addProfile("a/b/c", Map.of("key1", List.of("value1", "value2")));
+    db.addProfile("a/b/d", Map.of("key1", List.of("value1", "value2")));
+    db.addProfile("a/b/e", Map.of("key1", List.of("value3")));
+    db.addProfile("c/d/e", Map.of("key1", List.of("value1", "value2")));
+    db.addProfile("a/b/e", Map.of("key1", List.of("value4")));
+
+    var softly = new SoftAssertions();
+    softly.assertThat(db.getProfileCount()).isEqualTo(2);
+    softly.assertThat(db.get("a/b/d", "key1")).isEqualTo(Optional.of("value1"));
+    softly.assertThat(db.getLevelValues("a/b/c", "key1")).containsExactly("value1", "value2");
+    softly.assertThat(db.getValues("a/b/d", "key1")).containsExactly("value1", "value2", "global");
+    softly.assertThat(db.getLevelValues("a/b/e", "key1")).containsExactly("value3", "value4");
+    softly.assertThat(db.getLevelValues("c/d/e", "key1")).containsExactly("own", "value1", "value2");
+    softly.assertThat(db.getChildrenValues(CxxSquidConfiguration.FILES, "key1"))
+      .containsExactly("own", "value1", "value2", "value1", "value2", "value1", "value2", "value3", "value4", "global");
+    softly.assertAll();
+  }
+
+  @Test
+  public void testMerge() {
+    var db = new CxxSquidConfiguration();
+    db.add(CxxSquidConfiguration.GLOBAL, "key1", "global1");
+    db.add("a/b/c", "key1", "value1");
+    var partial = new CxxSquidConfiguration();
+    partial.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, "key1", "ignored");
+    partial.add(CxxSquidConfiguration.GLOBAL, "key1", "global2");
+    partial.addProfile("a/b/c", Map.of("key1", List.of("value2")));
+    partial.addProfile("a/b/d", Map.of("key1", List.of("value2")));
+    partial.add("a/b/d", "key1", "value3");
+    db.merge(partial);
+
+    var softly = new SoftAssertions();
+    softly.assertThat(db.getProfileCount()).isEqualTo(1);
+    softly.assertThat(db.getValues(CxxSquidConfiguration.GLOBAL, "key1")).containsExactly("global1", "global2");
+    softly.assertThat(db.getLevelValues("a/b/c", "key1")).containsExactly("value1", "value2");
+    softly.assertThat(db.getLevelValues("a/b/d", "key1")).containsExactly("value2", "value3");
+    softly.assertAll();
+  }
+
+  @Test
+  public void readConfigurationConcurrently() {
+    var log1 = new File("src/test/resources/msbuild/ParallelBuildLog.txt");
+    var log2 = new File("src/test/resources/msbuild/vc++13.txt");
+    var serial = new CxxSquidConfiguration(".");
+    serial.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.JSON_COMPILATION_DATABASE,
+               "src/test/resources/jsondb/compile_commands.json");
+    serial.readJsonCompilationDb();
+    serial.readMsBuildFiles(List.of(log1), VC_CHARSET);
+    serial.readMsBuildFiles(List.of(log2), VC_CHARSET);
+
+    var concurrent = new CxxSquidConfiguration(".");
+    concurrent.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.JSON_COMPILATION_DATABASE,
+                   "src/test/resources/jsondb/compile_commands.json");
+    concurrent.readConfiguration(List.of(log1, log2), VC_CHARSET);
+
+    assertThat(concurrent.toString()).isEqualTo(serial.toString());
+  }
+
   @Test
   public void testPathNames() {
     var db = new CxxSquidConfiguration();
@@ -653,6 +717,7 @@ public class CxxSquidConfigurationTest {
     var softly = new SoftAssertions();
     softly.assertThat(getIncludeDirectories(squidConfig)).hasSize(15);
     softly.assertThat(getDefines(squidConfig)).hasSize(30);
+    softly.assertThat(squidConfig.getProfileCount()).isLessThan(getFileCount(squidConfig));
     softly.assertAll();
   }
 
@@ -678,6 +743,10 @@ public class CxxSquidConfigurationTest {
     return new ArrayList<>(allDefines);
   }
 
+  static private int getFileCount(CxxSquidConfiguration squidConfig) {
+    return squidConfig.toString().split("<File ").length - 1;
+  }
+
   static private List<Path> getIncludeDirectories(CxxSquidConfiguration squidConfig) {
     var allIncludes = new HashSet<Path>();
 
@@ -604,6 +604,22 @@ public class CxxLexerTest {
         -> assertThat(token).isValue(value.tokenValue).hasType(value.tokenType)));
   }
 
+  @Test
+  public void shared_token_values() {
+    var tokens = lexer.lex("return value; value = value + 1; return 1;");
+    var values = new ArrayList<String>();
+    for (var token : tokens) {
+      values.add(token.getValue());
+    }
+
+    var softly = new SoftAssertions();
+    softly.assertThat(values.get(0)).isSameAs(CxxKeyword.RETURN.getValue());
+    softly.assertThat(values.get(1)).isSameAs(values.get(3)).isSameAs(values.get(5)).isEqualTo("value");
+    softly.assertThat(values.get(9)).isSameAs(CxxKeyword.RETURN.getValue());
+    softly.assertThat(tokens.get(1).getURI()).isSameAs(tokens.get(5).getURI());
+    softly.assertAll();
+  }
+
   @Test
   public void blank_lines() {
     var softly = new SoftAssertions();
@@ -36,6 +36,7 @@ import org.junit.Test;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.preprocessor.CxxPreprocessor;
 import org.sonar.cxx.squidbridge.SquidAstVisitorContext;
 
 public class CxxParserTest {
@@ -48,6 +49,8 @@ public class CxxParserTest {
 
   private File erroneousSources = null;
   private final SquidAstVisitorContext<Grammar> context;
+  private CxxPreprocessor preprocessor;
+  private CxxSquidConfiguration squidConfig;
 
   public CxxParserTest() throws URISyntaxException {
     super();
@@ -177,6 +180,34 @@ public class CxxParserTest {
     verify(root, erroneousSources, map);
   }
 
+  @Test
+  public void testParseErrorRecoverySynchronization() throws URISyntaxException {
+    var file = new File(CxxParserTest.class.getResource("/parser/bad/error_recovery_synchronization.cc").toURI());
+    Parser<Grammar> p = createParser(null, true, null);
+    // no retries at each token: the error recovery only uses the synchronization points
+    p = new LimitedParser(CxxParser.create(squidConfig, preprocessor, p.getGrammar()), new ParseLimits(0, 0, 0));
+
+    // skipped code ends in front of a declaration keyword or behind a balanced block
+    AstNode root = parse(p, file);
+    List<AstNode> recovered = root.getDescendants(CxxGrammarImpl.recoveredDeclaration);
+    assertThat(recovered).hasSize(2);
+    assertThat(recovered.get(0).getLastToken().getValue()).isEqualTo("+");
+    assertThat(recovered.get(1).getToken().getValue()).isEqualTo("void");
+    assertThat(recovered.get(1).getLastToken().getLine()).isEqualTo(10);
+    assertThat(root.getDescendants(CxxGrammarImpl.classSpecifier)).hasSize(1);
+    assertThat(root.getDescendants(CxxGrammarImpl.namespaceDefinition)).hasSize(1);
+  }
+
+  @Test
+  public void testGrammarIsShared() {
+    Parser<Grammar> p1 = createParser(null, true, null);
+    Parser<Grammar> p2 = createParser(null, true, null);
+    Parser<Grammar> p3 = createParser(null, false, null);
+
+    assertThat(p1.getGrammar()).isSameAs(p2.getGrammar());
+    assertThat(p1.getGrammar()).isNotSameAs(p3.getGrammar());
+  }
+
   private List<File> listFiles(String[] dirs, String[] extensions) {
     var files = new ArrayList<File>();
     for (var dir : dirs) {
@@ -186,7 +217,6 @@ public class CxxParserTest {
   }
 
   private Parser<Grammar> createParser(String baseDir, boolean errorRecovery, @Nullable List<String> includes) {
-    CxxSquidConfiguration squidConfig;
     if (baseDir != null) {
       squidConfig = new CxxSquidConfiguration(baseDir);
     } else {
@@ -199,7 +229,8 @@ public class CxxParserTest {
                       includes);
     }
 
-    return CxxParser.create(context, squidConfig);
+    preprocessor = new CxxPreprocessor(context, squidConfig);
+    return CxxParser.create(squidConfig, preprocessor);
   }
 
   private AstNode parse(Parser<Grammar> parser, File file) {
@@ -207,7 +238,7 @@ public class CxxParserTest {
     AstNode root = null;
     try {
       root = parser.parse(file);
-      CxxParser.finishedParsing(file);
+      preprocessor.finishedPreprocessing(file);
     } catch (Exception e) {
       throw new IllegalStateException(file.toString(), e);
     }
@@ -0,0 +1,105 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.parser;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.impl.Parser;
+import java.io.File;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.assertj.core.api.Assertions.tuple;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.preprocessor.CxxPreprocessor;
+import org.sonar.cxx.preprocessor.ParseBudgetExceededException;
+import org.sonar.cxx.squidbridge.SquidAstVisitorContextImpl;
+
+public class ParseLimitsTest {
+
+  @Test
+  public void unlimited() {
+    var parser = new LimitedParser(createParser(), new ParseLimits(0, 0, ParseLimits.DEFAULT_RECOVERY_RETRY_LIMIT));
+    assertThat(parser.parse(declarations(2000)).getNumberOfChildren()).isEqualTo(2001);
+  }
+
+  @Test
+  public void stepLimit() {
+    var parser = new LimitedParser(createParser(), new ParseLimits(0, 100, ParseLimits.DEFAULT_RECOVERY_RETRY_LIMIT));
+    var e = catchThrowableOfType(() -> parser.parse(declarations(200)), ParseBudgetExceededException.class);
+    assertThat(e.getLine()).isEqualTo(101);
+    assertThat(e.getMessage()).isEqualTo("Parse budget exceeded: more than 100 parse steps, the file is not analyzed");
+
+    // the limits apply to each parse
+    assertThat(parser.parse(declarations(10)).getNumberOfChildren()).isEqualTo(11);
+  }
+
+  @Test
+  public void timeout() {
+    var parser = new LimitedParser(createParser(), new ParseLimits(1, 0, ParseLimits.DEFAULT_RECOVERY_RETRY_LIMIT));
+    var e = catchThrowableOfType(() -> parser.parse(declarations(2000)), ParseBudgetExceededException.class);
+    assertThat(e.getMessage()).contains("seconds");
+  }
+
+  @Test
+  public void limitsOnlyForLimitedParser() {
+    var limited = new LimitedParser(createParser(), new ParseLimits(0, 100, ParseLimits.DEFAULT_RECOVERY_RETRY_LIMIT));
+    catchThrowableOfType(() -> limited.parse(declarations(200)), ParseBudgetExceededException.class);
+
+    // other parsers of the thread are not affected after the parse
+    assertThat(createParser().parse(declarations(200)).getNumberOfChildren()).isEqualTo(201);
+  }
+
+  @Test
+  public void recoveryRetryLimit() {
+    var source = "+ a b;\n+ c d;\n";
+
+    // a declaration is retried at each token: only the '+' is skipped
+    var parser = new LimitedParser(createParser(), new ParseLimits(0, 0, ParseLimits.DEFAULT_RECOVERY_RETRY_LIMIT));
+    var recovered = parser.parse(source).getDescendants(CxxGrammarImpl.recoveredDeclaration);
+    assertThat(recovered).extracting(AstNode::getTokenValue, n -> n.getLastToken().getValue())
+      .containsExactly(tuple("+", "+"), tuple("+", "+"));
+
+    // limit reached after the first retry: the second error is skipped up to the next synchronization point
+    parser = new LimitedParser(createParser(), new ParseLimits(0, 0, 1));
+    recovered = parser.parse(source).getDescendants(CxxGrammarImpl.recoveredDeclaration);
+    assertThat(recovered).extracting(AstNode::getTokenValue, n -> n.getLastToken().getValue())
+      .containsExactly(tuple("+", "+"), tuple("+", ";"));
+  }
+
+  private static String declarations(int count) {
+    var source = new StringBuilder();
+    for (var i = 0; i < count; i++) {
+      source.append("int i").append(i).append(";\n");
+    }
+    return source.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Parser<Grammar> createParser() {
+    var squidConfig = new CxxSquidConfiguration();
+    SquidAstVisitorContextImpl<Grammar> context = mock(SquidAstVisitorContextImpl.class);
+    when(context.getFile()).thenReturn(new File("snippet.cpp").getAbsoluteFile());
+    return CxxParser.create(squidConfig, new CxxPreprocessor(context, squidConfig), CxxParser.getGrammar(squidConfig));
+  }
+
+}
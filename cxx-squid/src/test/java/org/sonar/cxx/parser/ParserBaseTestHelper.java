@@ -29,6 +29,7 @@ import javax.annotation.Nullable;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.preprocessor.CxxPreprocessor;
 import org.sonar.cxx.squidbridge.SquidAstVisitorContextImpl;
 import org.sonar.sslr.grammar.GrammarRuleKey;
 import org.sonar.sslr.tests.ParserAssert;
@@ -52,7 +53,7 @@ public class ParserBaseTestHelper {
     SquidAstVisitorContextImpl<Grammar> context = mock(SquidAstVisitorContextImpl.class);
     when(context.getFile()).thenReturn(file);
 
-    p = CxxParser.create(context, squidConfig);
+    p = CxxParser.create(squidConfig, new CxxPreprocessor(context, squidConfig), CxxGrammarImpl.create(squidConfig));
     //var builder = AstScanner.<Grammar>builder(context).setBaseParser(p);
     g = p.getGrammar();
   }
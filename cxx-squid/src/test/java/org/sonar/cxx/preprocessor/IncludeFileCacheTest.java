@@ -0,0 +1,83 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IncludeFileCacheTest {
+
+  @Rule
+  public TemporaryFolder base = new TemporaryFolder();
+
+  @Test
+  public void isFile() throws IOException {
+    var cache = new IncludeFileCache();
+    var file = base.newFile("a.h");
+    var dir = base.newFolder("dir");
+
+    assertThat(cache.isFile(file)).isTrue();
+    assertThat(cache.isFile(dir)).isFalse();
+    assertThat(cache.isFile(dir.toPath().resolve("missing.h"))).isFalse();
+    assertThat(cache.isFile(base.getRoot().toPath().resolve("missing/missing.h"))).isFalse();
+  }
+
+  @Test
+  public void negativeResultsAreCached() throws IOException {
+    var cache = new IncludeFileCache();
+    var path = base.getRoot().toPath().resolve("b.h");
+
+    assertThat(cache.isFile(path)).isFalse();
+    Files.createFile(path);
+    assertThat(cache.isFile(path)).isFalse();
+  }
+
+  @Test
+  public void findInIncludeRoots() throws IOException {
+    var cache = new IncludeFileCache();
+    var root1 = base.newFolder("root1").toPath();
+    var root2 = base.newFolder("root2").toPath();
+    Files.createDirectories(root2.resolve("sys"));
+    var expected = Files.createFile(root2.resolve("sys/c.h"));
+    var roots = Arrays.asList(root1, root2);
+
+    int rootsId = cache.getIncludeRootsId(roots);
+    assertThat(cache.getIncludeRootsId(Arrays.asList(root1, root2))).isEqualTo(rootsId);
+    assertThat(cache.getIncludeRootsId(Arrays.asList(root2, root1))).isNotEqualTo(rootsId);
+
+    assertThat(cache.findInIncludeRoots(roots, rootsId, "sys/c.h")).isEqualTo(expected.toFile());
+    assertThat(cache.findInIncludeRoots(roots, rootsId, "c.h")).isNull();
+  }
+
+  @Test
+  public void getCanonicalFile() throws IOException {
+    var cache = new IncludeFileCache();
+    var file = base.newFile("d.h");
+    var relative = base.getRoot().toPath().resolve("dir/../d.h").toFile();
+
+    assertThat(cache.getCanonicalFile(relative)).isEqualTo(file.getCanonicalFile());
+  }
+
+}
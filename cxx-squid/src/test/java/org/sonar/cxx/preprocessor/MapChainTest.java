@@ -21,6 +21,7 @@ package org.sonar.cxx.preprocessor;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import java.util.Map;
 import org.junit.Test;
 
 public class MapChainTest {
@@ -71,4 +72,40 @@ public class MapChainTest {
     assertEquals("v", mc.get("k"));
   }
 
+  @Test
+  public void parentMapping() {
+    var chain = new MapChain<String, String>(Map.of("k", "v"));
+    assertEquals("v", chain.get("k"));
+    chain.put("k", "w");
+    assertEquals("w", chain.get("k"));
+  }
+
+  @Test
+  public void removeParentMapping() {
+    var parent = Map.of("k", "v");
+    var chain = new MapChain<String, String>(parent);
+    chain.remove("k");
+    assertNull(chain.get("k"));
+    assertEquals("v", parent.get("k"));
+    chain.put("k", "w");
+    assertEquals("w", chain.get("k"));
+  }
+
+  @Test
+  public void disableParentMapping() {
+    var chain = new MapChain<String, String>(Map.of("k", "v"));
+    chain.disable("k");
+    assertNull(chain.get("k"));
+    chain.enable("k");
+    assertEquals("v", chain.get("k"));
+  }
+
+  @Test
+  public void clearParentMapping() {
+    var chain = new MapChain<String, String>(Map.of("k", "v"));
+    chain.clear();
+    assertNull(chain.get("k"));
+    assertEquals(0, chain.getMap().size());
+  }
+
 }
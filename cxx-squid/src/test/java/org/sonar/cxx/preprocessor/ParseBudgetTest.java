@@ -0,0 +1,100 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import java.net.URI;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import org.junit.Test;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+
+public class ParseBudgetTest {
+
+  @Test
+  public void unlimited() {
+    var budget = new ParseBudget(new CxxSquidConfiguration());
+    budget.start();
+    for (var i = 0; i < 10_000; i++) {
+      budget.enterExpansion(token(i + 1), true);
+      budget.consumeToken(token(i + 1), true);
+    }
+  }
+
+  @Test
+  public void tokenLimit() {
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.PARSE_TOKEN_LIMIT, "3");
+    var budget = new ParseBudget(squidConfig);
+    budget.start();
+
+    budget.consumeToken(token(1), true);
+    budget.consumeToken(token(2), true);
+    budget.consumeToken(token(3), true);
+    var e = catchThrowableOfType(() -> budget.consumeToken(token(4), true), ParseBudgetExceededException.class);
+    assertThat(e.getLine()).isEqualTo(4);
+    assertThat(e.getMessage()).isEqualTo("Parse budget exceeded: more than 3 tokens, the file is not analyzed");
+
+    // exceeded until the next file starts
+    assertThatThrownBy(() -> budget.consumeToken(token(5), false)).isInstanceOf(ParseBudgetExceededException.class);
+    budget.start();
+    budget.consumeToken(token(1), true);
+  }
+
+  @Test
+  public void expansionDepthLimit() {
+    var budget = new ParseBudget(0, 0, 2);
+    budget.start();
+
+    budget.enterExpansion(token(7), true);
+    budget.enterExpansion(token(1), true);
+    budget.leaveExpansion();
+    budget.enterExpansion(token(1), true);
+    var e = catchThrowableOfType(() -> budget.enterExpansion(token(1), true), ParseBudgetExceededException.class);
+    assertThat(e.getLine()).isEqualTo(7);
+    assertThat(e.getMessage()).contains("macro expansion depth of more than 2");
+  }
+
+  @Test
+  public void timeout() {
+    var budget = new ParseBudget(1, 0, 0);
+    budget.start();
+
+    assertThatThrownBy(() -> {
+      for (var i = 0; i < 10_000; i++) {
+        budget.consumeToken(token(i + 1), false);
+      }
+    }).isInstanceOf(ParseBudgetExceededException.class)
+      .hasMessageContaining("seconds");
+  }
+
+  private static Token token(int line) {
+    return Token.builder()
+      .setType(GenericTokenType.IDENTIFIER)
+      .setValueAndOriginalValue("x")
+      .setURI(URI.create("tests://unittest"))
+      .setLine(line)
+      .setColumn(0)
+      .build();
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SourceCodeReaderTest {
+
+  @Rule
+  public TemporaryFolder base = new TemporaryFolder();
+
+  private final SourceCodeReader reader = new SourceCodeReader();
+
+  @Test
+  public void readWithoutBom() throws IOException {
+    var file = write(new byte[0], "#define A äöü", StandardCharsets.UTF_8);
+    assertThat(reader.read(file, StandardCharsets.UTF_8)).isEqualTo("#define A äöü");
+    assertThat(reader.read(file, StandardCharsets.ISO_8859_1)).isNotEqualTo("#define A äöü");
+  }
+
+  @Test
+  public void readEmptyFile() throws IOException {
+    var file = write(new byte[0], "", StandardCharsets.UTF_8);
+    assertThat(reader.read(file, StandardCharsets.UTF_8)).isEmpty();
+  }
+
+  @Test
+  public void readWithBom() throws IOException {
+    assertThat(reader.read(write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, "UTF-8-BOM",
+                                 StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1))
+      .isEqualTo("UTF-8-BOM");
+    assertThat(reader.read(write(new byte[]{(byte) 0xFF, (byte) 0xFE}, "UTF-16LE-BOM",
+                                 StandardCharsets.UTF_16LE), StandardCharsets.UTF_8))
+      .isEqualTo("UTF-16LE-BOM");
+    assertThat(reader.read(write(new byte[]{(byte) 0xFE, (byte) 0xFF}, "UTF-16BE-BOM",
+                                 StandardCharsets.UTF_16BE), StandardCharsets.UTF_8))
+      .isEqualTo("UTF-16BE-BOM");
+    assertThat(reader.read(write(new byte[]{(byte) 0xFF, (byte) 0xFE, 0, 0}, "UTF-32LE-BOM",
+                                 Charset.forName("UTF-32LE")), StandardCharsets.UTF_8))
+      .isEqualTo("UTF-32LE-BOM");
+    assertThat(reader.read(write(new byte[]{0, 0, (byte) 0xFE, (byte) 0xFF}, "UTF-32BE-BOM",
+                                 Charset.forName("UTF-32BE")), StandardCharsets.UTF_8))
+      .isEqualTo("UTF-32BE-BOM");
+  }
+
+  @Test
+  public void readBigFile() throws IOException {
+    var content = "#define A 1\n".repeat(200_000);
+    var file = write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, content, StandardCharsets.UTF_8);
+    assertThat(reader.read(file, StandardCharsets.ISO_8859_1)).isEqualTo(content);
+
+    // buffers are reused for the next file
+    var small = write(new byte[0], "small", StandardCharsets.UTF_8);
+    assertThat(reader.read(small, StandardCharsets.UTF_8)).isEqualTo("small");
+  }
+
+  private File write(byte[] bom, String content, Charset charset) throws IOException {
+    var stream = new ByteArrayOutputStream();
+    stream.write(bom);
+    stream.write(content.getBytes(charset));
+    var file = base.newFile();
+    Files.write(file.toPath(), stream.toByteArray());
+    return file;
+  }
+
+}
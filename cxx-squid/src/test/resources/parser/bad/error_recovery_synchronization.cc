@@ -0,0 +1,14 @@
+int i = 0 +
+class A {
+};
+
+void f() {
+  int j = 0
+  if (j) {
+    j++
+  }
+}
+
+namespace N {
+  int k;
+}
@@ -81,6 +81,7 @@ public final class CxxPlugin implements Plugin {
     // properties elements
     l.addAll(CxxLanguage.properties());
     l.addAll(CxxSquidSensor.properties());
+    l.addAll(CxxReportImportSensor.properties());
     l.addAll(CxxCppCheckSensor.properties());
     l.addAll(CxxValgrindSensor.properties());
     l.addAll(CxxDrMemorySensor.properties());
@@ -134,6 +135,9 @@ public final class CxxPlugin implements Plugin {
     l.add(CxxClangSASensor.class);
     l.add(CxxOtherSensor.class);
 
+    // executes the report sensors concurrently (if enabled)
+    l.add(CxxReportImportSensor.class);
+
     // test sensors
     l.add(CxxXunitSensor.class);
     l.add(CxxUnitTestResultsImportSensor.class);
@@ -0,0 +1,282 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.cxx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import org.sonar.api.PropertyType;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.config.PropertyDefinition;
+import org.sonar.api.resources.Qualifiers;
+import org.sonar.api.scanner.sensor.ProjectSensor;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.sensors.utils.CxxReportSensor;
+
+/**
+ * Executes the report sensors (cppcheck, clang-tidy, coverage, xUnit, ...) concurrently.
+ *
+ * Usually each report sensor is executed by the scanner one after the other. If the parallel report import is enabled
+ * ('sonar.cxx.reportImport.threads' greater than 1), the report sensors skip their own execution and this sensor
+ * executes all configured report sensors on a bounded thread pool. Reading and parsing of the reports is done
+ * concurrently, all calls storing results in the SensorContext are serialized.
+ */
+public class CxxReportImportSensor implements ProjectSensor {
+
+  public static final String REPORT_IMPORT_THREADS_KEY = CxxReportSensor.REPORT_IMPORT_THREADS_KEY;
+  public static final String REPORT_IMPORT_STATISTICS_KEY = CxxReportSensor.REPORT_IMPORT_STATISTICS_KEY;
+
+  private static final Logger LOG = Loggers.get(CxxReportImportSensor.class);
+
+  private final List<CxxReportSensor> sensors;
+
+  /**
+   * {@inheritDoc}
+   */
+  public CxxReportImportSensor(@Nullable CxxReportSensor[] sensors) {
+    this.sensors = sensors == null ? Collections.emptyList() : Arrays.asList(sensors);
+  }
+
+  public static List<PropertyDefinition> properties() {
+    return Collections.unmodifiableList(Arrays.asList(
+      PropertyDefinition.builder(REPORT_IMPORT_THREADS_KEY)
+        .defaultValue("1")
+        .name("Report Import Threads")
+        .description(
+          "Number of threads used to import the external reports (static analysis, coverage and test reports)."
+            + " With the default `1` the reports are imported one after the other. With a value greater than `1`"
+            + " the reports of different sensors are read and parsed concurrently."
+        )
+        .category("CXX")
+        .subCategory("(1) General")
+        .onQualifiers(Qualifiers.PROJECT)
+        .type(PropertyType.INTEGER)
+        .build(),
+      PropertyDefinition.builder(REPORT_IMPORT_STATISTICS_KEY)
+        .name("Report Import Statistics")
+        .description(
+          "Path of a directory to which the statistics of the report import are written, one JSON file per sensor"
+            + " with the size of the reports, the number of parsed, duplicated and saved items, the number of paths"
+            + " not found in the project and the time spent per report. The path may be either absolute or relative"
+            + " to the project base directory. A summary is always written to the log."
+        )
+        .category("CXX")
+        .subCategory("(1) General")
+        .onQualifiers(Qualifiers.PROJECT)
+        .build()
+    ));
+  }
+
+  @Override
+  public void describe(SensorDescriptor descriptor) {
+    descriptor
+      .name("CXX parallel report import")
+      .onlyOnLanguage(CxxLanguage.KEY)
+      .onlyWhenConfiguration(conf -> conf.getInt(REPORT_IMPORT_THREADS_KEY).orElse(1) > 1);
+  }
+
+  @Override
+  public void execute(SensorContext context) {
+    var active = new ArrayList<CxxReportSensor>();
+    for (var sensor : sensors) {
+      if (isActive(sensor, context)) {
+        active.add(sensor);
+      }
+    }
+    if (active.isEmpty()) {
+      return;
+    }
+
+    int threads = Math.min(context.config().getInt(REPORT_IMPORT_THREADS_KEY).orElse(1), active.size());
+    LOG.info("Importing reports of {} sensor(s) with {} thread(s)", active.size(), threads);
+
+    initializeMetadata(context);
+    var serializedContext = SerializedSensorContext.create(context);
+
+    var tasks = new ArrayList<Callable<Void>>();
+    for (var sensor : active) {
+      tasks.add(() -> {
+        LOG.info("Sensor {} [cxx]", sensor);
+        sensor.executeReportImport(serializedContext);
+        return null;
+      });
+    }
+
+    var counter = new AtomicInteger();
+    var executor = Executors.newFixedThreadPool(threads, r -> {
+      var thread = new Thread(r, "cxx-report-import-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      RuntimeException failure = null;
+      for (var future : executor.invokeAll(tasks)) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause() instanceof RuntimeException
+                        ? (RuntimeException) e.getCause()
+                        : new IllegalStateException(e.getCause());
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Parallel report import was interrupted", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName();
+  }
+
+  /**
+   * The metadata of input files is created on first use and this is not thread safe: create it upfront for the C++
+   * files, the files the reports usually refer to. The metadata of other files is created by the SerializedSensorContext
+   * when they are looked up.
+   */
+  private static void initializeMetadata(SensorContext context) {
+    var fs = context.fileSystem();
+    for (InputFile inputFile : fs.inputFiles(fs.predicates().hasLanguage(CxxLanguage.KEY))) {
+      inputFile.lines();
+    }
+  }
+
+  private static boolean isActive(CxxReportSensor sensor, SensorContext context) {
+    var descriptor = new ReportSensorDescriptor();
+    sensor.describe(descriptor);
+    return descriptor.isActive(context);
+  }
+
+  /**
+   * Collects the conditions of a report sensor, to execute only sensors the scanner would execute too.
+   *
+   * The report sensors are ProjectSensors: like sensors declared as global() they are executed once per project and
+   * their conditions are checked against the files of the whole project, the file system of this sensor.
+   */
+  @SuppressWarnings("deprecation")
+  private static class ReportSensorDescriptor implements SensorDescriptor {
+
+    private final List<String> languages = new ArrayList<>();
+    private final List<String> properties = new ArrayList<>();
+    private final List<String> ruleRepositories = new ArrayList<>();
+    private InputFile.Type type = null;
+    private Predicate<Configuration> configurationPredicate = conf -> true;
+
+    boolean isActive(SensorContext context) {
+      var config = context.config();
+      if (!configurationPredicate.test(config)) {
+        return false;
+      }
+      for (var property : properties) {
+        if (!config.hasKey(property)) {
+          return false;
+        }
+      }
+      if (!ruleRepositories.isEmpty()
+            && ruleRepositories.stream().allMatch(r -> context.activeRules().findByRepository(r).isEmpty())) {
+        return false;
+      }
+      if (!languages.isEmpty() || type != null) {
+        var fs = context.fileSystem();
+        var predicates = fs.predicates();
+        return fs.hasFiles(predicates.and(languages.isEmpty() ? predicates.all() : predicates.hasLanguages(languages),
+                                          type == null ? predicates.all() : predicates.hasType(type)));
+      }
+      return true;
+    }
+
+    @Override
+    public SensorDescriptor name(String sensorName) {
+      return this;
+    }
+
+    @Override
+    public SensorDescriptor onlyOnLanguage(String languageKey) {
+      return onlyOnLanguages(languageKey);
+    }
+
+    @Override
+    public SensorDescriptor onlyOnLanguages(String... languageKeys) {
+      languages.addAll(Arrays.asList(languageKeys));
+      return this;
+    }
+
+    @Override
+    public SensorDescriptor onlyOnFileType(InputFile.Type type) {
+      this.type = type;
+      return this;
+    }
+
+    @Override
+    public SensorDescriptor createIssuesForRuleRepository(String... repositoryKey) {
+      return createIssuesForRuleRepositories(repositoryKey);
+    }
+
+    @Override
+    public SensorDescriptor createIssuesForRuleRepositories(String... repositoryKeys) {
+      ruleRepositories.addAll(Arrays.asList(repositoryKeys));
+      return this;
+    }
+
+    @Override
+    public SensorDescriptor requireProperty(String... propertyKey) {
+      return requireProperties(propertyKey);
+    }
+
+    @Override
+    public SensorDescriptor requireProperties(String... propertyKeys) {
+      properties.addAll(Arrays.asList(propertyKeys));
+      return this;
+    }
+
+    @Override
+    public SensorDescriptor global() {
+      // executed once per project and checked against the files of the whole project, as all report sensors
+      return this;
+    }
+
+    @Override
+    public SensorDescriptor onlyWhenConfiguration(Predicate<Configuration> predicate) {
+      configurationPredicate = predicate;
+      return this;
+    }
+
+  }
+
+}
@@ -26,12 +26,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 import org.sonar.api.PropertyType;
+import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.TextRange;
 import org.sonar.api.batch.rule.CheckFactory;
@@ -59,6 +62,7 @@ import org.sonar.cxx.config.CxxSquidConfiguration;
 import org.sonar.cxx.config.MsBuild;
 import org.sonar.cxx.sensors.utils.CxxUtils;
 import org.sonar.cxx.squidbridge.SquidAstVisitor;
+import org.sonar.cxx.squidbridge.api.LineSet;
 import org.sonar.cxx.squidbridge.api.SourceCode;
 import org.sonar.cxx.squidbridge.api.SourceFile;
 import org.sonar.cxx.squidbridge.indexer.QueryByType;
@@ -77,6 +81,11 @@ public class CxxSquidSensor implements ProjectSensor {
   public static final String ERROR_RECOVERY_KEY = "sonar.cxx.errorRecoveryEnabled";
   public static final String FORCE_INCLUDES_KEY = "sonar.cxx.forceIncludes";
   public static final String JSON_COMPILATION_DATABASE_KEY = "sonar.cxx.jsonCompilationDatabase";
+  public static final String SCAN_STATISTICS_REPORT_KEY = "sonar.cxx.scanStatisticsReport";
+  public static final String PARSE_TIMEOUT_KEY = "sonar.cxx.parseTimeout";
+  public static final String PARSE_TOKEN_LIMIT_KEY = "sonar.cxx.parseTokenLimit";
+  public static final String MACRO_EXPANSION_DEPTH_LIMIT_KEY = "sonar.cxx.macroExpansionDepthLimit";
+  public static final String CONFIGURATION_SNAPSHOT_KEY = "sonar.cxx.configurationSnapshot";
 
   public static final String FUNCTION_COMPLEXITY_THRESHOLD_KEY = "sonar.cxx.metric.func.complexity.threshold";
   public static final String FUNCTION_SIZE_THRESHOLD_KEY = "sonar.cxx.metric.func.size.threshold";
@@ -91,6 +100,7 @@ public class CxxSquidSensor implements ProjectSensor {
   private final NoSonarFilter noSonarFilter;
 
   private SensorContext context;
+  private Set<CxxAstScanner.Requirement> requirements;
 
   /**
    * {@inheritDoc}
@@ -167,6 +177,55 @@ public class CxxSquidSensor implements ProjectSensor {
         .onQualifiers(Qualifiers.PROJECT)
         .type(PropertyType.BOOLEAN)
         .build(),
+      PropertyDefinition.builder(SCAN_STATISTICS_REPORT_KEY)
+        .name("Scan Statistics Report")
+        .description(
+          "Path of a JSON file to which the time spent in the parser, in each visitor and check and for the slowest"
+            + " files is written at the end of the analysis. The path may be either absolute or relative to the"
+            + " project base directory. The statistics are also written to the debug log."
+        )
+        .category("CXX")
+        .subCategory("(1) General")
+        .onQualifiers(Qualifiers.PROJECT)
+        .build(),
+      PropertyDefinition.builder(PARSE_TIMEOUT_KEY)
+        .defaultValue("0")
+        .name("Parse Timeout")
+        .description(
+          "Maximum time in seconds to preprocess and parse a single file. If the time is exceeded, the file is"
+            + " skipped and reported as parse error. `0` means no limit."
+        )
+        .category("CXX")
+        .subCategory("(1) General")
+        .onQualifiers(Qualifiers.PROJECT)
+        .type(PropertyType.INTEGER)
+        .build(),
+      PropertyDefinition.builder(PARSE_TOKEN_LIMIT_KEY)
+        .defaultValue("0")
+        .name("Parse Token Limit")
+        .description(
+          "Maximum number of tokens processed by the preprocessor for a single file, including the tokens of the"
+            + " included files and of the macro expansions. The same limit applies to the number of parse steps"
+            + " (attempts to match a declaration, a statement or an expression) of the parser. If the limit is"
+            + " exceeded, the file is skipped and reported as parse error. `0` means no limit."
+        )
+        .category("CXX")
+        .subCategory("(1) General")
+        .onQualifiers(Qualifiers.PROJECT)
+        .type(PropertyType.INTEGER)
+        .build(),
+      PropertyDefinition.builder(MACRO_EXPANSION_DEPTH_LIMIT_KEY)
+        .defaultValue("0")
+        .name("Macro Expansion Depth Limit")
+        .description(
+          "Maximum nesting depth of macro expansions. If the limit is exceeded, the file is skipped and reported as"
+            + " parse error. `0` means no limit."
+        )
+        .category("CXX")
+        .subCategory("(1) General")
+        .onQualifiers(Qualifiers.PROJECT)
+        .type(PropertyType.INTEGER)
+        .build(),
       PropertyDefinition.builder(MsBuild.REPORT_PATH_KEY)
         .name("(2.5) Path(s) to MSBuild Log(s)")
         .description(
@@ -201,6 +260,18 @@ public class CxxSquidSensor implements ProjectSensor {
         )
         .onQualifiers(Qualifiers.PROJECT)
         .build(),
+      PropertyDefinition.builder(CONFIGURATION_SNAPSHOT_KEY)
+        .category("CXX")
+        .subCategory("(2) Preprocessor")
+        .name("(2.7) Configuration Snapshot")
+        .description(
+          "Path of a binary file in which the configuration read from `sonar.cxx.jsonCompilationDatabase` and"
+            + " `sonar.cxx.msbuild.reportPaths` is stored. Later analyses read the configuration from this file as"
+            + " long as the JSON Compilation Database and the MSBuild logs are unchanged (same size and modification"
+            + " time). The path may be either absolute or relative to the project base directory."
+        )
+        .onQualifiers(Qualifiers.PROJECT)
+        .build(),
       PropertyDefinition.builder(CxxPublicApiVisitor.API_FILE_SUFFIXES_KEY)
         .defaultValue(CxxPublicApiVisitor.API_DEFAULT_FILE_SUFFIXES)
         .name("Public API File suffixes")
@@ -291,15 +362,18 @@ public class CxxSquidSensor implements ProjectSensor {
       }
     }
 
+    Iterable<InputFile> inputFiles = context.fileSystem().inputFiles(
+      context.fileSystem().predicates().and(context.fileSystem().predicates().hasLanguage("cxx"),
+                                            context.fileSystem().predicates().hasType(InputFile.Type.MAIN))
+    );
+
+    requirements = getRequirements(inputFiles);
     var scanner = CxxAstScanner.create(
       createConfiguration(),
+      requirements,
       visitors.toArray(new SquidAstVisitor[visitors.size()])
     );
 
-    Iterable<InputFile> inputFiles = context.fileSystem().inputFiles(
-      context.fileSystem().predicates().and(context.fileSystem().predicates().hasLanguage("cxx"),
-                                            context.fileSystem().predicates().hasType(InputFile.Type.MAIN))
-    );
     scanner.scanInputFiles(inputFiles);
 
     Collection<SourceCode> squidSourceFiles = scanner.getIndex().search(new QueryByType(SourceFile.class));
@@ -311,6 +385,37 @@ public class CxxSquidSensor implements ProjectSensor {
     return getClass().getSimpleName();
   }
 
+  /**
+   * SonarLint only needs the issues. The public API metrics are only needed if there are files with API suffixes.
+   */
+  private Set<CxxAstScanner.Requirement> getRequirements(Iterable<InputFile> inputFiles) {
+    if (context.runtime().getProduct() == SonarProduct.SONARLINT) {
+      return EnumSet.noneOf(CxxAstScanner.Requirement.class);
+    }
+
+    var result = EnumSet.allOf(CxxAstScanner.Requirement.class);
+    String[] suffixes = context.config().getStringArray(CxxPublicApiVisitor.API_FILE_SUFFIXES_KEY);
+    if (suffixes.length == 0) {
+      suffixes = CxxPublicApiVisitor.API_DEFAULT_FILE_SUFFIXES.split(",");
+    }
+    if (!hasFileWithSuffix(inputFiles, suffixes)) {
+      result.remove(CxxAstScanner.Requirement.PUBLIC_API);
+    }
+    return result;
+  }
+
+  private static boolean hasFileWithSuffix(Iterable<InputFile> inputFiles, String[] suffixes) {
+    for (var inputFile : inputFiles) {
+      var filename = inputFile.filename().toLowerCase(Locale.ENGLISH);
+      for (var suffix : suffixes) {
+        if (filename.endsWith(suffix.trim().toLowerCase(Locale.ENGLISH))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   private String[] stripValue(String key, String regex) {
     Optional<String> value = context.config().get(key);
     if (value.isPresent()) {
@@ -338,6 +443,15 @@ public class CxxSquidSensor implements ProjectSensor {
                     context.config().getStringArray(CxxPublicApiVisitor.API_FILE_SUFFIXES_KEY));
     squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.JSON_COMPILATION_DATABASE,
                     context.config().get(JSON_COMPILATION_DATABASE_KEY));
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.SCAN_STATISTICS_REPORT,
+                    CxxUtils.resolveAntPath(context.fileSystem().baseDir().getAbsolutePath(),
+                                            context.config().get(SCAN_STATISTICS_REPORT_KEY).orElse(null)));
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.PARSE_TIMEOUT,
+                    context.config().get(PARSE_TIMEOUT_KEY));
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.PARSE_TOKEN_LIMIT,
+                    context.config().get(PARSE_TOKEN_LIMIT_KEY));
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.MACRO_EXPANSION_DEPTH_LIMIT,
+                    context.config().get(MACRO_EXPANSION_DEPTH_LIMIT_KEY));
 
     squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.DEFINES,
                     stripValue(DEFINES_KEY, "\\R"));
@@ -346,13 +460,14 @@ public class CxxSquidSensor implements ProjectSensor {
     squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.INCLUDE_DIRECTORIES,
                     context.config().getStringArray(INCLUDE_DIRECTORIES_KEY));
 
-    squidConfig.readJsonCompilationDb();
-
+    List<File> logFiles = new ArrayList<>();
     if (context.config().hasKey(MsBuild.REPORT_PATH_KEY)) {
-      List<File> logFiles = CxxUtils.getFiles(context, MsBuild.REPORT_PATH_KEY);
-      squidConfig.readMsBuildFiles(logFiles, context.config().get(MsBuild.REPORT_ENCODING_DEF)
-                                   .orElse(MsBuild.DEFAULT_ENCODING_DEF));
+      logFiles = CxxUtils.getFiles(context, MsBuild.REPORT_PATH_KEY);
     }
+    String snapshot = CxxUtils.resolveAntPath(context.fileSystem().baseDir().getAbsolutePath(),
+                                              context.config().get(CONFIGURATION_SNAPSHOT_KEY).orElse(null));
+    squidConfig.readConfiguration(logFiles, context.config().get(MsBuild.REPORT_ENCODING_DEF)
+                                  .orElse(MsBuild.DEFAULT_ENCODING_DEF), snapshot != null ? new File(snapshot) : null);
 
     return squidConfig;
   }
@@ -366,9 +481,15 @@ public class CxxSquidSensor implements ProjectSensor {
 
         saveMeasures(inputFile, sourceFile);
         saveViolations(inputFile, sourceFile);
-        saveFileLinesContext(inputFile, sourceFile);
-        saveCpdTokens(inputFile, sourceFile);
-        saveHighlighting(inputFile, sourceFile);
+        if (requirements.contains(CxxAstScanner.Requirement.FILE_LINES)) {
+          saveFileLinesContext(inputFile, sourceFile);
+        }
+        if (requirements.contains(CxxAstScanner.Requirement.CPD)) {
+          saveCpdTokens(inputFile, sourceFile);
+        }
+        if (requirements.contains(CxxAstScanner.Requirement.HIGHLIGHTING)) {
+          saveHighlighting(inputFile, sourceFile);
+        }
       } catch (IllegalStateException e) {
         var msg = "Cannot save all measures for file '" + sourceCodeFile.getKey() + "'";
         CxxUtils.validateRecovery(msg, e, context.config());
@@ -381,6 +502,10 @@ public class CxxSquidSensor implements ProjectSensor {
     // NOSONAR
     noSonarFilter.noSonarInFile(inputFile, sourceFile.getNoSonarTagLines());
 
+    if (!requirements.contains(CxxAstScanner.Requirement.METRICS)) {
+      return;
+    }
+
     // CORE METRICS
     saveMetric(inputFile, CoreMetrics.NCLOC, sourceFile.getInt(CxxMetric.LINES_OF_CODE));
     saveMetric(inputFile, CoreMetrics.STATEMENTS, sourceFile.getInt(CxxMetric.STATEMENTS));
@@ -396,8 +521,10 @@ public class CxxSquidSensor implements ProjectSensor {
     // below metrics are calculated by means of DensityMeasureComputer
     //
     // 1. PUBLIC API
-    saveMetric(inputFile, CxxMetrics.PUBLIC_API, sourceFile.getInt(CxxMetric.PUBLIC_API));
-    saveMetric(inputFile, CxxMetrics.PUBLIC_UNDOCUMENTED_API, sourceFile.getInt(CxxMetric.PUBLIC_UNDOCUMENTED_API));
+    if (requirements.contains(CxxAstScanner.Requirement.PUBLIC_API)) {
+      saveMetric(inputFile, CxxMetrics.PUBLIC_API, sourceFile.getInt(CxxMetric.PUBLIC_API));
+      saveMetric(inputFile, CxxMetrics.PUBLIC_UNDOCUMENTED_API, sourceFile.getInt(CxxMetric.PUBLIC_UNDOCUMENTED_API));
+    }
 
     // 2. FUNCTION COMPLEXITY
     saveMetric(inputFile, CxxMetrics.COMPLEX_FUNCTIONS, sourceFile.getInt(CxxMetric.COMPLEX_FUNCTIONS));
@@ -457,8 +584,8 @@ public class CxxSquidSensor implements ProjectSensor {
   private void saveFileLinesContext(InputFile inputFile, SourceFile sourceFile) {
     // measures for the lines of file
     var fileLinesContext = fileLinesContextFactory.createFor(inputFile);
-    List<Integer> linesOfCode = (List<Integer>) sourceFile.getData(CxxMetric.NCLOC_DATA);
-    linesOfCode.stream().sequential().distinct().forEach((line) -> {
+    var linesOfCode = (LineSet) sourceFile.getData(CxxMetric.NCLOC_DATA);
+    linesOfCode.forEach((line) -> {
       try {
         fileLinesContext.setIntValue(CoreMetrics.NCLOC_DATA_KEY, line, 1);
       } catch (IllegalArgumentException | IllegalStateException e) {
@@ -466,8 +593,8 @@ public class CxxSquidSensor implements ProjectSensor {
         LOG.debug("NCLOC error in file '{}' at line:{}", inputFile.filename(), line);
       }
     });
-    List<Integer> executableLines = (List<Integer>) sourceFile.getData(CxxMetric.EXECUTABLE_LINES_DATA);
-    executableLines.stream().sequential().distinct().forEach((line) -> {
+    var executableLines = (LineSet) sourceFile.getData(CxxMetric.EXECUTABLE_LINES_DATA);
+    executableLines.forEach((line) -> {
       try {
         fileLinesContext.setIntValue(CoreMetrics.EXECUTABLE_LINES_DATA_KEY, line, 1);
       } catch (IllegalArgumentException | IllegalStateException e) {
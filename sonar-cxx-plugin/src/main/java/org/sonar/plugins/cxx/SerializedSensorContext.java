@@ -0,0 +1,152 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.cxx;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+
+/**
+ * Wraps a SensorContext to be used by multiple threads.
+ *
+ * The SensorContext and the storage behind it are not thread safe. All calls to the context and all save() calls of
+ * the objects created by the context (NewIssue, NewCoverage, NewMeasure, ...) are serialized. Building the objects
+ * (setting locations, line hits, ...) is done in the calling thread without synchronization, the created objects are
+ * owned by one thread only.
+ *
+ * The file system returned by the context is wrapped too, all its calls are serialized. The metadata of the input
+ * files it returns is created in the serialized call, this is not thread safe either.
+ *
+ * The calls are executed in the calling thread, exceptions are thrown to the caller as before. This keeps the error
+ * recovery of the sensors working.
+ */
+final class SerializedSensorContext {
+
+  private static final String SENSOR_API_PACKAGE = "org.sonar.api.batch.sensor.";
+  private static final String SAVE = "save";
+
+  private SerializedSensorContext() {
+  }
+
+  static SensorContext create(SensorContext context) {
+    return wrap(context, SensorContext.class, new Object(), true);
+  }
+
+  private static <T> T wrap(T target, Class<T> type, Object lock, boolean serializeAll) {
+    return type.cast(Proxy.newProxyInstance(SerializedSensorContext.class.getClassLoader(),
+                                            new Class<?>[]{type},
+                                            new Handler(target, lock, serializeAll)));
+  }
+
+  private static boolean hasSave(Class<?> type) {
+    try {
+      type.getMethod(SAVE);
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static class Handler implements InvocationHandler {
+
+    private final Object target;
+    private final Object lock;
+    private final boolean serializeAll;
+
+    Handler(Object target, Object lock, boolean serializeAll) {
+      this.target = target;
+      this.lock = lock;
+      this.serializeAll = serializeAll;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      unwrap(args);
+      var returnType = method.getReturnType();
+      Object result;
+      try {
+        if (serializeAll || SAVE.equals(method.getName())) {
+          synchronized (lock) {
+            result = complete(method.invoke(target, args), returnType);
+          }
+        } else {
+          result = method.invoke(target, args);
+        }
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+
+      if (result == target) {
+        // fluent interface: return the wrapper again
+        return proxy;
+      }
+      if (result instanceof FileSystem) {
+        return wrap((FileSystem) result, FileSystem.class, lock, true);
+      }
+      if (result != null && returnType.isInterface() && returnType.getName().startsWith(SENSOR_API_PACKAGE)
+            && hasSave(returnType)) {
+        return wrapResult(result, returnType);
+      }
+      return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T wrapResult(Object result, Class<T> type) {
+      return wrap((T) result, type, lock, false);
+    }
+
+    /**
+     * Finish the work of a serialized call which would otherwise be done later in the calling thread.
+     */
+    private static Object complete(@Nullable Object result, Class<?> returnType) {
+      if (result instanceof InputFile) {
+        // creates the metadata on first use
+        ((InputFile) result).lines();
+      } else if (result instanceof Iterable && Iterable.class.equals(returnType)) {
+        // results of the file system are evaluated lazily
+        var list = new ArrayList<Object>();
+        ((Iterable<?>) result).forEach(list::add);
+        return list;
+      }
+      return result;
+    }
+
+    private static void unwrap(Object[] args) {
+      if (args != null) {
+        for (var i = 0; i < args.length; i++) {
+          if (args[i] != null && Proxy.isProxyClass(args[i].getClass())) {
+            var handler = Proxy.getInvocationHandler(args[i]);
+            if (handler instanceof Handler) {
+              args[i] = ((Handler) handler).target;
+            }
+          }
+        }
+      }
+    }
+
+  }
+
+}
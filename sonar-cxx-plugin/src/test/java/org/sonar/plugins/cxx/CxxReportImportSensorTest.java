@@ -0,0 +1,212 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.cxx;
+
+import java.io.IOException;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.batch.rule.internal.NewActiveRule;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.batch.sensor.internal.DefaultSensorDescriptor;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.cxx.sensors.utils.CxxReportSensor;
+
+public class CxxReportImportSensorTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private SensorContextTester context;
+  private MapSettings settings;
+
+  @Before
+  public void setUp() throws IOException {
+    context = SensorContextTester.create(tmp.newFolder());
+    context.fileSystem().add(TestInputFileBuilder.create("ProjectKey", "test.cpp")
+      .setLanguage("cxx").initMetadata("int a;\nint b;\n").build());
+    settings = new MapSettings();
+  }
+
+  @Test
+  public void describe() {
+    var descriptor = new DefaultSensorDescriptor();
+    new CxxReportImportSensor(null).describe(descriptor);
+
+    assertThat(descriptor.name()).isEqualTo("CXX parallel report import");
+    assertThat(descriptor.languages()).containsOnly("cxx");
+    assertThat(descriptor.configurationPredicate().test(settings.asConfig())).isFalse();
+    settings.setProperty(CxxReportImportSensor.REPORT_IMPORT_THREADS_KEY, "4");
+    assertThat(descriptor.configurationPredicate().test(settings.asConfig())).isTrue();
+  }
+
+  @Test
+  public void executeConfiguredSensorsConcurrently() {
+    settings.setProperty(CxxReportImportSensor.REPORT_IMPORT_THREADS_KEY, "2");
+    settings.setProperty("sonar.cxx.test1.reportPaths", "report1");
+    settings.setProperty("sonar.cxx.test2.reportPaths", "report2");
+    context.setSettings(settings);
+
+    var sensor1 = new TestReportSensor("sonar.cxx.test1.reportPaths", 1);
+    var sensor2 = new TestReportSensor("sonar.cxx.test2.reportPaths", 2);
+    var sensor3 = new TestReportSensor("sonar.cxx.test3.reportPaths", 3);
+
+    // executed by the scanner: sensors skip their own execution
+    sensor1.execute(context);
+    assertThat(sensor1.executed).isFalse();
+
+    new CxxReportImportSensor(new CxxReportSensor[]{sensor1, sensor2, sensor3}).execute(context);
+
+    assertThat(sensor1.executed).isTrue();
+    assertThat(sensor2.executed).isTrue();
+    assertThat(sensor3.executed).isFalse();
+    assertThat(context.lineHits("ProjectKey:test.cpp", 1)).isEqualTo(1);
+    assertThat(context.lineHits("ProjectKey:test.cpp", 2)).isEqualTo(2);
+    assertThat(context.measure("ProjectKey:test.cpp", CoreMetrics.TESTS).value()).isEqualTo(1);
+  }
+
+  @Test
+  public void executeOnlySensorsWithActiveRules() {
+    settings.setProperty(CxxReportImportSensor.REPORT_IMPORT_THREADS_KEY, "2");
+    settings.setProperty("sonar.cxx.test1.reportPaths", "report1");
+    settings.setProperty("sonar.cxx.test2.reportPaths", "report2");
+    context.setSettings(settings);
+    context.setActiveRules(new ActiveRulesBuilder()
+      .addRule(new NewActiveRule.Builder()
+        .setRuleKey(RuleKey.of("repo1", "rule"))
+        .build())
+      .build());
+
+    var sensor1 = new TestReportSensor("sonar.cxx.test1.reportPaths", 1, "repo1");
+    var sensor2 = new TestReportSensor("sonar.cxx.test2.reportPaths", 2, "repo2");
+
+    new CxxReportImportSensor(new CxxReportSensor[]{sensor1, sensor2}).execute(context);
+
+    assertThat(sensor1.executed).isTrue();
+    assertThat(sensor2.executed).isFalse();
+  }
+
+  @Test
+  public void executeOnlySensorsWithFilesOfType() {
+    settings.setProperty(CxxReportImportSensor.REPORT_IMPORT_THREADS_KEY, "2");
+    settings.setProperty("sonar.cxx.test1.reportPaths", "report1");
+    settings.setProperty("sonar.cxx.test2.reportPaths", "report2");
+    context.setSettings(settings);
+
+    var sensor1 = new TestReportSensor("sonar.cxx.test1.reportPaths", 1);
+    sensor1.type = InputFile.Type.MAIN;
+    var sensor2 = new TestReportSensor("sonar.cxx.test2.reportPaths", 2);
+    sensor2.type = InputFile.Type.TEST;
+
+    new CxxReportImportSensor(new CxxReportSensor[]{sensor1, sensor2}).execute(context);
+
+    assertThat(sensor1.executed).isTrue();
+    assertThat(sensor2.executed).isFalse();
+  }
+
+  @Test
+  public void lookupFilesOfOtherLanguages() {
+    settings.setProperty(CxxReportImportSensor.REPORT_IMPORT_THREADS_KEY, "2");
+    settings.setProperty("sonar.cxx.test1.reportPaths", "report1");
+    context.setSettings(settings);
+    context.fileSystem().add(TestInputFileBuilder.create("ProjectKey", "test.c")
+      .setLanguage("c").initMetadata("int a;\nint b;\n").build());
+
+    var sensor1 = new TestReportSensor("sonar.cxx.test1.reportPaths", 1);
+    sensor1.path = "test.c";
+
+    new CxxReportImportSensor(new CxxReportSensor[]{sensor1}).execute(context);
+
+    assertThat(sensor1.executed).isTrue();
+    assertThat(context.lineHits("ProjectKey:test.c", 1)).isEqualTo(1);
+  }
+
+  @Test
+  public void rethrowSensorFailure() {
+    settings.setProperty(CxxReportImportSensor.REPORT_IMPORT_THREADS_KEY, "2");
+    settings.setProperty("sonar.cxx.test1.reportPaths", "report1");
+    settings.setProperty("sonar.cxx.test2.reportPaths", "report2");
+    context.setSettings(settings);
+
+    var sensor1 = new TestReportSensor("sonar.cxx.test1.reportPaths", 1);
+    var sensor2 = new TestReportSensor("sonar.cxx.test2.reportPaths", 1);
+    var sensor = new CxxReportImportSensor(new CxxReportSensor[]{sensor1, sensor2});
+
+    // second sensor saves the same measure again
+    assertThatThrownBy(() -> sensor.execute(context)).isInstanceOf(IllegalStateException.class)
+      .hasMessage("Can not add the same measure twice");
+    assertThat(sensor1.executed).isTrue();
+    assertThat(sensor2.executed).isTrue();
+  }
+
+  private static class TestReportSensor extends CxxReportSensor {
+
+    private final String reportPathKey;
+    private final int line;
+    private final String[] ruleRepositories;
+    private InputFile.Type type = null;
+    private String path = "test.cpp";
+    private boolean executed = false;
+
+    TestReportSensor(String reportPathKey, int line, String... ruleRepositories) {
+      this.reportPathKey = reportPathKey;
+      this.line = line;
+      this.ruleRepositories = ruleRepositories;
+    }
+
+    @Override
+    public void describe(SensorDescriptor descriptor) {
+      descriptor
+        .name("test")
+        .onlyOnLanguage("cxx")
+        .onlyOnFileType(type)
+        .createIssuesForRuleRepositories(ruleRepositories)
+        .onlyWhenConfiguration(conf -> conf.hasKey(reportPathKey));
+    }
+
+    @Override
+    protected void executeImpl() {
+      executed = true;
+      var inputFile = getInputFileIfInProject(path);
+      context.newCoverage()
+        .onFile(inputFile)
+        .lineHits(line, line)
+        .save();
+      if (line == 1) {
+        context.<Integer>newMeasure()
+          .on(inputFile)
+          .forMetric(CoreMetrics.TESTS)
+          .withValue(1)
+          .save();
+      }
+    }
+
+  }
+
+}
@@ -19,13 +19,17 @@
  */
 package org.sonar.plugins.cxx;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -35,14 +39,19 @@ import org.sonar.api.batch.rule.CheckFactory;
 import org.sonar.api.batch.sensor.cpd.internal.TokensLine;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.internal.SonarRuntimeImpl;
 import org.sonar.api.issue.NoSonarFilter;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.FileLinesContext;
 import org.sonar.api.measures.FileLinesContextFactory;
+import org.sonar.api.utils.Version;
 import org.sonar.cxx.CxxMetrics;
 
 public class CxxSquidSensorTest {
 
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
   private CxxSquidSensor sensor;
   private final MapSettings settings = new MapSettings();
 
@@ -77,6 +86,37 @@ public class CxxSquidSensorTest {
     softly.assertAll();
   }
 
+  @Test
+  public void testScanStatisticsReport() throws IOException {
+    File baseDir = TestUtils.loadResource("/org/sonar/plugins/cxx/codechunks-project");
+    var report = new File(tmp.getRoot(), "statistics.json");
+    var context = SensorContextTester.create(baseDir);
+    settings.setProperty(CxxSquidSensor.SCAN_STATISTICS_REPORT_KEY, report.getAbsolutePath());
+    context.setSettings(settings);
+    context.fileSystem().add(TestUtils.buildInputFile(baseDir, "code_chunks.cc"));
+    sensor.execute(context);
+
+    assertThat(report).exists();
+    var json = Files.readString(report.toPath());
+    assertThat(new ObjectMapper().readTree(json).get("files").asInt()).isEqualTo(1);
+    assertThat(json).contains("code_chunks.cc", "CxxCpdVisitor");
+  }
+
+  @Test
+  public void testSonarLintRuntime() throws IOException {
+    File baseDir = TestUtils.loadResource("/org/sonar/plugins/cxx/codechunks-project");
+    var inputFile = TestUtils.buildInputFile(baseDir, "code_chunks.cc");
+    var context = SensorContextTester.create(baseDir);
+    context.setRuntime(SonarRuntimeImpl.forSonarLint(Version.create(8, 6)));
+    context.fileSystem().add(inputFile);
+    sensor.execute(context);
+
+    // only issues are needed
+    assertThat(context.measures(inputFile.key())).isEmpty();
+    assertThat(context.cpdTokens(inputFile.key())).isNull();
+    assertThat(context.highlightingTypeAt(inputFile.key(), 1, 0)).isEmpty();
+  }
+
   @Test
   public void testCpdTokens() throws Exception {
     File baseDir = TestUtils.loadResource("/org/sonar/plugins/cxx");